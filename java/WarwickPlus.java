@@ -15,6 +15,9 @@ import javax.swing.JProgressBar;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.MouseInputAdapter;
 import javax.swing.plaf.InsetsUIResource;
 
@@ -27,6 +30,7 @@ import utils.Constants;
 import utils.DisplayImage;
 import utils.LoadData;
 import utils.LoadData.DataLoadException;
+import utils.SharedImages;
 
 public class WarwickPlus {
     // private static AbstractStores stores = new Stores();
@@ -128,7 +132,7 @@ public class WarwickPlus {
 
         DisplayImage logo;
         try {
-            logo = new DisplayImage("src/main/resources/img/WarwickPlusLogo.png");
+            logo = new DisplayImage(SharedImages.LOGO);
             logo.setBounds(0, (int) (Constants.vSize * 0.125), Constants.hSize, (int) (Constants.vSize * 0.25));
             frame.getContentPane().add(logo);
         } catch (IOException e1) {
@@ -160,14 +164,11 @@ public class WarwickPlus {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
         try{
-            LoadData loading = new LoadData(loadingBar, loadingText, creditsPath, keywordsPath, movieMetadataPath, ratingsPath);
-            //Populate the student stores
-            if (numMovies == null){
-                loading.populate(stores);
-            }
-            else {
-                loading.populate(stores, 0, numMovies);
-            }
+            //Stream the files straight into the student stores, restricted to numMovies films if given.
+            //Full loads come from the snapshot instead whenever the files haven't changed since it was made
+            LoadData loading = new LoadData(loadingBar, loadingText, creditsPath, keywordsPath, movieMetadataPath, ratingsPath, stores, numMovies, Constants.defaultSnapshotPath);
+            LoadData.NumRecordsAdded added = loading.getStreamedRecords();
+            System.out.println("Added " + added.movies + " movies, " + added.credits + " credits, " + added.keywords + " keywords and " + added.ratings + " ratings");
 
             System.out.println("\nFinished Loading...");
             setHomescreen(frame.getContentPane(), stores);
@@ -203,7 +204,7 @@ public class WarwickPlus {
         //Build logo with required click listener
         DisplayImage logo;
         try {
-            logo = new DisplayImage("src/main/resources/img/WarwickPlusLogo.png");
+            logo = new DisplayImage(SharedImages.LOGO);
             logo.setBounds(0, (int) (Constants.vSize * 0.01), (int) (Constants.hSize * 0.15), (int) (Constants.vSize * 0.05));
             logo.addMouseListener(new MouseInputAdapter() {
 
@@ -229,9 +230,31 @@ public class WarwickPlus {
             @Override
             public void mouseClicked(MouseEvent e) {searchBox.setText("");}
         });
+        //Search as the user types, once they have stopped typing for a moment
+        Timer searchTimer = new Timer(Constants.searchDelay, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String searchTerm = searchBox.getText();
+                if (searchTerm.length() >= Constants.searchMinLength && !searchTerm.equals("Search...")) {
+                    SearchScreen.createPanel(content, searchTerm, stores);
+                }
+            }
+        });
+        searchTimer.setRepeats(false);
+        searchBox.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {searchTimer.restart();}
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {searchTimer.restart();}
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {}
+        });
         searchBox.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                searchTimer.stop(); // Searched straight away instead
                 SwingUtilities.invokeLater(new Runnable() {
                     @Override
                     public void run() {
@@ -1,5 +1,8 @@
 package interfaces;
 
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
 // Abstract class for Stores so that other stores classes can be made
 // Not technically an interface, but fits with all the other interfaces well.
 public abstract class AbstractStores {
@@ -8,8 +11,61 @@ public abstract class AbstractStores {
     protected IMovies movies;
     protected IRatings ratings;
 
+    // Screens query the stores from several background threads at once (see utils.ScreenLoader).
+    // Those queries share the read lock, and removeFilm takes the write lock. Reading a store never
+    // writes to it (text read from the data files is cached by LazyText, which locks its own cache),
+    // so queries can share it. Only the background queries are locked: the EDT also
+    // reads the stores without the lock, such as when result lists draw titles and cast summaries,
+    // and relies on nothing changing the stores once they are loaded. Nothing calls removeFilm
+    // while screens are shown
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
     public ICredits  getCredits()  { return this.credits; }
     public IKeywords getKeywords() { return this.keywords; }
     public IMovies   getMovies()   { return this.movies; }
     public IRatings  getRatings()  { return this.ratings; }
+
+    /**
+     * Replaces every store with a new, empty one. Only used while the stores are loaded,
+     * before any screen has read them, such as when a snapshot turns out to be corrupt
+     * part way through being loaded.
+     */
+    public abstract void clear();
+
+    /**
+     * Runs a query with the stores locked for reading. Any number of queries can run at
+     * once on different threads, but never while a film is being removed.
+     *
+     * @param query The query, which must only read the stores
+     * @return What the query returns
+     */
+    public <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a film and everything linked to it from every store: the film itself
+     * (with its collection membership and indexes), its credits, its keywords and
+     * its ratings. Each store only touches the data attached to this film.
+     *
+     * @param filmID The movie ID
+     * @return TRUE if the film was found in the Movies store, FALSE otherwise
+     */
+    public boolean removeFilm(int filmID) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = movies.remove(filmID);
+            credits.remove(filmID);
+            keywords.remove(filmID);
+            ratings.removeMovie(filmID);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 }
@@ -1,11 +1,15 @@
 package interfaces;
 
+import java.util.function.BooleanSupplier;
+
 import stores.CastCredit;
 import stores.CrewCredit;
 import stores.Person;
+import structures.IdSet;
 
 public interface ICredits{
     public boolean add(CastCredit[] cast, CrewCredit[] crew, int filmID);
+    public int addAll(CastCredit[][] cast, CrewCredit[][] crew, int[] filmIDs);
     public boolean remove(int filmID);
     
     public CastCredit[] getFilmCast(int filmID);
@@ -16,6 +20,8 @@ public interface ICredits{
     public int[] getCastFilms(int castID);
     public int[] getCrewFilms(int crewID);
     public int[] getCastStarsInFilms(int castID);
+    public IdSet getCastPostings(int castID);
+    public IdSet getCrewPostings(int crewID);
 
     public Person[] getMostCastCredits(int numResults);
     public int getNumCastCredits(int castID);
@@ -28,6 +34,8 @@ public interface ICredits{
 
     public Person[] findCast(String searchTerm);
     public Person[] findCrew(String searchTerm);
+    public Person[] findCast(String searchTerm, Person[] candidates, BooleanSupplier cancelled);
+    public Person[] findCrew(String searchTerm, Person[] candidates, BooleanSupplier cancelled);
 
     public int size();
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package interfaces;
 
+import java.util.function.BooleanSupplier;
+
 import stores.Keyword;
+import structures.IdSet;
 
 public interface IKeywords{
 
     public boolean add(int filmID, Keyword[] keywords);
     public boolean add(int filmID, Keyword keyword);
+    public int addAll(int[] filmIDs, Keyword[][] keywords);
 
     public boolean remove(int filmID);
     public boolean removeKeywordFromFilm(int filmID, int keywordID);
@@ -14,6 +18,7 @@ public interface IKeywords{
     public int[] getKeywordIDs();
 
     public int[] getFilmsWithKeyword(int keywordID);
+    public IdSet getKeywordPostings(int keywordID);
 
     public Keyword[] getKeywordsForFilm(int filmID);
     public Keyword[] getUnique();
@@ -21,6 +26,7 @@ public interface IKeywords{
     public int[] getMostKeywordFilms(int numResults);
 
     public Keyword[] findKeywords(String searchTerm);
+    public Keyword[] findKeywords(String searchTerm, Keyword[] candidates, BooleanSupplier cancelled);
 
     public String toString();
     public int size();
@@ -1,16 +1,25 @@
 package interfaces;
 
 import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
 
 import stores.Company;
 import stores.Genre;
+import stores.MovieRecord;
+import structures.IdSet;
+import structures.IntView;
+import structures.ObjectView;
 
 public interface IMovies {
     public boolean add(int id, String title, String originalTitle, String overview, String tagline, String status, Genre[] genres, LocalDate release, long budget, long revenue, String[] languages, String originalLanguage, double runtime, String homepage, boolean adult, boolean video, String poster);
+    public int addAll(MovieRecord[] movies);
     public boolean remove(int id);
 
+    public boolean contains(int id);
     public int[] getAllIDs();
     public int[] getAllIDsReleasedInRange(LocalDate start, LocalDate end);
+    public IdSet getReleasedInRangePostings(LocalDate start, LocalDate end);
+    public IdSet getGenrePostings(int genreID);
 
     public String getTitle(int id);
     public String getOriginalTitle(int id);
@@ -35,6 +44,7 @@ public interface IMovies {
 
     public boolean addToCollection(int filmID, int collectionID, String collectionName, String collectionPosterPath, String collectionBackdropPath);
     public int[] getFilmsInCollection(int collectionID);
+    public IntView getFilmsInCollectionView(int collectionID);
     public String getCollectionName(int collectionID);
     public String getCollectionPoster(int collectionID);
     public String getCollectionBackdrop(int collectionID);
@@ -50,8 +60,11 @@ public interface IMovies {
     public boolean addProductionCountry(int movieId, String country);
     public Company[] getProductionCompanies(int movieId);
     public String[] getProductionCountries(int movieId);
+    public ObjectView<Company> getProductionCompaniesView(int movieId);
+    public ObjectView<String> getProductionCountriesView(int movieId);
 
     public int[] findFilms(String searchTerm);
+    public int[] findFilms(String searchTerm, int[] candidates, BooleanSupplier cancelled);
 
     public int size();
 }
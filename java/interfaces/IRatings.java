@@ -4,8 +4,10 @@ import java.time.LocalDateTime;
 
 public interface IRatings {
     public boolean add(int userID, int movieID, float rating, LocalDateTime timestamp);
+    public int addAll(int[] userIDs, int[] movieIDs, float[] ratings, long[] timestamps, int count);
 
     public boolean remove(int userID, int movieID);
+    public boolean removeMovie(int movieID);
 
     public boolean set(int userID, int movieID, float rating, LocalDateTime timestamp);
 
@@ -21,6 +21,7 @@ import ui.MovieReel;
 import utils.Constants;
 import utils.DisplayImage;
 import utils.DisplayImage.ImageType;
+import utils.ScreenLoader;
 
 
 
@@ -32,6 +33,7 @@ public class CastMemberScreen {
         if (castMember == null){
         }
         System.out.println("Cast Member screen --> ID: " + castID);
+        ScreenLoader.cancel(panel);
         panel.removeAll();
         panel.setLayout(new GridBagLayout());
         panel.setBackground(Constants.getHighlight());
@@ -169,11 +171,7 @@ class CastMemberAppearsInReel extends MovieReel {
             System.out.println("\tNo movies found");
         }
 
-        String[] labels = new String[length];
-        for (int i = 0; i < length; i++){
-            labels[i] = stores.getMovies().getTitle(movieResults[i]);
-        }
-        displayItems(movieResults, labels);
+        displayItems(movieResults, i -> stores.getMovies().getTitle(movieResults[i]));
         System.out.println("Finished running Appears In");
     }
 }
@@ -193,11 +191,7 @@ class CastMemberStarsInReel extends MovieReel {
         if (movieResults == null || length == 0){
             System.out.println("\tNo movies found");
         }
-        String[] labels = new String[length];
-        for (int i = 0; i < length; i++){
-            labels[i] = stores.getMovies().getTitle(movieResults[i]);
-        }
-        displayItems(movieResults, labels);
+        displayItems(movieResults, i -> stores.getMovies().getTitle(movieResults[i]));
         System.out.println("Finished running Stars In");
     }
 }
\ No newline at end of file
@@ -8,10 +8,10 @@ import java.time.LocalDate;
 
 import javax.swing.*;
 import javax.swing.border.*;
-import javax.swing.event.MouseInputListener;
 
 import stores.*;
 import ui.MovieReel;
+import ui.ResultList;
 import utils.*;
 import interfaces.AbstractStores;
 import javax.imageio.ImageIO;
@@ -21,6 +21,7 @@ import java.net.URL;
 public class CastScreen {
     public static void createPanel(JPanel panel, AbstractStores stores) {
         System.out.println("Cast screen");
+        ScreenLoader.cancel(panel);
         panel.setVisible(false);
         panel.setLayout(null);
         panel.removeAll();
@@ -107,6 +108,25 @@ public class CastScreen {
         SwingUtilities.invokeLater(oldMoviesCastRunnable);
         SwingUtilities.invokeLater(featuredCastMovieReel);
     }
+
+    /***
+     * Lists the cast of a film on one line, as "name (character) | name (character) | ..."
+     * 
+     * @param stores The stores to get the cast from
+     * @param filmID The film to list the cast of
+     * @return The cast of the film
+     */
+    static String castSummary(AbstractStores stores, int filmID) {
+        CastCredit[] cast = stores.getCredits().getFilmCast(filmID);
+        StringBuilder result = new StringBuilder();
+        for (int j = 0; j < cast.length; j ++) {
+            if (j > 0) { // add '|' between cast members
+                result.append(" | ");
+            }
+            result.append(cast[j].getName()).append(" (").append(cast[j].getCharacter()).append(")");
+        }
+        return result.toString();
+    }
 }
 
 class TopRatedCastRunnable implements Runnable {
@@ -137,8 +157,11 @@ class TopRatedCastRunnable implements Runnable {
 
     @Override
     public void run() {
+        ScreenLoader.load(masterPanel, stores, () -> stores.getRatings().getMostRatedMovies(Constants.topMoviesCount), this::showResults); // ids of top 20 movies
+    }
 
-        topMovies = stores.getRatings().getMostRatedMovies(Constants.topMoviesCount); // ids of top 20 movies
+    private void showResults(int[] topMovies) {
+        this.topMovies = topMovies;
 
         scrollPane.setVisible(false);
 
@@ -153,93 +176,11 @@ class TopRatedCastRunnable implements Runnable {
             System.out.println("\t" + topMovies.length + " of the top cast found (max: " + Constants.topMoviesCount + ")");
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setSize(scrollPane.getWidth(), topMovies.length * (itemHeight + ((new JSeparator()).getHeight())));
-
-        for (int i = 0; i < topMovies.length; i ++) {
-            JPanel resultItem = new JPanel();
-            resultItem.setBackground(Constants.getBackground());
-            resultItem.setSize(scrollPane.getWidth(), itemHeight);
-
-            String resultString = "";
-            int movieID = topMovies[i];
-            String currentTitle = stores.getMovies().getTitle(topMovies[i]); // title of the current movie
-            CastCredit[] cast = stores.getCredits().getFilmCast(topMovies[i]); // current cast
-
-            // create a clickable button
-            JPanel titlePanel = new JPanel();
-            JTextArea titleLabel = new JTextArea(currentTitle);
-            titlePanel.setBackground(Constants.getBackground());
-            titleLabel.setBackground(Constants.getBackground());
-            titleLabel.setForeground(Constants.getFontColor());
-            titleLabel.setBounds(0, (itemHeight * i), resultsPanel.getWidth()-40, itemHeight);
-            titleLabel.setEditable(false);
-            titleLabel.setLineWrap(true);
-            titleLabel.setWrapStyleWord(true);
-            titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, titleLabel.getFont().getSize()));
-            titlePanel.add(titleLabel);
-
-            titleLabel.addMouseListener(new MouseInputListener() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPanel, movieID, stores);                            
-                        }
-                    });
-                }
-                @Override
-                public void mousePressed(MouseEvent e) {}
-
-                @Override
-                public void mouseReleased(MouseEvent e) {}
-
-                @Override
-                public void mouseEntered(MouseEvent e) {}
-
-                @Override
-                public void mouseExited(MouseEvent e) {}
-
-                @Override
-                public void mouseDragged(MouseEvent e) {}
-
-                @Override
-                public void mouseMoved(MouseEvent e) {}
-            });
-
-            resultsPanel.add(titlePanel);
-
-            for (int j = 0; j < cast.length; j ++) {
-                resultString += cast[j].getName() + " (" + cast[j].getCharacter() + ")";
-                if (j < cast.length-1) { // add '|' only if not last cast member reached
-                    resultString += " | ";
-                }
-            }
-            JTextArea title = new JTextArea(resultString);
-            title.setBounds(0, (itemHeight * i), resultsPanel.getWidth()-40, itemHeight);
-            title.setForeground(Constants.getFontColor());
-            title.setBackground(Constants.getHighlight());
-            title.setEditable(false);
-            title.setLineWrap(true);
-            title.setWrapStyleWord(true);
-
-            resultItem.add(title);
-            resultItem.setBackground(Constants.getHighlight());
-            resultItem.setForeground(Constants.getFontColor());
-
-            resultsPanel.add(resultItem);
-
-            if (i < topMovies.length-1) {
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPanel.add(sep);
-            }
-        }
+        // Only the rows in view are drawn, and their cast is only listed then
+        ResultList list = new ResultList(topMovies.length, i -> stores.getMovies().getTitle(topMovies[i]),
+                                         i -> CastScreen.castSummary(stores, topMovies[i]),
+                                         i -> FilmScreen.createPanel(masterPanel, topMovies[i], stores));
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -278,7 +219,14 @@ class OldMoviesCastRunnable implements Runnable {
 
     @Override
     public void run() {
-        oldMovies = stores.getMovies().getAllIDsReleasedInRange(startDate, endDate); // IDs of movies released before a pre-defined date
+        // IDs of movies released in the 90's, oldest first
+        ScreenLoader.load(masterPanel, stores, () -> new FilmQuery(stores).releasedBetween(startDate, endDate)
+                                                                          .sortBy(FilmQuery.SortOrder.RELEASE, false)
+                                                                          .getAll(), this::showResults);
+    }
+
+    private void showResults(int[] oldMovies) {
+        this.oldMovies = oldMovies;
 
         scrollPane.setVisible(false);
 
@@ -293,99 +241,11 @@ class OldMoviesCastRunnable implements Runnable {
             System.out.println("\t" + oldMovies.length + " casts were found");
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setSize(scrollPane.getWidth(), oldMovies.length * (itemHeight + ((new JSeparator()).getHeight())));
-
-        for (int i = 0; i < oldMovies.length; i ++) {
-            JPanel resultItem = new JPanel();
-            resultItem.setSize(scrollPane.getWidth(), itemHeight);
-
-            String resultString = "";
-            int movieID = oldMovies[i];
-            String currentTitle = stores.getMovies().getTitle(oldMovies[i]);
-            CastCredit[] cast = stores.getCredits().getFilmCast(oldMovies[i]); // current cast
-
-            // create a clickable button
-            JPanel titlePanel = new JPanel();
-            JTextArea titleLabel = new JTextArea(currentTitle);
-            titlePanel.setBackground(Constants.getBackground());
-            titleLabel.setBackground(Constants.getBackground());
-            titleLabel.setForeground(Constants.getFontColor());
-            titleLabel.setBounds(0, (itemHeight * i), resultsPanel.getWidth()-40, itemHeight);
-            titleLabel.setEditable(false);
-            titleLabel.setLineWrap(true);
-            titleLabel.setWrapStyleWord(true);
-            titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, titleLabel.getFont().getSize()));
-            titlePanel.add(titleLabel);
-
-            titleLabel.addMouseListener(new MouseInputListener() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPanel, movieID, stores);
-                        }
-                    });
-                }
-
-                @Override
-                public void mousePressed(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseExited(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseDragged(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseMoved(MouseEvent e) {
-                }
-            });
-
-            resultsPanel.add(titlePanel);
-
-            for (int j = 0; j < cast.length; j ++) {
-                resultString += cast[j].getName() + " (" + cast[j].getCharacter() + ")";
-                if (j < cast.length-1) { // add '|' only if not last cast member reached
-                    resultString += " | ";
-                }
-            }
-            JTextArea detail = new JTextArea(resultString);
-            detail.setBounds(0, (itemHeight * i), resultsPanel.getWidth()-40, itemHeight);
-            detail.setForeground(Constants.getFontColor());
-            detail.setBackground(Constants.getHighlight());
-            detail.setEditable(false);
-            detail.setLineWrap(true);
-            detail.setWrapStyleWord(true);
-
-            resultItem.add(detail);
-            resultItem.setBackground(Constants.getHighlight());
-            resultItem.setForeground(Constants.getFontColor());
-
-            resultsPanel.add(resultItem);
-
-            if (i < oldMovies.length-1) {
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPanel.add(sep);
-            }
-        }
+        // Only the rows in view are drawn, and their cast is only listed then
+        ResultList list = new ResultList(oldMovies.length, i -> stores.getMovies().getTitle(oldMovies[i]),
+                                         i -> CastScreen.castSummary(stores, oldMovies[i]),
+                                         i -> FilmScreen.createPanel(masterPanel, oldMovies[i], stores));
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -400,25 +260,13 @@ class FeaturedCastMovieReel extends MovieReel {
     public void run(){
         System.out.println("Running Featured Cast Movie Reel --> " + castName);
 
-        Person[] foundCast = stores.getCredits().findCast(castName);
-
-        if (foundCast == null || foundCast.length == 0) {
-            System.out.println("    No cast members found with the name \"" + castName + "\"");
-            return;
-        }
-
-        int[] featuredCastMovies = stores.getCredits().getCastFilms(foundCast[0].getID());
-
-        if (featuredCastMovies == null || featuredCastMovies.length == 0) {
-            System.out.println("    No films with " + castName + " were found");
-        } else {
-            String[] labels = new String[featuredCastMovies.length];
-            for (int i = 0; i < featuredCastMovies.length; i++) {
-                labels[i] = String.format("%s", stores.getMovies().getTitle(featuredCastMovies[i]));
+        loadItems(stores, () -> {
+            Person[] foundCast = stores.getCredits().findCast(castName);
+            if (foundCast == null || foundCast.length == 0) {
+                System.out.println("    No cast members found with the name \"" + castName + "\"");
+                return null;
             }
-            displayItems(featuredCastMovies, labels);
-            System.out.println("Finished running Featured Cast Movie Reel");
-        }
-
+            return stores.getCredits().getCastFilms(foundCast[0].getID());
+        }, id -> stores.getMovies().getTitle(id));
     }
 }
\ No newline at end of file
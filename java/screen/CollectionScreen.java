@@ -11,14 +11,17 @@ import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 
 import interfaces.AbstractStores;
+import structures.IntView;
 import ui.MovieReel;
 import utils.Constants;
+import utils.ScreenLoader;
 
 
 
 //A Screen for information about a specific cast member, like film screen is for Movies
 public class CollectionScreen {
     public static void createPanel(JPanel panel, int collectionID, AbstractStores stores) {
+        ScreenLoader.cancel(panel);
         panel.removeAll();
         panel.setLayout(new GridBagLayout());
         panel.setBackground(Constants.getHighlight());
@@ -75,18 +78,14 @@ class CollectionReel extends MovieReel {
 
     public void run(){
         System.out.println("Running Collection Reel");
-        int[] moviesInCollection = stores.getMovies().getFilmsInCollection(collectionID);
-        int length = moviesInCollection.length;
+        IntView moviesInCollection = stores.getMovies().getFilmsInCollectionView(collectionID);
+        int length = moviesInCollection.size();
 
-        if (moviesInCollection == null || moviesInCollection.length == 0){
+        if (length == 0){
             System.out.println("\tNo movies found in the collection");
         }
-        String[] labels = new String[length];
-        for (int i = 0; i < length; i++){
-            labels[i] = String.format("%s (%.2f ★)", stores.getMovies().getTitle(moviesInCollection[i]),
-                                                     stores.getRatings().getMovieAverageRating(moviesInCollection[i]));
-        }
-        displayItems(moviesInCollection, labels);
+        displayItems(moviesInCollection, i -> String.format("%s (%.2f ★)", stores.getMovies().getTitle(moviesInCollection.get(i)),
+                                                     stores.getRatings().getMovieAverageRating(moviesInCollection.get(i))));
         System.out.println("Finished running Collection Reel");
     }
 }
\ No newline at end of file
@@ -7,10 +7,10 @@ import java.time.LocalDate;
 
 import javax.swing.*;
 import javax.swing.border.*;
-import javax.swing.event.MouseInputListener;
 
 import stores.*;
 import ui.MovieReel;
+import ui.ResultList;
 import utils.*;
 import interfaces.AbstractStores;
 
@@ -18,6 +18,7 @@ import interfaces.AbstractStores;
 public class CrewScreen {
     public static void createPanel(JPanel panel, AbstractStores stores) {
         System.out.println("Crew screen");
+        ScreenLoader.cancel(panel);
         panel.setVisible(false);
         panel.setLayout(null);
         panel.removeAll();
@@ -102,6 +103,25 @@ public class CrewScreen {
         SwingUtilities.invokeLater(recentMoviesCrewsRunnable);
         SwingUtilities.invokeLater(featuredCrewMovieReel);
     }
+
+    /***
+     * Lists the crew of a film on one line, as "name (job) | name (job) | ..."
+     * 
+     * @param stores The stores to get the crew from
+     * @param filmID The film to list the crew of
+     * @return The crew of the film
+     */
+    static String crewSummary(AbstractStores stores, int filmID) {
+        CrewCredit[] crew = stores.getCredits().getFilmCrew(filmID);
+        StringBuilder result = new StringBuilder();
+        for (int j = 0; j < crew.length; j ++) {
+            if (j > 0) { // add '|' between crew members
+                result.append(" | ");
+            }
+            result.append(crew[j].getName()).append(" (").append(crew[j].getJob()).append(")");
+        }
+        return result.toString();
+    }
 }
 
 class TopRatedCrewRunnable implements Runnable {
@@ -132,7 +152,11 @@ class TopRatedCrewRunnable implements Runnable {
 
     @Override
     public void run() {
-        topMovies = stores.getRatings().getTopAverageRatedMovies(Constants.topMoviesCount); // ids of top 20 movies
+        ScreenLoader.load(masterPanel, stores, () -> stores.getRatings().getTopAverageRatedMovies(Constants.topMoviesCount), this::showResults); // ids of top 20 movies
+    }
+
+    private void showResults(int[] topMovies) {
+        this.topMovies = topMovies;
 
         scrollPane.setVisible(false);
 
@@ -147,98 +171,11 @@ class TopRatedCrewRunnable implements Runnable {
             System.out.println("\t" + topMovies.length + " of the top crews found (max: " + Constants.topMoviesCount + ")");
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setSize(scrollPane.getWidth() - 40, topMovies.length * (itemHeight + ((new JSeparator()).getHeight())));
-    
-        for (int i = 0; i < topMovies.length; i ++) {
-            JPanel resultItem = new JPanel();
-            resultItem.setSize(scrollPane.getWidth(), itemHeight);
-
-            String resultString = "";
-            String currentTitle = stores.getMovies().getTitle(topMovies[i]); // title of the current movie
-            CrewCredit[] crew = stores.getCredits().getFilmCrew(topMovies[i]); // current cast
-
-            int movieID = topMovies[i];
-            // create a clickable button
-            JPanel titlePanel = new JPanel();
-            JTextArea titleLabel = new JTextArea(currentTitle);
-            titlePanel.setBackground(Constants.getBackground());
-            titleLabel.setBackground(Constants.getBackground());
-            titleLabel.setForeground(Constants.getFontColor());
-            titleLabel.setBounds(0, (itemHeight * i), resultsPanel.getWidth(), itemHeight);
-            titleLabel.setEditable(false);
-            titleLabel.setLineWrap(true);
-            titleLabel.setWrapStyleWord(true);
-            titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, titleLabel.getFont().getSize()));
-            titlePanel.add(titleLabel);
-
-            titleLabel.addMouseListener(new MouseInputListener() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPanel, movieID, stores);
-                        }
-                    });
-                }
-
-                @Override
-                public void mousePressed(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseExited(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseDragged(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseMoved(MouseEvent e) {
-                }
-            });
-
-            resultsPanel.add(titlePanel);
-            for (int j = 0; j < crew.length; j ++) {
-                resultString += crew[j].getName() + " (" + crew[j].getJob() + ")";
-                if (j < crew.length-1) { // add '|' only if not last cast member reached
-                    resultString += " | ";
-                }
-            }
-            JTextArea title = new JTextArea(resultString);
-            title.setBounds(0, (itemHeight * i), resultsPanel.getWidth(), itemHeight);
-            title.setForeground(Constants.getFontColor());
-            title.setBackground(Constants.getHighlight());
-            title.setEditable(false);
-            title.setLineWrap(true);
-            title.setWrapStyleWord(true);
-
-            resultItem.add(title);
-            resultItem.setBackground(Constants.getHighlight());
-            resultItem.setForeground(Constants.getFontColor());
-
-            resultsPanel.add(resultItem);
-
-            if (i < topMovies.length-1) {
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPanel.add(sep);
-            }
-        }
+        // Only the rows in view are drawn, and their crew is only listed then
+        ResultList list = new ResultList(topMovies.length, i -> stores.getMovies().getTitle(topMovies[i]),
+                                         i -> CrewScreen.crewSummary(stores, topMovies[i]),
+                                         i -> FilmScreen.createPanel(masterPanel, topMovies[i], stores));
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -276,7 +213,14 @@ class RecentMoviesCrewsRunnable implements Runnable {
 
     @Override
     public void run() {
-        newMovies = stores.getMovies().getAllIDsReleasedInRange(startDate, endDate);
+        // IDs of movies released in the naughties, newest first
+        ScreenLoader.load(masterPanel, stores, () -> new FilmQuery(stores).releasedBetween(startDate, endDate)
+                                                                          .sortBy(FilmQuery.SortOrder.RELEASE, true)
+                                                                          .getAll(), this::showResults);
+    }
+
+    private void showResults(int[] newMovies) {
+        this.newMovies = newMovies;
 
         scrollPane.setVisible(false);
 
@@ -291,99 +235,11 @@ class RecentMoviesCrewsRunnable implements Runnable {
             System.out.println("\t" + newMovies.length + " crews were found");
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-        resultsPanel.setSize(scrollPane.getWidth() - 60, newMovies.length * (itemHeight + ((new JSeparator()).getHeight())));
-   
-        for (int i = 0; i < newMovies.length; i ++) {
-            JPanel resultItem = new JPanel();
-            resultItem.setSize(scrollPane.getWidth(), itemHeight);
-
-            String resultString = "";
-            String currentTitle = stores.getMovies().getTitle(newMovies[i]);
-            CrewCredit[] crew = stores.getCredits().getFilmCrew(newMovies[i]); // current cast
-
-            int movieID = newMovies[i];
-            // create a clickable button
-            JPanel titlePanel = new JPanel();
-            JTextArea titleLabel = new JTextArea(currentTitle);
-            titlePanel.setBackground(Constants.getBackground());
-            titleLabel.setBackground(Constants.getBackground());
-            titleLabel.setForeground(Constants.getFontColor());
-            titleLabel.setBounds(0, (itemHeight * i), resultsPanel.getWidth(), itemHeight);
-            titleLabel.setEditable(false);
-            titleLabel.setLineWrap(true);
-            titleLabel.setWrapStyleWord(true);
-            titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, titleLabel.getFont().getSize()));
-            titlePanel.add(titleLabel);
-
-            titleLabel.addMouseListener(new MouseInputListener() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPanel, movieID, stores);
-                        }
-                    });
-                }
-
-                @Override
-                public void mousePressed(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseReleased(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseEntered(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseExited(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseDragged(MouseEvent e) {
-                }
-
-                @Override
-                public void mouseMoved(MouseEvent e) {
-                }
-            });
-
-            resultsPanel.add(titlePanel);
-
-            for (int j = 0; j < crew.length; j ++) {
-                resultString += crew[j].getName() + " (" + crew[j].getJob() + ")";
-                if (j < crew.length-1) { // add '|' only if not last cast member reached
-                    resultString += " | ";
-                }
-            }
-            JTextArea title = new JTextArea(resultString);
-            title.setBounds(0, (itemHeight * i), resultsPanel.getWidth(), itemHeight);
-            title.setForeground(Constants.getFontColor());
-            title.setBackground(Constants.getHighlight());
-            title.setEditable(false);
-            title.setLineWrap(true);
-            title.setWrapStyleWord(true);
-
-            resultItem.add(title);
-            resultItem.setBackground(Constants.getHighlight());
-            resultItem.setForeground(Constants.getFontColor());
-
-            resultsPanel.add(resultItem);
-
-            if (i < newMovies.length-1) {
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPanel.add(sep);
-            }
-        }
+        // Only the rows in view are drawn, and their crew is only listed then
+        ResultList list = new ResultList(newMovies.length, i -> stores.getMovies().getTitle(newMovies[i]),
+                                         i -> CrewScreen.crewSummary(stores, newMovies[i]),
+                                         i -> FilmScreen.createPanel(masterPanel, newMovies[i], stores));
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -398,24 +254,13 @@ class FeaturedCrewMovieReel extends MovieReel{
     public void run(){
         System.out.println("Running Featured Crew Movie Reel --> " + crewName);
 
-        Person[] foundCrew = stores.getCredits().findCrew(crewName);
-
-        if (foundCrew == null || foundCrew.length == 0) {
-            System.out.println("    No crew members found with the name \"" + crewName + "\"");
-            return;
-        }
-
-        int[] featuredCrewMovies = stores.getCredits().getCrewFilms(foundCrew[0].getID());
-
-        if (featuredCrewMovies == null || featuredCrewMovies.length == 0) {
-            System.out.println("    No films with " + crewName + " were found");
-        } else {
-            String[] labels = new String[featuredCrewMovies.length];
-            for (int i = 0; i < featuredCrewMovies.length; i++) {
-                labels[i] = String.format("%s", stores.getMovies().getTitle(featuredCrewMovies[i]));
+        loadItems(stores, () -> {
+            Person[] foundCrew = stores.getCredits().findCrew(crewName);
+            if (foundCrew == null || foundCrew.length == 0) {
+                System.out.println("    No crew members found with the name \"" + crewName + "\"");
+                return null;
             }
-            displayItems(featuredCrewMovies, labels);
-            System.out.println("Finished running Featured Crew Movie Reel");
-        }
+            return stores.getCredits().getCrewFilms(foundCrew[0].getID());
+        }, id -> stores.getMovies().getTitle(id));
     }
 }
@@ -29,8 +29,13 @@ import stores.CastCredit;
 import stores.Company;
 import stores.CrewCredit;
 import stores.Genre;
+import structures.ObjectView;
 import utils.Constants;
 import utils.DisplayImage;
+import utils.DisplayImage.ImageType;
+import utils.ImageService;
+import utils.SharedImages;
+import utils.ScreenLoader;
 import utils.IsoSearch;
 
 public class FilmScreen {
@@ -38,6 +43,7 @@ public class FilmScreen {
         IMovies movies = stores.getMovies();
         ICredits credits = stores.getCredits();
         System.out.println("Film screen --> ID: " + filmID);
+        ScreenLoader.cancel(panel);
         panel.removeAll();
         panel.setLayout(null);
 
@@ -73,49 +79,34 @@ public class FilmScreen {
         title.setEditable(false);
         System.out.println("\tTitle built");
 
-        //Find and display film poster
+        //Find and display film poster. The real poster is fetched in the background
         String filmPosterURL = movies.getPoster(filmID);
-        if (filmPosterURL == null || filmPosterURL == "") {
-            filmPosterURL = "src/main/resources/img/Movie-Unknown.png";
-        } else {
-            filmPosterURL = "https://image.tmdb.org/t/p/original" + filmPosterURL;
-        }
         DisplayImage filmPoster = null;
-        System.out.print("\tAttempted Poster URL: " + filmPosterURL);
-        try {
-            if (filmPosterURL == "src/main/resources/img/Movie-Unknown.png") {
+        if (filmPosterURL == null || filmPosterURL.equals("")) {
+            filmPosterURL = SharedImages.UNKNOWN_MOVIE;
+            System.out.print("\tAttempted Poster URL: " + filmPosterURL);
+            try {
                 filmPoster = new DisplayImage(filmPosterURL, 10, false);
-            } else {
-                filmPoster = new DisplayImage(filmPosterURL, 0 , true);
+                filmPoster.setBorder(BorderFactory.createLineBorder(Color.WHITE));
+            } catch (IOException e) {
+                System.err.print("\t...No file found");
             }
-        } catch (IOException e) {
-            System.err.print("\t...No file found");
-            if (filmPosterURL != "src/main/resources/img/Movie-Unknown.png") {
-                try {
-                    System.err.print(", so putting in the default image");
-                    filmPosterURL = "src/main/resources/img/Movie-Unknown.png";
-                    filmPoster = new DisplayImage(filmPosterURL, 10, false);
-                } catch (IOException e1) {
-                    e1.printStackTrace();
+        } else {
+            System.out.print("\tAttempted Poster URL: " + ImageService.url("original", filmPosterURL));
+            filmPoster = new DisplayImage(filmPosterURL, ImageType.Movie, "original");
+            filmPoster.addMouseListener(new MouseInputAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    try {
+                        Desktop.getDesktop().browse(new URI(ImageService.url("original", movies.getPoster(filmID))));
+                    } catch (IOException | URISyntaxException e1) {
+                        e1.printStackTrace();
+                    }                        
                 }
-            }
+            });
         }
         if (filmPoster != null) {
             filmPoster.setBounds((int) (panel.getWidth() * 0.8), 5, (int) (panel.getWidth() * 0.2)-5, (int) (panel.getHeight() * 0.5)-4);
-            if (filmPosterURL == "src/main/resources/img/Movie-Unknown.png") {
-                filmPoster.setBorder(BorderFactory.createLineBorder(Color.WHITE));
-            } else {
-                filmPoster.addMouseListener(new MouseInputAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        try {
-                            Desktop.getDesktop().browse(new URI("https://image.tmdb.org/t/p/original" + movies.getPoster(filmID)));
-                        } catch (IOException | URISyntaxException e1) {
-                            e1.printStackTrace();
-                        }                        
-                    }
-                });
-            }
             panel.add(filmPoster);
         }
         System.out.println("\tPoster built");
@@ -225,28 +216,28 @@ public class FilmScreen {
         statsText += tmp;
         statsText += "Straight to Video: " + movies.getVideo(filmID)+"\n";
         statsText += "Adult film: " + movies.getAdult(filmID)+"\n\n";
-        Company[] tmpCompanies = movies.getProductionCompanies(filmID);
+        ObjectView<Company> tmpCompanies = movies.getProductionCompaniesView(filmID);
         if (tmpCompanies == null) {
             tmp = "Unknown Production Companies";
-        } else if (tmpCompanies.length == 0) {
+        } else if (tmpCompanies.isEmpty()) {
             tmp = "No Production Companies known";
         } else {
             tmp = "Production Companies:";
-            for (int i = 0; i < tmpCompanies.length; i++) {
-                tmp += "\n\t* " + tmpCompanies[i].getName();
+            for (int i = 0; i < tmpCompanies.size(); i++) {
+                tmp += "\n\t* " + tmpCompanies.get(i).getName();
             }
         }
         statsText += tmp + "\n";
-        String[] tmpCountries = movies.getProductionCountries(filmID);
+        ObjectView<String> tmpCountries = movies.getProductionCountriesView(filmID);
         if (tmpCountries == null) {
             tmp = "Unknown Production Countries";
-        } else if (tmpCountries.length == 0) {
+        } else if (tmpCountries.isEmpty()) {
             tmp = "No Production Countries known";
         } else {
             tmp = "Production Countries:";
-            for (int i = 0; i < tmpCountries.length; i++) {
+            for (int i = 0; i < tmpCountries.size(); i++) {
                 tmp += "\n\t* ";
-                String[] isoCountries = IsoSearch.iso3166SearchByKey(tmpCountries[i]);
+                String[] isoCountries = IsoSearch.iso3166SearchByKey(tmpCountries.get(i));
                 if (isoCountries.length < 1) {
                     tmp += "UNKNOWN ISO 3166 COUNTRY ";
                 } else {
@@ -255,7 +246,7 @@ public class FilmScreen {
                 for (int j = 1; j < isoCountries.length; j++) {
                     tmp += ", " + isoCountries[j];
                 }
-                tmp += " - ("+tmpCountries[i]+")";
+                tmp += " - ("+tmpCountries.get(i)+")";
             }
         }
         statsText += tmp;
@@ -17,10 +17,12 @@ import interfaces.*;
 import stores.Person;
 import ui.MovieReel;
 import utils.Constants;
+import utils.ScreenLoader;
 
 public class HomeScreen {
     public static void createPanel(JPanel panel, AbstractStores stores) {
         System.out.println("Home screen");
+        ScreenLoader.cancel(panel);
         panel.setVisible(false);
         panel.removeAll();
 
@@ -137,8 +139,10 @@ class MostCastCredits implements Runnable {
     @Override
     public void run() {
         System.out.println("Running Most Cast Credits Users");
-        Person[] mostCastCredits = stores.getCredits().getMostCastCredits(Constants.mostUserRatingCount);
+        ScreenLoader.load(masterPanel, stores, () -> stores.getCredits().getMostCastCredits(Constants.mostUserRatingCount), this::showResults);
+    }
 
+    private void showResults(Person[] mostCastCredits) {
         scrollPane.setVisible(false);
 
         if (mostCastCredits == null || mostCastCredits.length == 0) {
@@ -205,23 +209,9 @@ class TopAverageRatedMovies extends MovieReel {
 
     public void run(){
         System.out.println("Running Top Average Rated Movie Reel");
-        int length = Constants.topMoviesCount;
-        int[] movieResults = stores.getRatings().getTopAverageRatedMovies(length);
-
-        if (movieResults == null || movieResults.length == 0){
-            String message = "No top average rated movie ratings found";
-            System.out.println("\t" + message);
-            this.add(new JLabel(message));
-        }
-        else{
-            String[] labels = new String[length];
-            for (int i = 0; i < length; i++){
-                labels[i] = String.format("%s (%.2f ★)", stores.getMovies().getTitle(movieResults[i]),
-                                                     stores.getRatings().getMovieAverageRating(movieResults[i]));
-            }
-            displayItems(movieResults, labels);
-            System.out.println("Finished running Top Average Rated Movie Reel");
-        }
+        loadItems(stores, () -> stores.getRatings().getTopAverageRatedMovies(Constants.topMoviesCount),
+                  id -> String.format("%s (%.2f ★)", stores.getMovies().getTitle(id),
+                                                     stores.getRatings().getMovieAverageRating(id)));
     }
 }
 
@@ -232,20 +222,8 @@ class MostKeywordMovies extends MovieReel {
 
     public void run(){
         System.out.println("Running Most Keywords Movie Reel");
-        int length = Constants.topMoviesCount;
-        int[] movieResults = stores.getKeywords().getMostKeywordFilms(length);
-
-        if (movieResults == null || movieResults.length == 0){
-            System.out.println("\tNo most keyword movie ratings found");
-        }
-        else{
-            String[] labels = new String[length];
-            for (int i = 0; i < length; i++){
-                labels[i] = String.format("%s (%d)", stores.getMovies().getTitle(movieResults[i]),
-                                                         stores.getKeywords().getKeywordsForFilm(movieResults[i]).length);
-            }
-            displayItems(movieResults, labels);
-            System.out.println("Finished running Top Rated Movie Reel");
-        }
+        loadItems(stores, () -> stores.getKeywords().getMostKeywordFilms(Constants.topMoviesCount),
+                  id -> String.format("%s (%d)", stores.getMovies().getTitle(id),
+                                                 stores.getKeywords().getKeywordsForFilm(id).length));
     }
 }
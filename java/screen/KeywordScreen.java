@@ -11,14 +11,18 @@ import javax.swing.text.NumberFormatter;
 
 import stores.*;
 import ui.MovieReel;
+import ui.ResultList;
 import utils.*;
 import interfaces.AbstractStores;
 
 public class KeywordScreen {
+    static final int KEYWORD_WIDTH = 130; // Three keywords fit across each list
+
     public static void createPanel(JPanel panel, AbstractStores stores){
         System.out.println("Keyword screen");
         panel.setVisible(false);
         panel.setLayout(null);
+        ScreenLoader.cancel(panel);
         panel.removeAll();
 
         TitledBorder uniqueKeywordSelectorBorder = BorderFactory.createTitledBorder(BorderFactory.createLineBorder(Constants.getFontColor()), "Keyword Selector");
@@ -209,6 +213,7 @@ class KeywordsFromFilmRunnable implements Runnable {
     @Override
     public void run() {
         System.out.println("\tID provided: " + filmID);
+        scrollPane.setViewportView(resultsPanel); // Show the loading text again, rather than the last film's keywords
 
         if (filmID < 0) {
             System.out.println("\tInvalid ID provided");
@@ -247,57 +252,12 @@ class KeywordsFromFilmRunnable implements Runnable {
             return;
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-
-        final int gapSize = 5;
-        final int castPanelWidth = (int) (resultsPanel.getWidth());
-        int currentWidth = 0;
-        int currentHeight = gapSize;
-        JPanel horizontalPanel = new JPanel();
-        horizontalPanel.setBackground(Constants.getHighlight());
-
-        for (int i = 0; i < filmKeywords.length; i++) {
-                Keyword keyword = filmKeywords[i];
-                JPanel tmpPanel = new JPanel();
-                tmpPanel.setBackground(Constants.getBackground());
-                JLabel tmpLabel = new JLabel(filmKeywords[i].getName());
-                tmpLabel.setForeground(Constants.getFontColor());
-                tmpPanel.add(tmpLabel);
-                tmpPanel.addMouseListener(new MouseInputAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        SwingUtilities.invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                keywordText.setText(keyword.getName());
-                                keywordID.setText(Integer.toString(keyword.getID()));
-                            }
-                        });
-                    }
-                });
-
-                int stringWidth = masterPanel.getGraphics().getFontMetrics().stringWidth(keyword.getName()) + 40;
-                if (currentWidth + (4 * gapSize) + stringWidth > castPanelWidth) {
-                    currentHeight += 30 + gapSize;
-                    tmpPanel.setBounds(gapSize, currentHeight, stringWidth, 30);
-                    currentWidth = gapSize + stringWidth;
-                    resultsPanel.setSize(castPanelWidth, currentHeight + gapSize + 30);
-                    resultsPanel.add(horizontalPanel);
-                    horizontalPanel = new JPanel();
-                    horizontalPanel.setBackground(Constants.getHighlight());
-                    horizontalPanel.add(tmpPanel);
-                } else {
-                    tmpPanel.setBounds(currentWidth + gapSize, currentHeight, stringWidth, 30);
-                    currentWidth += gapSize + stringWidth;
-                    horizontalPanel.add(tmpPanel);
-                }
-                
-                resultsPanel.add(horizontalPanel);
-            }
-
+        // Only the keywords in view are drawn, however many there are
+        ResultList list = ResultList.chips(filmKeywords.length, i -> filmKeywords[i].getName(), KeywordScreen.KEYWORD_WIDTH, i -> {
+            keywordText.setText(filmKeywords[i].getName());
+            keywordID.setText(Integer.toString(filmKeywords[i].getID()));
+        });
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -348,57 +308,12 @@ class UniqueKeywordsRunnable implements Runnable {
             System.out.println("\t" + uniqueKeywords.length + " unique keywords found");
         }
 
-        final int itemHeight = 50;
-
-        resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
-
-        final int gapSize = 5;
-        final int castPanelWidth = (int) (resultsPanel.getWidth());
-        int currentWidth = 0;
-        int currentHeight = gapSize;
-        JPanel horizontalPanel = new JPanel();
-        horizontalPanel.setBackground(Constants.getHighlight());
-
-        for (int i = 0; i < uniqueKeywords.length; i++) {
-                Keyword keyword = uniqueKeywords[i];
-                JPanel tmpPanel = new JPanel();
-                tmpPanel.setBackground(Constants.getBackground());
-                JLabel tmpLabel = new JLabel(uniqueKeywords[i].getName());
-                tmpLabel.setForeground(Constants.getFontColor());
-                tmpPanel.add(tmpLabel);
-                tmpPanel.addMouseListener(new MouseInputAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        SwingUtilities.invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                keywordText.setText(keyword.getName());
-                                keywordID.setText(Integer.toString(keyword.getID()));
-                            }
-                        });
-                    }
-                });
-
-                int stringWidth = masterPanel.getGraphics().getFontMetrics().stringWidth(keyword.getName()) + 40;
-                if (currentWidth + (4 * gapSize) + stringWidth > castPanelWidth) {
-                    currentHeight += 30 + gapSize;
-                    tmpPanel.setBounds(gapSize, currentHeight, stringWidth, 30);
-                    currentWidth = gapSize + stringWidth;
-                    resultsPanel.setSize(castPanelWidth, currentHeight + gapSize + 30);
-                    resultsPanel.add(horizontalPanel);
-                    horizontalPanel = new JPanel();
-                    horizontalPanel.setBackground(Constants.getHighlight());
-                    horizontalPanel.add(tmpPanel);
-                } else {
-                    tmpPanel.setBounds(currentWidth + gapSize, currentHeight, stringWidth, 30);
-                    currentWidth += gapSize + stringWidth;
-                    horizontalPanel.add(tmpPanel);
-                }
-                
-                resultsPanel.add(horizontalPanel);
-            }
-
+        // Only the keywords in view are drawn, however many there are
+        ResultList list = ResultList.chips(uniqueKeywords.length, i -> uniqueKeywords[i].getName(), KeywordScreen.KEYWORD_WIDTH, i -> {
+            keywordText.setText(uniqueKeywords[i].getName());
+            keywordID.setText(Integer.toString(uniqueKeywords[i].getID()));
+        });
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -429,17 +344,12 @@ class SelectedKeywordMovieReel extends MovieReel {
         }
 
         System.out.println("Running Keyword to Film --> " + keyword.getName() + " (" + keyword.getID()+")");
-        int[] movieResults = stores.getKeywords().getFilmsWithKeyword(keyword.getID());
-
-        if (movieResults == null || movieResults.length == 0){
-            System.out.println("No movies with this particular keyword ID found");
-        } else {
-            String[] labels = new String[movieResults.length];
-            for (int i = 0; i < movieResults.length; i++) {
-                labels[i] = String.format("%s", stores.getMovies().getTitle(movieResults[i]));
-            }
-            displayItems(movieResults, labels);
-            System.out.println("Finished running Keyword to Film");
-        }
+        // Most popular films first
+        int keywordID = keyword.getID();
+        loadItems(stores, () -> new FilmQuery(stores).withKeyword(keywordID)
+                                                     .sortBy(FilmQuery.SortOrder.POPULARITY, true)
+                                                     .getAll(),
+                  id -> stores.getMovies().getTitle(id));
+        System.out.println("Finished running Keyword to Film");
     }
 }
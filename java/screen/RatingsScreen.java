@@ -17,11 +17,12 @@ import javax.swing.border.TitledBorder;
 import interfaces.*;
 import ui.MovieReel;
 import utils.Constants;
+import utils.ScreenLoader;
 
 public class RatingsScreen {
     public static void createPanel(JPanel panel, AbstractStores stores) {
-        IRatings ratings = stores.getRatings();
         System.out.println("Ratings screen");
+        ScreenLoader.cancel(panel);
         panel.setVisible(false);
         panel.removeAll();
 
@@ -90,7 +91,7 @@ public class RatingsScreen {
         mostRatingsUserScrollPane.getVerticalScrollBar().setUnitIncrement(40);
         mostRatingsUserScrollPane.setBorder(mostRatingsUserBorder);
 
-        MostRatedUsersRunnable mostRatedUsersRunnable = new MostRatedUsersRunnable(panel, mostRatingsUserScrollPane, mostRatingsUserInner, ratings);
+        MostRatedUsersRunnable mostRatedUsersRunnable = new MostRatedUsersRunnable(panel, mostRatingsUserScrollPane, mostRatingsUserInner, stores);
 
 
         constraints.insets = new Insets(5,5,5,5); //Add spacing around the panel
@@ -114,14 +115,16 @@ class MostRatedUsersRunnable implements Runnable {
     private JPanel masterPanel;
     private JScrollPane scrollPane;
     private JPanel resultsPanel;
+    private AbstractStores stores;
     private IRatings ratings;
     private JLabel loadingText;
 
-    public MostRatedUsersRunnable(JPanel masterPanel, JScrollPane scrollPane, JPanel resultsPanel, IRatings ratings) {
+    public MostRatedUsersRunnable(JPanel masterPanel, JScrollPane scrollPane, JPanel resultsPanel, AbstractStores stores) {
         this.masterPanel = masterPanel;
         this.scrollPane = scrollPane;
         this.resultsPanel = resultsPanel;
-        this.ratings = ratings;
+        this.stores = stores;
+        this.ratings = stores.getRatings();
 
         scrollPane.setVisible(false);
 
@@ -138,8 +141,10 @@ class MostRatedUsersRunnable implements Runnable {
     @Override
     public void run() {
         System.out.println("Running Most Rated Users");
-        int[] userResults = ratings.getMostRatedUsers(Constants.mostUserRatingCount);
+        ScreenLoader.load(masterPanel, stores, () -> ratings.getMostRatedUsers(Constants.mostUserRatingCount), this::showResults);
+    }
 
+    private void showResults(int[] userResults) {
         scrollPane.setVisible(false);
 
         if (userResults == null || userResults.length == 0) {
@@ -221,23 +226,9 @@ class MostRatedMovieReel extends MovieReel {
 
     public void run(){
         System.out.println("Running Most Rated Movie Reel");
-        int length = Constants.topMoviesCount;
-        int[] movieResults = stores.getRatings().getMostRatedMovies(length);
-
-        if (movieResults == null || movieResults.length == 0){
-            String message = "No most rated movie ratings found";
-            System.out.println("\t" + message);
-            this.add(new JLabel(message));
-        }
-        else{
-            String[] labels = new String[length];
-            for (int i = 0; i < length; i++){
-                labels[i] = String.format("%s (%d)", stores.getMovies().getTitle(movieResults[i]),
-                                                     stores.getRatings().getNumRatings(movieResults[i]));
-            }
-            displayItems(movieResults, labels);
-            System.out.println("Finished running Most Rated Movie Reel");
-        }
+        loadItems(stores, () -> stores.getRatings().getMostRatedMovies(Constants.topMoviesCount),
+                  id -> String.format("%s (%d)", stores.getMovies().getTitle(id),
+                                                 stores.getRatings().getNumRatings(id)));
     }
 }
 
@@ -248,20 +239,8 @@ class TopRatedMovieReel extends MovieReel {
 
     public void run(){
         System.out.println("Running Top Rated Movie Reel");
-        int length = Constants.topMoviesCount;
-        int[] movieResults = stores.getRatings().getTopAverageRatedMovies(length);
-
-        if (movieResults == null || movieResults.length == 0){
-            System.out.println("\tNo top rated movie ratings found");
-        }
-        else{
-            String[] labels = new String[length];
-            for (int i = 0; i < length; i++){
-                labels[i] = String.format("%s (%.2f ★)", stores.getMovies().getTitle(movieResults[i]),
-                                                         stores.getRatings().getMovieAverageRating(movieResults[i]));
-            }
-            displayItems(movieResults, labels);
-            System.out.println("Finished running Top Rated Movie Reel");
-        }
+        loadItems(stores, () -> stores.getRatings().getTopAverageRatedMovies(Constants.topMoviesCount),
+                  id -> String.format("%s (%.2f ★)", stores.getMovies().getTitle(id),
+                                                     stores.getRatings().getMovieAverageRating(id)));
     }
 }
\ No newline at end of file
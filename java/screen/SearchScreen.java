@@ -2,24 +2,27 @@ package screen;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.event.MouseInputAdapter;
 
 import interfaces.*;
+import stores.Keyword;
+import stores.Person;
 
 import java.awt.*;
-import java.awt.event.MouseEvent;
 
+import ui.ResultList;
 import utils.Constants;
+import utils.ScreenLoader;
 
 public class SearchScreen {
     
     public static void createPanel(JPanel panel, String searchTerm, AbstractStores stores) {
-        IKeywords keywords = stores.getKeywords();
         System.out.println("Search screen --> \"" + searchTerm + "\"");
         if (searchTerm == "" || searchTerm.isEmpty()) {
             System.err.println("\tCan't search for nothing...");
             return;
         }
+        PreviousSearch.start(searchTerm);
+        ScreenLoader.cancel(panel);
         panel.removeAll();
         panel.setLayout(null);
         panel.setVisible(false);
@@ -169,7 +172,7 @@ public class SearchScreen {
         keywordSearch.setAutoscrolls(false);
         keywordsResultsOuter.add(keywordSearch);
 
-        KeywordSearchRunnable keywordSearchRunnable = new KeywordSearchRunnable(keywordSearch, keywordResults, keywords, searchTerm);
+        KeywordSearchRunnable keywordSearchRunnable = new KeywordSearchRunnable(panel, keywordSearch, keywordResults, stores, searchTerm);
 
         panel.add(title);
         panel.add(movieResultsOuter);
@@ -186,6 +189,47 @@ public class SearchScreen {
     }
 }
 
+/***
+ * The results of the last search, so that when more of the term is typed the new results can
+ * be found by filtering these, rather than searching every film, person and keyword again.
+ * Every search looks for the term anywhere in the text, so anything that matches a term also
+ * matches every part of it. Only used on the EDT
+ */
+class PreviousSearch {
+    private static String term = null;
+
+    // Each holds every result for the current term (and maybe more), or is null if it has to be searched for
+    static int[] films;
+    static Person[] cast;
+    static Person[] crew;
+    static Keyword[] keywords;
+
+    /***
+     * Starts a new search. The last results are kept if the new term contains the last one,
+     * as they then hold every result of the new search, and are forgotten otherwise
+     * @param searchTerm The new search term
+     */
+    static void start(String searchTerm) {
+        if (term != null && searchTerm.contains(term)) {
+            System.out.println("\tRefining the results for \"" + term + "\"");
+        } else {
+            films = null;
+            cast = null;
+            crew = null;
+            keywords = null;
+        }
+        term = searchTerm;
+    }
+
+    /***
+     * @param searchTerm A search term
+     * @return TRUE if it is the term of the current search, so its results can be kept
+     */
+    static boolean isCurrent(String searchTerm) {
+        return searchTerm.equals(term);
+    }
+}
+
 class MovieSearchRunnable implements Runnable {
     private JPanel masterPane;
     private JScrollPane scrollPane;
@@ -215,7 +259,19 @@ class MovieSearchRunnable implements Runnable {
 
     @Override
     public void run() {
-        int[] idResults = stores.getMovies().findFilms(searchTerm);
+        int[] candidates = PreviousSearch.films;
+        // Looking through every film reads the overviews, so the first search is the slow one.
+        // It checks every film as a candidate, so that it can stop early too
+        ScreenLoader.loadCancellable(masterPane, stores, cancelled -> {
+            IMovies movies = stores.getMovies();
+            return movies.findFilms(searchTerm, candidates == null ? movies.getAllIDs() : candidates, cancelled);
+        }, this::showResults);
+    }
+
+    private void showResults(int[] idResults) {
+        if (idResults != null && PreviousSearch.isCurrent(searchTerm)) {
+            PreviousSearch.films = idResults;
+        }
 
         scrollPane.setVisible(false);
 
@@ -230,61 +286,10 @@ class MovieSearchRunnable implements Runnable {
 
         scrollPane.setVisible(true);
 
-        final int itemHeight = 50;
-
-        resultsPane.removeAll();
-        resultsPane.setLayout(new BoxLayout(resultsPane, BoxLayout.Y_AXIS));
-        resultsPane.setSize(scrollPane.getWidth()-40, idResults.length*(itemHeight+((new JSeparator()).getHeight())));
-
-
-        for (int i = 0; i < idResults.length; i++) {
-            JPanel resultItem = new JPanel();
-            resultItem.setSize(scrollPane.getWidth()-40, itemHeight);
-            int filmID = idResults[i];
-
-            JTextArea title = new JTextArea(stores.getMovies().getTitle(idResults[i]));
-            title.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-            title.setForeground(Constants.getFontColor());
-            title.setBackground(Constants.getBackground());
-            title.setEditable(false);
-            title.setLineWrap(true);
-            title.setWrapStyleWord(true);
-            title.addMouseListener(new MouseInputAdapter() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPane, filmID, stores);                            
-                        }
-                    });
-                }
-            });
-
-            resultItem.add(title);
-            resultItem.setBackground(Constants.getBackground());
-            resultItem.setForeground(Constants.getFontColor());
-            resultItem.addMouseListener(new MouseInputAdapter() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            FilmScreen.createPanel(masterPane, filmID, stores);
-                        }
-                    });
-                }
-            });
-
-            resultsPane.add(resultItem);
-
-            if (i < idResults.length-1){
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPane.add(sep);
-            }
-        }
+        // Only the rows in view are drawn, however many films were found
+        ResultList list = new ResultList(idResults.length, i -> stores.getMovies().getTitle(idResults[i]),
+                                         i -> FilmScreen.createPanel(masterPane, idResults[i], stores));
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
@@ -328,7 +333,27 @@ class CreditsSearchRunnable implements Runnable {
     public void run() {
         ICredits credits = stores.getCredits();
         if (castFlag) {
-            IPerson[] castResults = credits.findCast(searchTerm);
+            Person[] candidates = PreviousSearch.cast;
+            ScreenLoader.loadCancellable(masterPanel, stores, cancelled -> candidates == null ? credits.findCast(searchTerm)
+                                                                                             : credits.findCast(searchTerm, candidates, cancelled), this::showResults);
+        } else {
+            Person[] candidates = PreviousSearch.crew;
+            ScreenLoader.loadCancellable(masterPanel, stores, cancelled -> candidates == null ? credits.findCrew(searchTerm)
+                                                                                             : credits.findCrew(searchTerm, candidates, cancelled), this::showResults);
+        }
+    }
+
+    private void showResults(Person[] results) {
+        if (results != null && PreviousSearch.isCurrent(searchTerm)) {
+            if (castFlag) {
+                PreviousSearch.cast = results;
+            } else {
+                PreviousSearch.crew = results;
+            }
+        }
+
+        if (castFlag) {
+            IPerson[] castResults = results;
 
             if (castResults == null || castResults.length == 0) {
                 loadingText.setText("No Cast Members found for \"" + searchTerm + "\"!");
@@ -341,64 +366,12 @@ class CreditsSearchRunnable implements Runnable {
 
             scrollPane.setVisible(false);
 
-            final int itemHeight = 50;
-
-            resultsPane.removeAll();
-            resultsPane.setLayout(new BoxLayout(resultsPane, BoxLayout.Y_AXIS));
-            resultsPane.setSize(scrollPane.getWidth()-40, castResults.length * (itemHeight + ((new JSeparator()).getHeight())));
-
-            for (int i = 0; i < castResults.length; i++) {
-                JPanel resultItem = new JPanel();
-                resultItem.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-
-                JTextArea title = new JTextArea(castResults[i].getName());
-                title.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-                title.setForeground(Constants.getFontColor());
-                title.setBackground(Constants.getBackground());
-                title.setEditable(false);
-                title.setLineWrap(true);
-                title.setWrapStyleWord(true);
-
-                resultItem.add(title);
-                resultItem.setBackground(Constants.getBackground());
-                resultItem.setForeground(Constants.getFontColor());
-
-                int castID = castResults[i].getID();
-                title.addMouseListener(new MouseInputAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e){
-                        SwingUtilities.invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                CastMemberScreen.createPanel(masterPanel, castID, stores);
-                            }
-                        });
-                    }
-                });
-                resultItem.addMouseListener(new MouseInputAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e){
-                        SwingUtilities.invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                CastMemberScreen.createPanel(masterPanel, castID, stores);
-                            }
-                        });
-                    }
-                });
-
-                resultsPane.add(resultItem);
-
-                if (i < castResults.length - 1) {
-                    JSeparator sep = new JSeparator();
-                    sep.setBackground(Constants.getHighlight());
-                    sep.setForeground(Constants.getFontColor());
-                    resultsPane.add(sep);
-                }
-            }
+            ResultList list = new ResultList(castResults.length, i -> castResults[i].getName(),
+                                             i -> CastMemberScreen.createPanel(masterPanel, castResults[i].getID(), stores));
+            scrollPane.setViewportView(list);
             scrollPane.setVisible(true);
         } else {
-            IPerson[] crewResults = credits.findCrew(searchTerm);
+            IPerson[] crewResults = results;
 
             if (crewResults == null || crewResults.length == 0) {
                 loadingText.setText("No Crew Members found for \"" + searchTerm + "\"!");
@@ -411,53 +384,26 @@ class CreditsSearchRunnable implements Runnable {
 
             scrollPane.setVisible(false);
 
-            final int itemHeight = 50;
-
-            resultsPane.removeAll();
-            resultsPane.setLayout(new BoxLayout(resultsPane, BoxLayout.Y_AXIS));
-            resultsPane.setSize(scrollPane.getWidth()-40, crewResults.length * (itemHeight + ((new JSeparator()).getHeight())));
-
-            for (int i = 0; i < crewResults.length; i++) {
-                JPanel resultItem = new JPanel();
-                resultItem.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-
-                JTextArea title = new JTextArea(crewResults[i].getName());
-                title.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-                title.setForeground(Constants.getFontColor());
-                title.setBackground(Constants.getHighlight());
-                title.setEditable(false);
-                title.setLineWrap(true);
-                title.setWrapStyleWord(true);
-
-                resultItem.add(title);
-                resultItem.setBackground(Constants.getHighlight());
-                resultItem.setForeground(Constants.getFontColor());
-
-                resultsPane.add(resultItem);
-
-                if (i < crewResults.length - 1) {
-                    JSeparator sep = new JSeparator();
-                    sep.setBackground(Constants.getHighlight());
-                    sep.setForeground(Constants.getFontColor());
-                    resultsPane.add(sep);
-                }
-            }
+            ResultList list = new ResultList(crewResults.length, i -> crewResults[i].getName(), null);
+            scrollPane.setViewportView(list);
             scrollPane.setVisible(true);
         }
     }
 }
 
 class KeywordSearchRunnable implements Runnable {
+    private JPanel masterPanel;
     private JScrollPane scrollPane;
     private JPanel resultsPane;
-    private IKeywords keywords;
+    private AbstractStores stores;
     private JLabel loadingText;
     private String searchTerm;
 
-    public KeywordSearchRunnable(JScrollPane scrollPane, JPanel resultsPane, IKeywords keywords, String searchTerm) {
+    public KeywordSearchRunnable(JPanel masterPanel, JScrollPane scrollPane, JPanel resultsPane, AbstractStores stores, String searchTerm) {
+        this.masterPanel = masterPanel;
         this.scrollPane = scrollPane;
         this.resultsPane = resultsPane;
-        this.keywords = keywords;
+        this.stores = stores;
         this.searchTerm = searchTerm;
 
         scrollPane.setVisible(false);
@@ -474,7 +420,16 @@ class KeywordSearchRunnable implements Runnable {
 
     @Override
     public void run() {
-        IKeyword[] keywordResults = keywords.findKeywords(searchTerm);
+        IKeywords keywords = stores.getKeywords();
+        Keyword[] candidates = PreviousSearch.keywords;
+        ScreenLoader.loadCancellable(masterPanel, stores, cancelled -> candidates == null ? keywords.findKeywords(searchTerm)
+                                                                                         : keywords.findKeywords(searchTerm, candidates, cancelled), this::showResults);
+    }
+
+    private void showResults(Keyword[] keywordResults) {
+        if (keywordResults != null && PreviousSearch.isCurrent(searchTerm)) {
+            PreviousSearch.keywords = keywordResults;
+        }
 
         if (keywordResults == null || keywordResults.length == 0) {
             loadingText.setText("No keywords found for \"" + searchTerm + "\"!");
@@ -487,37 +442,8 @@ class KeywordSearchRunnable implements Runnable {
 
         scrollPane.setVisible(false);
 
-        final int itemHeight = 50;
-
-        resultsPane.removeAll();
-        resultsPane.setLayout(new BoxLayout(resultsPane, BoxLayout.Y_AXIS));
-        resultsPane.setSize(scrollPane.getWidth() - 40,
-                keywordResults.length * (itemHeight + ((new JSeparator()).getHeight())));
-
-        for (int i = 0; i < keywordResults.length; i++) {
-            JPanel resultItem = new JPanel();
-
-            JTextArea title = new JTextArea(keywordResults[i].getName());
-            title.setBounds(0, (itemHeight * i), resultsPane.getWidth(), itemHeight);
-            title.setForeground(Constants.getFontColor());
-            title.setBackground(Constants.getHighlight());
-            title.setEditable(false);
-            title.setLineWrap(true);
-            title.setWrapStyleWord(true);
-
-            resultItem.add(title);
-            resultItem.setBackground(Constants.getHighlight());
-            resultItem.setForeground(Constants.getFontColor());
-
-            resultsPane.add(resultItem);
-
-            if (i < keywordResults.length - 1) {
-                JSeparator sep = new JSeparator();
-                sep.setBackground(Constants.getHighlight());
-                sep.setForeground(Constants.getFontColor());
-                resultsPane.add(sep);
-            }
-        }
+        ResultList list = new ResultList(keywordResults.length, i -> keywordResults[i].getName(), null);
+        scrollPane.setViewportView(list);
         scrollPane.setVisible(true);
     }
 }
\ No newline at end of file
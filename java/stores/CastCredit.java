@@ -1,6 +1,7 @@
 package stores;
 
 import interfaces.ICastCredit;
+import utils.LazyText;
 
 public class CastCredit implements interfaces.ICastCredit  {
 
@@ -11,6 +12,7 @@ public class CastCredit implements interfaces.ICastCredit  {
     private String name = null;
     private int order = -1;
     private String profilePath = null;
+    private long characterRef = LazyText.NONE; // Where the character is in the data files, when it is read on demand
 
     public CastCredit (int elementID, String character, String creditID, int id, String name, int order, String profilePath) {
         this.elementID = elementID;
@@ -22,6 +24,16 @@ public class CastCredit implements interfaces.ICastCredit  {
         this.profilePath = profilePath;
     }
 
+    /**
+     * Creates a credit whose character is left in the data files until it is first needed
+     *
+     * @param characterRef Where the character is, from LazyText
+     */
+    public CastCredit (int elementID, long characterRef, String creditID, int id, String name, int order, String profilePath) {
+        this(elementID, (String) null, creditID, id, name, order, profilePath);
+        this.characterRef = characterRef;
+    }
+
     @Override
     public int getElementID() {
         return elementID;
@@ -29,7 +41,12 @@ public class CastCredit implements interfaces.ICastCredit  {
 
     @Override
     public String getCharacter() {
-        return character;
+        return characterRef == LazyText.NONE ? character : LazyText.get(characterRef);
+    }
+
+    // Reads the character without caching it, for looking through every credit
+    public String readCharacter() {
+        return characterRef == LazyText.NONE ? character : LazyText.read(characterRef);
     }
 
     @Override
@@ -7,7 +7,7 @@ public class Collection {
     private String collectionName;
     private String collectionPosterPath;
     private String collectionBackdropPath;
-    private List<Movie> collectionMovies;
+    private IdSet collectionMovies; // IDs of the films in the collection
 
     // Constructor
     public Collection(int collectionID, String collectionName, String collectionPosterPath, String collectionBackdropPath) {
@@ -15,20 +15,27 @@ public class Collection {
         this.collectionName = collectionName;
         this.collectionPosterPath = collectionPosterPath;
         this.collectionBackdropPath = collectionBackdropPath;
-        this.collectionMovies = new List<>();
+        this.collectionMovies = new IdSet();
     }
 
-    public List<Movie> getCollectionMovies() {
+    public IdSet getCollectionMovies() {
         return collectionMovies;
     }
 
-    public void setCollectionMovies(List<Movie> collectionMovies) {
-        this.collectionMovies = collectionMovies;
+    // Collections only hold a handful of films, so the array behind the view is built on each call
+    public IntView getCollectionMoviesView() {
+        int[] members = collectionMovies.toArray();
+        return new IntView(members, 0, members.length);
     }
 
-    public boolean addMovieToCollection(Movie movie) {
-        collectionMovies.add(movie);
-        return true;
+    // Returns false if the film was already in the collection
+    public boolean addMovieToCollection(int filmID) {
+        return collectionMovies.add(filmID);
+    }
+
+    // Returns false if the film was not in the collection
+    public boolean removeMovieFromCollection(int filmID) {
+        return collectionMovies.remove(filmID);
     }
 
     public int getCollectionID() {
@@ -1,5 +1,8 @@
 package stores;
 
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
 import structures.*;
 import utils.RadixSort;
 import interfaces.ICredits;
@@ -7,8 +10,13 @@ import interfaces.ICredits;
 public class Credits implements ICredits{
     Stores stores;
     HashMap<Integer, Credit> creditMap;
-    Set<Person> uniqueCast;
-    Set<Person> uniqueCrew;
+    HashMap<Integer, Person> uniqueCast; // Every cast member with at least one credit, by cast ID
+    HashMap<Integer, Person> uniqueCrew; // Every crew member with at least one credit, by crew ID
+    HashMap<Integer, IdSet> castFilms;     // Posting list of film IDs for each cast ID
+    HashMap<Integer, IdSet> crewFilms;     // Posting list of film IDs for each crew ID
+    HashMap<Integer, IdSet> castStarFilms; // Posting list of film IDs where the cast ID has top 3 billing
+    NameIndex<Person> castNames; // Substring index of the names in uniqueCast, for findCast
+    NameIndex<Person> crewNames; // Substring index of the names in uniqueCrew, for findCrew
 
     /**
      * The constructor for the Credits data store. This is where you should
@@ -20,8 +28,56 @@ public class Credits implements ICredits{
     public Credits (Stores stores) {
         this.stores = stores;
         this.creditMap = new HashMap<>();
-        this.uniqueCast = new Set<>(); // Initialise Set
-        this.uniqueCrew = new Set<>(); // Initialise Set
+        this.uniqueCast = new HashMap<>(); // Initialise uniqueCast
+        this.uniqueCrew = new HashMap<>(); // Initialise uniqueCrew
+        this.castFilms = new HashMap<>();
+        this.crewFilms = new HashMap<>();
+        this.castStarFilms = new HashMap<>();
+        this.castNames = new NameIndex<>();
+        this.crewNames = new NameIndex<>();
+    }
+
+    /**
+     * Adds a film to the posting list of a person, creating the list if needed
+     *
+     * @param postings The posting lists to add to
+     * @param personID The cast or crew ID
+     * @param filmID   The movie ID
+     */
+    private static void addPosting(HashMap<Integer, IdSet> postings, int personID, int filmID) {
+        IdSet films = postings.get(personID);
+        if (films == null) {
+            films = new IdSet();
+            postings.put(personID, films);
+        }
+        films.add(filmID);
+    }
+
+    /**
+     * Removes a film from the posting list of a person, dropping the list once it is empty
+     *
+     * @param postings The posting lists to remove from
+     * @param personID The cast or crew ID
+     * @param filmID   The movie ID
+     */
+    private static void removePosting(HashMap<Integer, IdSet> postings, int personID, int filmID) {
+        IdSet films = postings.get(personID);
+        if (films != null) {
+            films.remove(filmID);
+            if (films.isEmpty()) postings.remove(personID);
+        }
+    }
+
+    /**
+     * Returns the contents of a posting list as an array
+     *
+     * @param postings The posting lists to read from
+     * @param personID The cast or crew ID
+     * @return The film IDs in ascending order, or an empty array if there are none
+     */
+    private static int[] getPostings(HashMap<Integer, IdSet> postings, int personID) {
+        IdSet films = postings.get(personID);
+        return films == null ? new int[0] : films.toArray();
     }
 
     /**
@@ -45,20 +101,108 @@ public class Credits implements ICredits{
         // Add cast to uniqueCast
         CastCredit[] movieCast = credits.getCast();
         for (CastCredit castMember : movieCast) {
-            Person person = new Person(castMember.getID(), castMember.getName(), castMember.getProfilePath());
-            uniqueCast.add(person);
+            if (!uniqueCast.containsKey(castMember.getID())) {
+                Person person = new Person(castMember.getID(), castMember.getName(), castMember.getProfilePath());
+                uniqueCast.put(castMember.getID(), person);
+                castNames.add(castMember.getID(), castMember.getName(), person);
+            }
+            addPosting(castFilms, castMember.getID(), id);
+            if (castMember.getOrder() < 4) addPosting(castStarFilms, castMember.getID(), id);
         }
 
         // Add crew to uniqueCrew
         CrewCredit[] movieCrew = credits.getCrew();
         for (CrewCredit crewMember : movieCrew) {
-            Person person = new Person(crewMember.getID(), crewMember.getName(), crewMember.getProfilePath());
-            uniqueCrew.add(person);
+            if (!uniqueCrew.containsKey(crewMember.getID())) {
+                Person person = new Person(crewMember.getID(), crewMember.getName(), crewMember.getProfilePath());
+                uniqueCrew.put(crewMember.getID(), person);
+                crewNames.add(crewMember.getID(), crewMember.getName(), person);
+            }
+            addPosting(crewFilms, crewMember.getID(), id);
         }
 
         return true;  // Successfully added
     }
 
+    /**
+     * Adds the people who worked on many films at once. The maps are grown once up
+     * front, and each posting list is built in one go at the end instead of one film
+     * at a time
+     * 
+     * @param cast    The cast of each film
+     * @param crew    The crew of each film
+     * @param filmIDs The (unique) movie ID of each film. Films that already have
+     *                credits are skipped, as they would be by add
+     * @return The number of films added
+     */
+    @Override
+    public int addAll(CastCredit[][] cast, CrewCredit[][] crew, int[] filmIDs) {
+        int numCast = 0, numCrew = 0;
+        for (int i = 0; i < filmIDs.length; i++) {
+            numCast += cast[i].length;
+            numCrew += crew[i].length;
+        }
+        creditMap.ensureCapacity(creditMap.size() + filmIDs.length);
+
+        PostingsBuilder castPostings = new PostingsBuilder(numCast);
+        PostingsBuilder crewPostings = new PostingsBuilder(numCrew);
+        PostingsBuilder starPostings = new PostingsBuilder(filmIDs.length * 4);
+        int added = 0;
+
+        // The people seen for the first time, whose names are indexed at the end
+        int[] newCastIDs = new int[16], newCrewIDs = new int[16];
+        String[] newCastNames = new String[16], newCrewNames = new String[16];
+        Person[] newCastPeople = new Person[16], newCrewPeople = new Person[16];
+        int numNewCast = 0, numNewCrew = 0;
+
+        for (int i = 0; i < filmIDs.length; i++) {
+            int id = filmIDs[i];
+            if (creditMap.containsKey(id)) continue;
+            Credit credits = new Credit(cast[i], crew[i], id);
+            creditMap.put(id, credits);
+
+            for (CastCredit castMember : credits.getCast()) {
+                if (!uniqueCast.containsKey(castMember.getID())) {
+                    Person person = new Person(castMember.getID(), castMember.getName(), castMember.getProfilePath());
+                    uniqueCast.put(castMember.getID(), person);
+                    if (numNewCast == newCastIDs.length) {
+                        newCastIDs = Arrays.copyOf(newCastIDs, numNewCast * 2);
+                        newCastNames = Arrays.copyOf(newCastNames, numNewCast * 2);
+                        newCastPeople = Arrays.copyOf(newCastPeople, numNewCast * 2);
+                    }
+                    newCastIDs[numNewCast] = castMember.getID();
+                    newCastNames[numNewCast] = castMember.getName();
+                    newCastPeople[numNewCast++] = person;
+                }
+                castPostings.add(castMember.getID(), id);
+                if (castMember.getOrder() < 4) starPostings.add(castMember.getID(), id);
+            }
+            for (CrewCredit crewMember : credits.getCrew()) {
+                if (!uniqueCrew.containsKey(crewMember.getID())) {
+                    Person person = new Person(crewMember.getID(), crewMember.getName(), crewMember.getProfilePath());
+                    uniqueCrew.put(crewMember.getID(), person);
+                    if (numNewCrew == newCrewIDs.length) {
+                        newCrewIDs = Arrays.copyOf(newCrewIDs, numNewCrew * 2);
+                        newCrewNames = Arrays.copyOf(newCrewNames, numNewCrew * 2);
+                        newCrewPeople = Arrays.copyOf(newCrewPeople, numNewCrew * 2);
+                    }
+                    newCrewIDs[numNewCrew] = crewMember.getID();
+                    newCrewNames[numNewCrew] = crewMember.getName();
+                    newCrewPeople[numNewCrew++] = person;
+                }
+                crewPostings.add(crewMember.getID(), id);
+            }
+            added++;
+        }
+
+        castPostings.addTo(castFilms);
+        crewPostings.addTo(crewFilms);
+        starPostings.addTo(castStarFilms);
+        castNames.addAll(newCastIDs, newCastNames, newCastPeople, numNewCast);
+        crewNames.addAll(newCrewIDs, newCrewNames, newCrewPeople, numNewCrew);
+        return added;
+    }
+
     /**
      * Remove a given films data from the data structure
      * 
@@ -69,6 +213,26 @@ public class Credits implements ICredits{
     public boolean remove(int id) {
         // Check if the movie exists in the credit map before attempting removal
         if (creditMap.containsKey(id)) {
+            Credit credits = creditMap.get(id);
+
+            // Take the film out of every posting list it appears in, and forget
+            // anyone who no longer has any credits
+            for (CastCredit castMember : credits.getCast()) {
+                removePosting(castFilms, castMember.getID(), id);
+                removePosting(castStarFilms, castMember.getID(), id);
+                if (!castFilms.containsKey(castMember.getID())) {
+                    uniqueCast.remove(castMember.getID());
+                    castNames.remove(castMember.getID());
+                }
+            }
+            for (CrewCredit crewMember : credits.getCrew()) {
+                removePosting(crewFilms, crewMember.getID(), id);
+                if (!crewFilms.containsKey(crewMember.getID())) {
+                    uniqueCrew.remove(crewMember.getID());
+                    crewNames.remove(crewMember.getID());
+                }
+            }
+
             creditMap.remove(id);  // Remove the movie's credits from the map
             return true;  // Removal successful
         }
@@ -206,11 +370,12 @@ public class Credits implements ICredits{
     @Override
     public Person[] getUniqueCast() {
         // Create an array to hold the unique cast members
-        Person[] uniqueCastArray = new Person[uniqueCast.size()];
+        List<Person> people = uniqueCast.values();
+        Person[] uniqueCastArray = new Person[people.size()];
     
-        // Populate the array with cast members from the uniqueCast collection
-        for (int i = 0; i < uniqueCast.size(); i++) {
-            uniqueCastArray[i] = uniqueCast.get(i);  // Add each unique cast member to the array
+        // Populate the array with cast members from the uniqueCast map
+        for (int i = 0; i < people.size(); i++) {
+            uniqueCastArray[i] = people.get(i);  // Add each unique cast member to the array
         }
     
         // Return the array of unique cast members
@@ -226,11 +391,12 @@ public class Credits implements ICredits{
     @Override
     public Person[] getUniqueCrew() {
         // Create an array to hold the unique crew members
-        Person[] uniqueCrewArray = new Person[uniqueCrew.size()];
+        List<Person> people = uniqueCrew.values();
+        Person[] uniqueCrewArray = new Person[people.size()];
 
-        // Populate the array with crew members from the uniqueCrew collection
-        for (int i = 0; i < uniqueCrew.size(); i++) {
-            uniqueCrewArray[i] = uniqueCrew.get(i);  // Add each unique crew member to the array
+        // Populate the array with crew members from the uniqueCrew map
+        for (int i = 0; i < people.size(); i++) {
+            uniqueCrewArray[i] = people.get(i);  // Add each unique crew member to the array
         }
 
         // Return the array of unique crew members
@@ -242,29 +408,12 @@ public class Credits implements ICredits{
      * 
      * @param cast The string that needs to be found
      * @return An array of unique Person objects of all cast members that have the 
-     *         requested string in their name. If there are no matches, return an 
-     *         empty array
+     *         requested string in their name, in ascending ID order. If there are no
+     *         matches, return an empty array
      */
     @Override
     public Person[] findCast(String cast) {
-        Set<Person> matchingCast = new Set<>();
-        Person[] allCast = getUniqueCast();  // Fetch all known cast members.
-
-        // Iterate through the list and check for matches.
-        for (int i = 0; i < allCast.length; i++) {
-            String name = allCast[i].getName();
-            if (name != null && name.toLowerCase().contains(cast.toLowerCase())) {
-                matchingCast.add(allCast[i]);
-            }
-        }
-
-        // Convert the results into an array for output.
-        Person[] result = new Person[matchingCast.size()];
-        for (int i = 0; i < matchingCast.size(); i++) {
-            result[i] = matchingCast.get(i);
-        }
-
-        return result;
+        return castNames.find(cast, Person[]::new);
     }
 
     /**
@@ -272,29 +421,63 @@ public class Credits implements ICredits{
      * 
      * @param crew The string that needs to be found
      * @return An array of unique Person objects of all crew members that have the 
-     *         requested string in their name. If there are no matches, return an 
-     *         empty array
+     *         requested string in their name, in ascending ID order. If there are no
+     *         matches, return an empty array
      */
     @Override
     public Person[] findCrew(String crew) {
-        Set<Person> matchingCrew = new Set<>();
-        Person[] allCrew = getUniqueCrew();  // Fetch all known crew members.
-
-        // Iterate through the list and check for matches.
-        for (int i = 0; i < allCrew.length; i++) {
-            String name = allCrew[i].getName();
-            if (name != null && name.toLowerCase().contains(crew.toLowerCase())) {
-                matchingCrew.add(allCrew[i]);
-            }
-        }
+        return crewNames.find(crew, Person[]::new);
+    }
 
-        // Convert the results into an array for output.
-        Person[] result = new Person[matchingCrew.size()];
-        for (int i = 0; i < matchingCrew.size(); i++) {
-            result[i] = matchingCrew.get(i);
-        }
+    /**
+     * Get the given cast members that have the given string within their name.
+     * Used to refine a search as more of the name is typed
+     * 
+     * @param cast The string that needs to be found
+     * @param candidates The cast members to check, such as the results of a search
+     *                   for part of the string. Their order is kept
+     * @param cancelled Checked every so often, and once true the search stops early
+     *                  with the matches found so far
+     * @return An array of the candidates that have the requested string in their name.
+     *         If there are no matches, return an empty array
+     */
+    @Override
+    public Person[] findCast(String cast, Person[] candidates, BooleanSupplier cancelled) {
+        return filterByName(candidates, cast, cancelled);
+    }
 
-        return result;
+    /**
+     * Get the given crew members that have the given string within their name.
+     * Used to refine a search as more of the name is typed
+     * 
+     * @param crew The string that needs to be found
+     * @param candidates The crew members to check, such as the results of a search
+     *                   for part of the string. Their order is kept
+     * @param cancelled Checked every so often, and once true the search stops early
+     *                  with the matches found so far
+     * @return An array of the candidates that have the requested string in their name.
+     *         If there are no matches, return an empty array
+     */
+    @Override
+    public Person[] findCrew(String crew, Person[] candidates, BooleanSupplier cancelled) {
+        return filterByName(candidates, crew, cancelled);
+    }
+
+    private static Person[] filterByName(Person[] people, String searchTerm, BooleanSupplier cancelled) {
+        if (people == null) {
+            return new Person[0];
+        }
+        searchTerm = searchTerm.toLowerCase();
+        Person[] result = new Person[people.length];
+        int count = 0;
+        for (int i = 0; i < people.length; i++) {
+            if ((i & 255) == 0 && cancelled.getAsBoolean()) break; // A newer search has replaced this one
+            String name = people[i].getName();
+            if (name != null && name.toLowerCase().contains(searchTerm)) {
+                result[count++] = people[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
     }
 
     /**
@@ -306,10 +489,7 @@ public class Credits implements ICredits{
      */
     @Override
     public Person getCast(int castID) {
-        for (int i = 0; i < uniqueCast.size(); i++) {
-            if (uniqueCast.get(i).getID() == castID) return uniqueCast.get(i);
-        }
-        return null; // No matching cast member found
+        return uniqueCast.get(castID); // null if no matching cast member found
     }
     
     /**
@@ -321,10 +501,7 @@ public class Credits implements ICredits{
      */
     @Override
     public Person getCrew(int crewID) {
-        for (int i = 0; i < uniqueCrew.size(); i++) {
-            if (uniqueCrew.get(i).getID() == crewID) return uniqueCrew.get(i);  // Return the crew member if found
-        }
-        return null;  // No matching crew member found
+        return uniqueCrew.get(crewID);  // null if no matching crew member found
     }
 
     
@@ -338,30 +515,8 @@ public class Credits implements ICredits{
      */
     @Override
     public int[] getCastFilms(int castID) {
-        List<Integer> films = new List<>();
-        List<Credit> creditsList = creditMap.values();
-
-        // Loop through each credit in the creditMap
-        for (int i = 0; i < creditsList.size(); i++) {
-            Credit credit = creditsList.get(i);
-            CastCredit[] castArray = credit.getCast();
-
-            // Check if the current credit contains the specified cast member
-            for (int j = 0; j < castArray.length; j++) {
-                if (castArray[j].getID() == castID) {
-                    films.add(credit.getId());  // Film ID from Credit
-                    break;
-                }
-            }
-        }
-
-        // Convert list of film IDs to array
-        int[] result = new int[films.size()];
-        for (int i = 0; i < films.size(); i++) {
-            result[i] = films.get(i);
-        }
-
-        return result;
+        // Read straight off the posting list rather than scanning every film
+        return getPostings(castFilms, castID);
     }
 
     /**
@@ -374,30 +529,34 @@ public class Credits implements ICredits{
      */
     @Override
     public int[] getCrewFilms(int crewID) {
-        List<Integer> films = new List<>();
-        List<Credit> creditsList = creditMap.values();
-
-        // Loop through each credit in the creditMap
-        for (int i = 0; i < creditsList.size(); i++) {
-            Credit credit = creditsList.get(i);
-            CrewCredit[] crewArray = credit.getCrew();
-
-            // Check if the current credit contains the specified crew member
-            for (int j = 0; j < crewArray.length; j++) {
-                if (crewArray[j].getID() == crewID) {
-                    films.add(credit.getId());  // Film ID from Credit
-                    break;
-                }
-            }
-        }
+        // Read straight off the posting list rather than scanning every film
+        return getPostings(crewFilms, crewID);
+    }
 
-        // Convert list of film IDs to array
-        int[] result = new int[films.size()];
-        for (int i = 0; i < films.size(); i++) {
-            result[i] = films.get(i);
-        }
+    /**
+     * Gets the posting list of all films a cast member has starred in. The
+     * returned set is owned by the store and must not be modified
+     *
+     * @param castID The cast ID of the person
+     * @return The set of film IDs, or an empty set if there are none
+     */
+    @Override
+    public IdSet getCastPostings(int castID) {
+        IdSet films = castFilms.get(castID);
+        return films != null ? films : new IdSet();
+    }
 
-        return result;
+    /**
+     * Gets the posting list of all films a crew member has worked on. The
+     * returned set is owned by the store and must not be modified
+     *
+     * @param crewID The crew ID of the person
+     * @return The set of film IDs, or an empty set if there are none
+     */
+    @Override
+    public IdSet getCrewPostings(int crewID) {
+        IdSet films = crewFilms.get(crewID);
+        return films != null ? films : new IdSet();
     }
 
     /**
@@ -412,30 +571,8 @@ public class Credits implements ICredits{
      */
     @Override
     public int[] getCastStarsInFilms(int castID) {
-        List<Integer> films = new List<>();
-        List<Credit> creditsList = creditMap.values();
-
-        // Loop through each credit in the creditMap
-        for (int i = 0; i < creditsList.size(); i++) {
-            Credit credit = creditsList.get(i);
-            CastCredit[] castArray = credit.getCast();
-
-            // Check if the cast member is in the top 3 billing (order < 4)
-            for (int j = 0; j < castArray.length; j++) {
-                if (castArray[j].getID() == castID && castArray[j].getOrder() < 4) {
-                    films.add(credit.getId());  // Add film ID if order is in top 3
-                    break;  // No need to continue once found in this film
-                }
-            }
-        }
-
-        // Convert list of film IDs to array
-        int[] result = new int[films.size()];
-        for (int i = 0; i < films.size(); i++) {
-            result[i] = films.get(i);
-        }
-
-        return result;
+        // Only films where the cast member had an order below 4 are in this posting list
+        return getPostings(castStarFilms, castID);
     }
     
     /**
@@ -457,8 +594,9 @@ public class Credits implements ICredits{
         List<KeyValuePair<Person, Integer>> allPairPersonAppearances = new List<>();
 
         // For each person in the cast, count the number of appearances
-        for (int p = 0; p < uniqueCast.size(); p++) {
-            Person person = uniqueCast.get(p);
+        List<Person> allCast = uniqueCast.values();
+        for (int p = 0; p < allCast.size(); p++) {
+            Person person = allCast.get(p);
             int personId = person.getID();
             int castCredits = 0;
             int[] moviesAppearedIn = getCastFilms(personId); // Films the person has appeared in
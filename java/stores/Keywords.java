@@ -1,147 +1,193 @@
 package stores;
 
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
 import interfaces.IKeywords;
 import interfaces.AbstractStores;
+import structures.HashMap;
+import structures.IdSet;
+import structures.List;
 import structures.MyArrayList;
+import structures.PostingsBuilder;
 
 public class Keywords implements IKeywords{
     AbstractStores stores;
 
-    MyArrayList<Integer> id;
-    MyArrayList<Keyword[]> keywords;
-    MyArrayList<Keyword> unique;
+    HashMap<Integer, Keyword[]> filmKeywords; // Keywords of each film, by film ID
+    HashMap<Integer, Keyword> unique;         // Every keyword used by at least one film, by keyword ID
+    HashMap<Integer, IdSet> keywordFilms;     // Posting list of film IDs for each keyword ID
 
     Keywords(AbstractStores stores) {
         this.stores = stores;
-        id = new MyArrayList<>();
-        keywords = new MyArrayList<>();
-        unique = new MyArrayList<>();
+        filmKeywords = new HashMap<>();
+        unique = new HashMap<>();
+        keywordFilms = new HashMap<>();
     }
 
-    @Override
-    public boolean add(int filmID, Keyword keyword) {
-        boolean result = true;
-
-        for (int i = 0; i < this.id.size(); i++) {
-            if(this.id.get(i) == filmID) {
-                Keyword[] tmp = new Keyword[keywords.get(i).length + 1];
-                for (int j = 0; j < keywords.get(i).length; j++) {
-                    tmp[j] = keywords.get(i)[j];
-                }
-                tmp[keywords.get(i).length] = keyword;
-                keywords.set(i, tmp);
-                return result;
-            }
+    /**
+     * Records that a film has a keyword in the keyword's posting list
+     *
+     * @param filmID  The film ID
+     * @param keyword The keyword
+     */
+    private void addPosting(int filmID, Keyword keyword) {
+        IdSet films = keywordFilms.get(keyword.getID());
+        if (films == null) {
+            films = new IdSet();
+            keywordFilms.put(keyword.getID(), films);
+            unique.put(keyword.getID(), keyword); // First film with this keyword
         }
+        films.add(filmID);
+    }
 
-        boolean flag = true;
-        for(int i = 0; i < unique.size(); i++) {
-            if(this.unique.get(i).getID() == keyword.getID()) {
-                flag = false;
-                break;
+    /**
+     * Removes a film from a keyword's posting list. Once no film has the keyword,
+     * the list and the keyword itself are dropped
+     *
+     * @param filmID    The film ID
+     * @param keywordID The keyword ID
+     */
+    private void removePosting(int filmID, int keywordID) {
+        IdSet films = keywordFilms.get(keywordID);
+        if (films != null) {
+            films.remove(filmID);
+            if (films.isEmpty()) {
+                keywordFilms.remove(keywordID);
+                unique.remove(keywordID);
             }
         }
+    }
 
-        if (flag) {
-            unique.add(keyword);
-        }
-        
-
-        result &= this.id.add(filmID);
-        Keyword[] tmp = {keyword};
-        result &= keywords.add(tmp);
-        return result;
+    @Override
+    public boolean add(int filmID, Keyword keyword) {
+        return add(filmID, new Keyword[]{keyword});
     }
 
     @Override
     public boolean add(int id, Keyword[] keywords) {
-        boolean result = true;
+        for (Keyword keyword : keywords) {
+            addPosting(id, keyword);
+        }
 
-        for (int i = 0; i < this.id.size(); i++) {
-            if (this.id.get(i) == id) {
-                Keyword[] tmp = new Keyword[this.keywords.get(i).length + keywords.length];
-                for (int j = 0; j < this.keywords.get(i).length; j++) {
-                    tmp[j] = this.keywords.get(i)[j];
-                }
-                for (int j = 0; j < keywords.length; j++){
-                    tmp[this.keywords.get(i).length+j] = keywords[j];
-                }
-                this.keywords.set(i, tmp);
-                return result;
-            }
+        // Append to the film's existing keywords, if it has any
+        Keyword[] existing = filmKeywords.get(id);
+        if (existing != null) {
+            Keyword[] tmp = new Keyword[existing.length + keywords.length];
+            System.arraycopy(existing, 0, tmp, 0, existing.length);
+            System.arraycopy(keywords, 0, tmp, existing.length, keywords.length);
+            filmKeywords.put(id, tmp);
+        } else {
+            filmKeywords.put(id, keywords);
         }
+        return true;
+    }
 
-        for (int i = 0; i < keywords.length; i++) {
-            boolean flag = true;
-            for (int j = 0; j < unique.size(); j++) {
-                if(this.unique.get(j).getID() == keywords[i].getID()) {
-                    flag = false;
-                    break;
+    /**
+     * Adds the keywords of many films at once. Each keyword's posting list is built
+     * in one go at the end instead of one film at a time
+     *
+     * @param filmIDs  The ID of each film
+     * @param keywords The keywords of each film
+     * @return The number of films added
+     */
+    @Override
+    public int addAll(int[] filmIDs, Keyword[][] keywords) {
+        int numPostings = 0;
+        for (Keyword[] filmKeywordList : keywords) {
+            numPostings += filmKeywordList.length;
+        }
+        filmKeywords.ensureCapacity(filmKeywords.size() + filmIDs.length);
+
+        PostingsBuilder postings = new PostingsBuilder(numPostings);
+        for (int i = 0; i < filmIDs.length; i++) {
+            for (Keyword keyword : keywords[i]) {
+                if (!unique.containsKey(keyword.getID())) {
+                    unique.put(keyword.getID(), keyword); // First film with this keyword
                 }
+                postings.add(keyword.getID(), filmIDs[i]);
             }
-            if(flag){
-                unique.add(keywords[i]);
+
+            // A film already in the store keeps its keywords, as with add
+            Keyword[] existing = filmKeywords.get(filmIDs[i]);
+            if (existing != null) {
+                Keyword[] tmp = new Keyword[existing.length + keywords[i].length];
+                System.arraycopy(existing, 0, tmp, 0, existing.length);
+                System.arraycopy(keywords[i], 0, tmp, existing.length, keywords[i].length);
+                filmKeywords.put(filmIDs[i], tmp);
+            } else {
+                filmKeywords.put(filmIDs[i], keywords[i]);
             }
         }
-
-        result &= this.id.add(id);
-        result &= this.keywords.add(keywords);
-        return result;
+        postings.addTo(keywordFilms);
+        return filmIDs.length;
     }
 
     @Override
     public boolean remove(int id) {
-        int index = this.id.indexOf(id);
-        boolean result = this.id.remove(id);
-        result &= this.keywords.remove(this.keywords.get(index));
-        return result;
+        Keyword[] keywords = filmKeywords.get(id);
+        if (keywords == null) {
+            return false;
+        }
+        // Only the film's own keywords need their posting lists updating
+        for (Keyword keyword : keywords) {
+            removePosting(id, keyword.getID());
+        }
+        filmKeywords.remove(id);
+        return true;
     }
 
     @Override
     public boolean removeKeywordFromFilm(int id, int keywordID) {
-        for (int i = 0; i < this.id.size(); i++) {
-            if(this.id.get(i) == id) {
-                int indexToRemove = -1;
-                for (int j = 0; j < this.keywords.get(i).length; j++) {
-                    if(this.keywords.get(i)[j].getID() == keywordID) {
-                        indexToRemove = j;
-                        break;
-                    }
-                }
-                if (indexToRemove >=0) {
-                    Keyword[] tmp = new Keyword[this.keywords.get(i).length-1];
-                    int counter = 0;
-                    for (int j = 0; j < this.keywords.get(i).length; j++) {
-                        if (j == indexToRemove) {
-                            continue;
-                        }
-                        tmp[counter] = this.keywords.get(i)[j];
-                        counter++;
-                    }
+        Keyword[] keywords = filmKeywords.get(id);
+        if (keywords == null) {
+            return false;
+        }
 
-                    this.keywords.set(i, tmp);
+        int indexToRemove = -1;
+        for (int j = 0; j < keywords.length; j++) {
+            if (keywords[j].getID() == keywordID) {
+                indexToRemove = j;
+                break;
+            }
+        }
+        if (indexToRemove >= 0) {
+            // A film can list a keyword twice, and keeps its place in the posting list until the last copy goes
+            boolean duplicate = false;
+            for (int j = indexToRemove + 1; j < keywords.length; j++) {
+                if (keywords[j].getID() == keywordID) {
+                    duplicate = true;
+                    break;
                 }
-                return true;
             }
+            if (!duplicate) {
+                removePosting(id, keywordID);
+            }
+            Keyword[] tmp = new Keyword[keywords.length - 1];
+            System.arraycopy(keywords, 0, tmp, 0, indexToRemove);
+            System.arraycopy(keywords, indexToRemove + 1, tmp, indexToRemove, keywords.length - indexToRemove - 1);
+            filmKeywords.put(id, tmp);
         }
-        return false;
+        return true;
     }
 
     @Override
     public int[] getFilmIDs() {
-        int[] result = new int[id.size()];
-        for (int i = 0; i < id.size(); i++) {
-            result[i] = id.get(i);
+        List<Integer> ids = filmKeywords.keys();
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            result[i] = ids.get(i);
         }
         return result;
     }
 
     @Override
     public int[] getKeywordIDs(){
-        int[] uniqueKeyword = new int[unique.size()];
+        List<Integer> ids = unique.keys();
+        int[] uniqueKeyword = new int[ids.size()];
 
-        for (int i = 0; i < unique.size(); i++) {
-            uniqueKeyword[i] = unique.get(i).getID();
+        for (int i = 0; i < ids.size(); i++) {
+            uniqueKeyword[i] = ids.get(i);
         }
 
         return uniqueKeyword;
@@ -149,39 +195,33 @@ public class Keywords implements IKeywords{
 
     @Override
     public int[] getFilmsWithKeyword(int keywordID) {
-        MyArrayList<Integer> tmp = new MyArrayList<>();
-        for (int i = 0; i < this.id.size(); i++) {
-            for (int j = 0; j < this.keywords.get(i).length; j++) {
-                if (keywordID == this.keywords.get(i)[j].getID()) {
-                    tmp.add(this.id.get(i));
-                    break;
-                }
-            }
+        // Read straight off the posting list rather than scanning every film
+        IdSet films = keywordFilms.get(keywordID);
+        if (films == null) {
+            return new int[0];
         }
+        return films.toArray();
+    }
 
-        int[] result = new int[tmp.size()];
-        for (int i = 0; i < result.length; i++) {
-            result[i] = tmp.get(i);
-        }
-        return result;
+    @Override
+    public IdSet getKeywordPostings(int keywordID) {
+        // The set belongs to the store, so callers must not modify it
+        IdSet films = keywordFilms.get(keywordID);
+        return films != null ? films : new IdSet();
     }
 
     @Override
     public Keyword[] getKeywordsForFilm(int id) {
-        int index = this.id.indexOf(id);
-
-        if (index < 0 || index > size()) {
-            return null;
-        }
-        return keywords.get(index);
+        return filmKeywords.get(id);
     }
 
     @Override
     public Keyword[] getUnique() {
-        Keyword[] uniqueKeyword = new Keyword[unique.size()];
+        List<Keyword> keywords = unique.values();
+        Keyword[] uniqueKeyword = new Keyword[keywords.size()];
 
-        for (int i = 0; i < unique.size(); i++) {
-            uniqueKeyword[i] = unique.get(i);
+        for (int i = 0; i < keywords.size(); i++) {
+            uniqueKeyword[i] = keywords.get(i);
         }
 
         return uniqueKeyword;
@@ -189,16 +229,17 @@ public class Keywords implements IKeywords{
 
     @Override
     public int size() {
-        return keywords.size();
+        return filmKeywords.size();
     }
 
     @Override
     public Keyword[] findKeywords(String keyword) {
         MyArrayList<Keyword> tmpResult = new MyArrayList<>();
-        for (int i = 0; i < keywords.size(); i++) {
-            for (int j = 0; j < keywords.get(i).length; j++) {
-                if (keywords.get(i)[j].getName().contains(keyword)) {
-                    tmpResult.add(keywords.get(i)[j]);
+        List<Keyword[]> allKeywords = filmKeywords.values();
+        for (int i = 0; i < allKeywords.size(); i++) {
+            for (int j = 0; j < allKeywords.get(i).length; j++) {
+                if (allKeywords.get(i)[j].getName().contains(keyword)) {
+                    tmpResult.add(allKeywords.get(i)[j]);
                 }
             }
         }
@@ -211,15 +252,44 @@ public class Keywords implements IKeywords{
 
         return result;
     }
-    
+
+    /**
+     * Finds the given keywords that contain a search term. Used to refine a search as
+     * more of the term is typed
+     *
+     * @param keyword    The term to look for
+     * @param candidates The keywords to check, such as the results of a search for part
+     *                   of the term. Their order is kept
+     * @param cancelled  Checked every so often, and once true the search stops early
+     *                   with the matches found so far
+     * @return The candidates that contain the term
+     */
+    @Override
+    public Keyword[] findKeywords(String keyword, Keyword[] candidates, BooleanSupplier cancelled) {
+        if (candidates == null) {
+            return new Keyword[0];
+        }
+        Keyword[] result = new Keyword[candidates.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if ((i & 255) == 0 && cancelled.getAsBoolean()) break; // A newer search has replaced this one
+            if (candidates[i].getName().contains(keyword)) {
+                result[count++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
 
     @Override
     public int[] getMostKeywordFilms(int numResults) {
         int[] results = new int[numResults];
         int[] keywordCount = new int[numResults];
 
-        for (int i = 0; i < id.size(); i++) {
-            int currentID = id.get(i);
+        List<Integer> ids = filmKeywords.keys();
+        List<Keyword[]> keywords = filmKeywords.values();
+        for (int i = 0; i < ids.size(); i++) {
+            int currentID = ids.get(i);
             int currentNumKeywords = keywords.get(i).length;
             for (int j = 0 ; j < results.length; j++) {
                 if (keywordCount[j] == 0) {
@@ -3,6 +3,7 @@ package stores;
 import java.time.LocalDate;
 
 import structures.*;
+import utils.LazyText;
 
 public class Movie {
 
@@ -30,12 +31,19 @@ public class Movie {
     private boolean video;
     private double voteAverage;
     private int voteCount;
+    private int slot; // Position of the ID in the Movies store's array of IDs
+
+    // Where the long text fields are in the data files, when they are read on demand
+    // rather than held here. LazyText.NONE means the field above holds the text. The
+    // overview is always held here, as every search looks through it
+    private long taglineRef = LazyText.NONE;
+    private long homepageRef = LazyText.NONE;
 
     public Movie (int id, String title, String originalTitle, String overview, String tagline, String status, 
     Genre[] genres, LocalDate release, long budget, long revenue, String[] languages, String originalLanguage, 
     double runtime, String homepage, boolean adult, boolean video, String poster){
         this.adult = adult;
-        this.belongsToCollection = new Collection(-1, "", "", "");
+        this.belongsToCollection = null; // Set by Movies.addToCollection, null means no collection
         this.budget = budget;
         this.genres = genres;
         this.homepage = homepage;
@@ -68,6 +76,14 @@ public class Movie {
         this.adult = adult;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     public Collection getBelongsToCollection() {
         return belongsToCollection;
     }
@@ -93,11 +109,17 @@ public class Movie {
     }
 
     public String getHomepage() {
-        return homepage;
+        return homepageRef == LazyText.NONE ? homepage : LazyText.get(homepageRef);
     }
 
     public void setHomepage(String homepage) {
         this.homepage = homepage;
+        this.homepageRef = LazyText.NONE;
+    }
+
+    public void setHomepageRef(long homepageRef) {
+        this.homepage = null;
+        this.homepageRef = homepageRef;
     }
 
     public int getId() {
@@ -213,11 +235,17 @@ public class Movie {
     }
 
     public String getTagline() {
-        return tagline;
+        return taglineRef == LazyText.NONE ? tagline : LazyText.get(taglineRef);
     }
 
     public void setTagline(String tagline) {
         this.tagline = tagline;
+        this.taglineRef = LazyText.NONE;
+    }
+
+    public void setTaglineRef(long taglineRef) {
+        this.tagline = null;
+        this.taglineRef = taglineRef;
     }
 
     public String getTitle() {
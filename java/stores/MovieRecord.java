@@ -0,0 +1,80 @@
+package stores;
+
+import java.time.LocalDate;
+
+import utils.LazyText;
+
+/**
+ * Every field of one row of the movies file, as read by LoadData. Passed to
+ * {@link Movies#addAll(MovieRecord[])} to add many films at once.
+ */
+public class MovieRecord {
+    public int id = -1;
+    public String name = "";
+    public String title = "";
+    public String originalTitle = "";
+    public String overview = "";
+    public String tagline = "";
+    public String status = "";
+    public Genre[] genres = new Genre[0];
+    public LocalDate release = null;
+    public long budget = -1;
+    public long revenue = -1;
+    public String[] languages = new String[0];
+    public String originalLanguage = "";
+    public double runtime = -1.0;
+    public String homepage = "";
+    public boolean adult = false;
+    public boolean video = false;
+    public String poster = "";
+    public double voteAverage = -1.0;
+    public int voteCount = -1;
+    public int collectionID = -1;
+    public String collectionName = "";
+    public String collectionPosterPath = "";
+    public String collectionBackdropPath = "";
+    public String imdb = "";
+    public double popularity = -1.0;
+    public Company[] productionCompanies = new Company[0];
+    public String[] productionCountries = new String[0];
+    // Set instead of tagline and homepage when those are read on demand
+    public long taglineRef = LazyText.NONE;
+    public long homepageRef = LazyText.NONE;
+    public MovieRecord( int id, String name, String title, String originalTitle, String overview,
+                 String tagline, String status, Genre[] genres, LocalDate release, long budget,
+                 long revenue, String[] languages, String originalLanguage, double runtime,
+                 String homepage, boolean adult, boolean video, String poster, double voteAverage,
+                 int voteCount, int collectionID, String collectionName, String collectionPosterPath,
+                 String collectionBackdropPath, String imdb, double popularity, 
+                 Company[] productionCompanies, String[] productionCountries
+        ){
+        this.id = id;
+        this.name = name;
+        this.title = title;
+        this.originalTitle = originalTitle;
+        this.overview = overview;
+        this.tagline = tagline;
+        this.status = status;
+        this.genres = genres;
+        this.release = release;
+        this.budget = budget;
+        this.revenue = revenue;
+        this.languages = languages;
+        this.originalLanguage = originalLanguage;
+        this.runtime = runtime;
+        this.homepage = homepage;
+        this.adult = adult;
+        this.video = video;
+        this.poster = poster;
+        this.voteAverage = voteAverage;
+        this.voteCount = voteCount;
+        this.collectionID = collectionID;
+        this.collectionName = collectionName;
+        this.collectionPosterPath = collectionPosterPath;
+        this.collectionBackdropPath = collectionBackdropPath;
+        this.imdb = imdb;
+        this.popularity = popularity;
+        this.productionCompanies = productionCompanies;
+        this.productionCountries = productionCountries;
+    }
+}
@@ -1,14 +1,23 @@
 package stores;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
 
 import interfaces.IMovies;
 import structures.*;
+import utils.LazyText;
 
 public class Movies implements IMovies{
     Stores stores;
     HashMap<Integer, Movie> movieMap;
     HashMap<Integer, Collection> collectionMap;
+    int[] ids;     // Every film ID, packed at the front of the array in no particular order
+    int numIDs;    // Number of IDs in use in ids
+    HashMap<Integer, IdSet> genreFilms;       // Posting list of film IDs for each genre ID
+    HashMap<Integer, IdSet> releaseYearFilms; // Posting list of film IDs for each release year
+    int minReleaseYear = Integer.MAX_VALUE;   // Earliest year in releaseYearFilms
+    int maxReleaseYear = Integer.MIN_VALUE;   // Latest year in releaseYearFilms
 
     /**
      * The constructor for the Movies data store. This is where you should
@@ -20,6 +29,41 @@ public class Movies implements IMovies{
         this.stores = stores;
         this.movieMap = new HashMap<>(); // Initialise movieMap
         this.collectionMap = new HashMap<>(); // Initialise collectionMap
+        this.ids = new int[16];
+        this.numIDs = 0;
+        this.genreFilms = new HashMap<>();
+        this.releaseYearFilms = new HashMap<>();
+    }
+
+    /**
+     * Adds a film to the posting list for a key, creating the list if needed
+     *
+     * @param postings The posting lists to add to
+     * @param key      The genre ID or release year
+     * @param filmID   The movie ID
+     */
+    private static void addPosting(HashMap<Integer, IdSet> postings, int key, int filmID) {
+        IdSet films = postings.get(key);
+        if (films == null) {
+            films = new IdSet();
+            postings.put(key, films);
+        }
+        films.add(filmID);
+    }
+
+    /**
+     * Removes a film from the posting list for a key, dropping the list once it is empty
+     *
+     * @param postings The posting lists to remove from
+     * @param key      The genre ID or release year
+     * @param filmID   The movie ID
+     */
+    private static void removePosting(HashMap<Integer, IdSet> postings, int key, int filmID) {
+        IdSet films = postings.get(key);
+        if (films != null) {
+            films.remove(filmID);
+            if (films.isEmpty()) postings.remove(key);
+        }
     }
 
     /**
@@ -60,11 +104,98 @@ public class Movies implements IMovies{
         // Add the new movie to the movieMap
         movieMap.put(id, movie);
 
+        // Record the ID at the end of the ID array
+        if (numIDs == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+        movie.setSlot(numIDs);
+        ids[numIDs++] = id;
+
+        // Index the movie by genre and release year
+        if (genres != null) {
+            for (Genre genre : genres) {
+                addPosting(genreFilms, genre.getID(), id);
+            }
+        }
+        if (release != null) {
+            addPosting(releaseYearFilms, release.getYear(), id);
+            minReleaseYear = Math.min(minReleaseYear, release.getYear());
+            maxReleaseYear = Math.max(maxReleaseYear, release.getYear());
+        }
+
         // Return true to indicate that the movie was successfully added
         return true;
     }
 
 
+    /**
+     * Adds many films at once, with everything else the movies file says about
+     * them. The map and ID array are grown once up front, and the genre and
+     * release year posting lists are built at the end instead of one film at a time
+     * 
+     * @param records The films to add. Films whose ID is already stored are skipped,
+     *                as they would be by add
+     * @return The number of films added
+     */
+    @Override
+    public int addAll(MovieRecord[] records) {
+        // Make room for every film before adding any of them
+        movieMap.ensureCapacity(movieMap.size() + records.length);
+        if (numIDs + records.length > ids.length) ids = Arrays.copyOf(ids, numIDs + records.length);
+
+        PostingsBuilder genrePostings = new PostingsBuilder(records.length * 3);
+        PostingsBuilder yearPostings = new PostingsBuilder(records.length);
+        boolean[] added = new boolean[records.length];
+        int numAdded = 0;
+
+        for (int i = 0; i < records.length; i++) {
+            MovieRecord mr = records[i];
+            if (movieMap.containsKey(mr.id)) continue;
+
+            // Fill in the whole film here rather than looking it up again for every setter
+            Movie movie = new Movie(mr.id, mr.title, mr.originalTitle, mr.overview, mr.tagline, mr.status, mr.genres, mr.release, mr.budget, mr.revenue, mr.languages, mr.originalLanguage, mr.runtime, mr.homepage, mr.adult, mr.video, mr.poster);
+            movie.setVoteAverage(mr.voteAverage);
+            movie.setVoteCount(mr.voteCount);
+            movie.setImdbId(mr.imdb);
+            movie.setPopularity(mr.popularity);
+            if (mr.taglineRef != LazyText.NONE) movie.setTaglineRef(mr.taglineRef);
+            if (mr.homepageRef != LazyText.NONE) movie.setHomepageRef(mr.homepageRef);
+            List<Company> companies = new List<>(mr.productionCompanies.length);
+            for (Company company : mr.productionCompanies) companies.add(company);
+            movie.setProductionCompanies(companies);
+            List<String> countries = new List<>(mr.productionCountries.length);
+            for (String country : mr.productionCountries) countries.add(country);
+            movie.setProductionCountries(countries);
+
+            movieMap.put(mr.id, movie);
+            movie.setSlot(numIDs);
+            ids[numIDs++] = mr.id;
+
+            if (mr.genres != null) {
+                for (Genre genre : mr.genres) {
+                    genrePostings.add(genre.getID(), mr.id);
+                }
+            }
+            if (mr.release != null) {
+                yearPostings.add(mr.release.getYear(), mr.id);
+                minReleaseYear = Math.min(minReleaseYear, mr.release.getYear());
+                maxReleaseYear = Math.max(maxReleaseYear, mr.release.getYear());
+            }
+            added[i] = true;
+            numAdded++;
+        }
+
+        genrePostings.addTo(genreFilms);
+        yearPostings.addTo(releaseYearFilms);
+
+        // Collections are shared between films, so they go through addToCollection
+        for (int i = 0; i < records.length; i++) {
+            MovieRecord mr = records[i];
+            if (added[i] && mr.collectionID >= 0) { // -1 means the film is not part of a collection
+                addToCollection(mr.id, mr.collectionID, mr.collectionName, mr.collectionPosterPath, mr.collectionBackdropPath);
+            }
+        }
+        return numAdded;
+    }
+
     /**
      * Removes a film from the data structure, and any data
      * added through this class related to the film
@@ -76,6 +207,30 @@ public class Movies implements IMovies{
     public boolean remove(int id) {
         // Check if the movie exists in the map
         if (movieMap.containsKey(id)) {
+            Movie movie = movieMap.get(id);
+
+            // Take the movie out of the genre and release year posting lists
+            if (movie.getGenres() != null) {
+                for (Genre genre : movie.getGenres()) {
+                    removePosting(genreFilms, genre.getID(), id);
+                }
+            }
+            if (movie.getRelease() != null) {
+                removePosting(releaseYearFilms, movie.getRelease().getYear(), id);
+            }
+
+            // Leave the movie's collection, dropping the collection once it is empty
+            Collection collection = movie.getBelongsToCollection();
+            if (collection != null) {
+                collection.removeMovieFromCollection(id);
+                if (collection.getCollectionMovies().isEmpty()) collectionMap.remove(collection.getCollectionID());
+            }
+
+            // Fill the movie's place in the ID array with the last ID, keeping the array packed
+            int lastID = ids[--numIDs];
+            ids[movie.getSlot()] = lastID;
+            movieMap.get(lastID).setSlot(movie.getSlot());
+
             // Remove the movie from the movieMap
             movieMap.remove(id);
             return true;  // Successfully removed the movie
@@ -91,19 +246,19 @@ public class Movies implements IMovies{
      */
     @Override
     public int[] getAllIDs() {
-        // Retrieve the keys (movie IDs) from the movieMap as a list
-        List<Integer> keyList = movieMap.keys();  // Get the list of all movie IDs
-
-        // Create an array to hold the movie IDs
-        int[] ids = new int[keyList.size()];
-
-        // Convert the list of Integer objects to an array of primitive ints
-        for (int i = 0; i < keyList.size(); i++) {
-            ids[i] = keyList.get(i);  // Copy each movie ID into the array
-        }
+        // Copy the packed array of movie IDs
+        return Arrays.copyOf(ids, numIDs);
+    }
 
-        // Return the array of movie IDs
-        return ids;
+    /**
+     * States whether a film is in the store, without copying or scanning the film IDs
+     * 
+     * @param id The film ID
+     * @return True if the film is stored, false otherwise
+     */
+    @Override
+    public boolean contains(int id) {
+        return movieMap.containsKey(id);
     }
 
 
@@ -118,36 +273,61 @@ public class Movies implements IMovies{
      */
     @Override
     public int[] getAllIDsReleasedInRange(LocalDate start, LocalDate end) {
-        // List to store valid movie IDs that satisfy the date range condition
-        List<Integer> validIDs = new List<>();
-
-        // Retrieve all movie IDs from the movieMap
-        List<Integer> allIDs = movieMap.keys();
-
-        // Iterate through each movie ID to check the release date
-        for (int i = 0; i < allIDs.size(); i++) {
-            Integer movieID = allIDs.get(i);
-
-            // Get the movie object by its ID
-            Movie movie = movieMap.get(movieID);
-
-            // Retrieve the release date of the movie
-            LocalDate releaseDate = movie.getRelease();
+        IdSet released = getReleasedInRangePostings(start, end);
+        return released.toArray();
+    }
 
-            // Check if the release date is within the range
-            if (releaseDate != null && releaseDate.isAfter(start) && releaseDate.isBefore(end)) {
-                validIDs.add(movieID);  // Add valid movie ID to the list
+    /**
+     * Finds all films released within a given range as a set, using the release
+     * year posting lists so only films from the years in range are looked at. If a
+     * film is released either on the start or end dates, then that film is not included
+     *
+     * @param start The start point of the range of dates
+     * @param end   The end point of the range of dates
+     * @return A new set of film IDs that were released between start and end
+     */
+    @Override
+    public IdSet getReleasedInRangePostings(LocalDate start, LocalDate end) {
+        // Only the years between the earliest and latest release can have films in them
+        int firstYear = Math.max(start.getYear(), minReleaseYear);
+        int lastYear = Math.min(end.getYear(), maxReleaseYear);
+
+        int[] buffer = new int[16];
+        int count = 0;
+        for (int year = firstYear; year <= lastYear; year++) {
+            IdSet films = releaseYearFilms.get(year);
+            if (films == null) continue;
+
+            // Years strictly inside the range need no date checks, only the edge years do
+            boolean edgeYear = year == start.getYear() || year == end.getYear();
+            IdSet.IdIterator iterator = films.iterator();
+            while (iterator.hasNext()) {
+                int movieID = iterator.next();
+                if (edgeYear) {
+                    LocalDate releaseDate = movieMap.get(movieID).getRelease();
+                    if (!releaseDate.isAfter(start) || !releaseDate.isBefore(end)) continue;
+                }
+                if (count == buffer.length) buffer = Arrays.copyOf(buffer, count * 2);
+                buffer[count++] = movieID;
             }
         }
 
-        // Convert the list of valid movie IDs to an array
-        int[] idsArray = new int[validIDs.size()];
-        for (int i = 0; i < validIDs.size(); i++) {
-            idsArray[i] = validIDs.get(i);  // Copy valid IDs into the array
-        }
+        // Build the set in one go rather than adding IDs out of order
+        IdSet result = IdSet.of(buffer, count);
+        return result;
+    }
 
-        // Return the array of movie IDs
-        return idsArray;
+    /**
+     * Gets the posting list of all films with a given genre. The returned set
+     * is owned by the store and must not be modified
+     *
+     * @param genreID The genre ID
+     * @return The set of film IDs with the genre, or an empty set if there are none
+     */
+    @Override
+    public IdSet getGenrePostings(int genreID) {
+        IdSet films = genreFilms.get(genreID);
+        return films != null ? films : new IdSet();
     }
 
 
@@ -495,24 +675,31 @@ public class Movies implements IMovies{
         // Retrieve the movie by its ID
         Movie movie = movieMap.get(filmID);
 
-        // If the movie exists, proceed to add it to the collection
-        if (movie != null) {
-            // Create a new Collection object with the provided details
-            Collection collection = new Collection(collectionID, collectionName, collectionPosterPath, collectionBackdropPath);
+        // If the movie doesn't exist, it can't be added to a collection
+        if (movie == null) return false;
 
-            // Add the movie to the collection
-            collection.addMovieToCollection(movie);
+        // Every film in a collection shares the one Collection object, so the
+        // collection details are only stored the first time it is seen
+        Collection collection = collectionMap.get(collectionID);
+        if (collection == null) {
+            collection = new Collection(collectionID, collectionName, collectionPosterPath, collectionBackdropPath);
+            collectionMap.put(collectionID, collection);
+        }
 
-            // Set the collection for the movie
-            movie.setBelongsToCollection(collection);
+        // A film can only belong to one collection, so leave any previous one,
+        // dropping it once it is empty as remove does
+        Collection previous = movie.getBelongsToCollection();
+        if (previous != null && previous != collection) {
+            previous.removeMovieFromCollection(filmID);
+            if (previous.getCollectionMovies().isEmpty()) collectionMap.remove(previous.getCollectionID());
+        }
 
-            // Add the collection to the collection map if it doesn't already exist
-            if (!collectionMap.containsKey(collectionID)) collectionMap.put(collectionID, collection);
-            else collectionMap.get(collectionID).addMovieToCollection(movie);
+        // Add the movie's ID to the collection (a no-op if it is already there)
+        collection.addMovieToCollection(filmID);
+        movie.setBelongsToCollection(collection);
 
-            // Return true indicating the collection was successfully added
-            return true;
-        } else return false;  // Movie not found
+        // Return true indicating the film is in the collection
+        return true;
     }
 
     /**
@@ -528,21 +715,27 @@ public class Movies implements IMovies{
         // Retrieve the collection by its ID
         Collection collection = collectionMap.get(collectionID);
 
-        // If the collection doesn't exist or has no movies, return an empty array
-        if (collection == null || collection.getCollectionMovies().isEmpty()) {
+        // If the collection doesn't exist, return an empty array
+        if (collection == null) {
             return new int[0];
         }
 
-        // Retrieve the list of movies in the collection
-        List<Movie> movies = collection.getCollectionMovies();
-        int[] result = new int[movies.size()];
-
-        // Fill the result array with movie IDs
-        for (int i = 0; i < movies.size(); i++) {
-            result[i] = movies.get(i).getId();
-        }
+        // Read the film IDs straight out of the collection's ID set
+        return collection.getCollectionMovies().toArray();
+    }
 
-        return result;  // Return the array of movie IDs
+    /**
+     * Get a read-only view of all films that belong to a given collection,
+     * without copying them each time
+     * 
+     * @param collectionID The collection ID to be searched for
+     * @return A view of the film IDs in the collection. If the collection ID is
+     *         not valid, return an empty view.
+     */
+    @Override
+    public IntView getFilmsInCollectionView(int collectionID) {
+        Collection collection = collectionMap.get(collectionID);
+        return collection != null ? collection.getCollectionMoviesView() : IntView.EMPTY;
     }
 
     /**
@@ -819,6 +1012,34 @@ public class Movies implements IMovies{
         return result;
     }
 
+    /**
+     * Gets a read-only view of the production companies for a given film,
+     * backed by the film's own list so nothing is copied
+     * 
+     * @param id The movie ID
+     * @return A view of the Company objects for the requested film. If the film
+     *         cannot be found, then return null
+     */
+    @Override
+    public ObjectView<Company> getProductionCompaniesView(int id) {
+        Movie movie = movieMap.get(id);
+        return (movie != null) ? movie.getProductionCompanies().view() : null;
+    }
+
+    /**
+     * Gets a read-only view of the production countries for a given film,
+     * backed by the film's own list so nothing is copied
+     * 
+     * @param id The movie ID
+     * @return A view of the ISO 3166 country codes for the requested film. If the
+     *         film cannot be found, then return null
+     */
+    @Override
+    public ObjectView<String> getProductionCountriesView(int id) {
+        Movie movie = movieMap.get(id);
+        return (movie != null) ? movie.getProductionCountries().view() : null;
+    }
+
     /**
      * States the number of movies stored in the data structure
      * 
@@ -859,13 +1080,8 @@ public class Movies implements IMovies{
             Movie movie = movies.get(i);
             if (movie == null) continue;
 
-            // Get the title, original title, and overview for comparison
-            String title = movie.getTitle() != null ? movie.getTitle().toLowerCase() : "";
-            String originalTitle = movie.getOriginalTitle() != null ? movie.getOriginalTitle().toLowerCase() : "";
-            String overview = movie.getOverview() != null ? movie.getOverview().toLowerCase() : "";
-
             // If the search term is found in any of the fields, add the movie ID to the list
-            if (title.contains(searchTerm) || originalTitle.contains(searchTerm) || overview.contains(searchTerm)) {
+            if (matchesSearch(movie, searchTerm)) {
                 matchingIDs.add(movie.getId());
             }
         }
@@ -880,4 +1096,55 @@ public class Movies implements IMovies{
         return result;
     }
 
+    /**
+     * Produces a list of the given movie IDs that have the search term in their title,
+     * original title or their overview. Used to refine a search as more of the term is
+     * typed, as a film that matches a term also matches every part of it
+     * 
+     * @param searchTerm The term that needs to be checked
+     * @param candidates The movie IDs to check, such as the results of a search for
+     *                   part of the term. Their order is kept
+     * @param cancelled Checked every so often, and once true the search stops early
+     *                  with the matches found so far
+     * @return An array of the candidates that have the search term in their title,
+     *         original title or their overview. If none have this search term,
+     *         then an empty array should be returned
+     */
+    @Override
+    public int[] findFilms(String searchTerm, int[] candidates, BooleanSupplier cancelled) {
+        if (searchTerm == null || searchTerm.isEmpty() || candidates == null) {
+            return new int[0];
+        }
+        searchTerm = searchTerm.toLowerCase();
+
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if ((i & 255) == 0 && cancelled.getAsBoolean()) break; // A newer search has replaced this one
+            Movie movie = movieMap.get(candidates[i]);
+            if (movie != null && matchesSearch(movie, searchTerm)) {
+                result[count++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Checks if a movie has a search term in its title, original title or overview
+     * 
+     * @param movie The movie to check
+     * @param searchTerm The term, already in lowercase
+     * @return TRUE if any of the fields contain the term, FALSE otherwise
+     */
+    private static boolean matchesSearch(Movie movie, String searchTerm) {
+        // Get the title, original title, and overview for comparison
+        String title = movie.getTitle() != null ? movie.getTitle().toLowerCase() : "";
+        String originalTitle = movie.getOriginalTitle() != null ? movie.getOriginalTitle().toLowerCase() : "";
+        if (title.contains(searchTerm) || originalTitle.contains(searchTerm)) {
+            return true; // No need to fold the overview
+        }
+        String overview = movie.getOverview();
+        return overview != null && overview.toLowerCase().contains(searchTerm);
+    }
+
 }
@@ -1,6 +1,8 @@
 package stores;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 
 import interfaces.IRatings;
 import structures.*;
@@ -80,6 +82,84 @@ public class Ratings implements IRatings {
         return true;  // Return true to indicate the rating was successfully added
     }
 
+    /**
+     * Adds many ratings at once, given as one array per column. The maps are grown
+     * once, and each new user's and film's list is created at its final size.
+     * Ratings are only checked against a user's existing ratings when the user
+     * already had ratings, or rates the same film more than once in the batch;
+     * those go through add, so the first rating of a film by a user is kept
+     * 
+     * @param userIDs    The user ID of each rating
+     * @param movieIDs   The movie ID of each rating
+     * @param ratings    Each rating (between 0 and 5 inclusive)
+     * @param timestamps The time each rating was made, in seconds since the epoch (UTC)
+     * @param count      The number of ratings, from the start of each array
+     * @return The number of ratings added
+     */
+    @Override
+    public int addAll(int[] userIDs, int[] movieIDs, float[] ratings, long[] timestamps, int count) {
+        // Sorting by (user, movie) groups each user's ratings, with any repeated rating next to the first
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) userIDs[i] << 32) | (movieIDs[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+
+        // Count each user's ratings, and find the users whose ratings need checking
+        HashMap<Integer, Integer> userCounts = new HashMap<>();
+        IdSet checkedUsers = new IdSet();
+        for (int i = 0; i < count; ) {
+            int user = (int) (keys[i] >> 32);
+            int start = i;
+            for (i++; i < count && (int) (keys[i] >> 32) == user; i++) {
+                if (keys[i] == keys[i - 1]) checkedUsers.add(user); // Rated the same film twice
+            }
+            if (userMap.containsKey(user)) checkedUsers.add(user);
+            else userCounts.put(user, i - start);
+        }
+
+        // Count each film's ratings
+        int[] films = Arrays.copyOf(movieIDs, count);
+        Arrays.sort(films);
+        HashMap<Integer, Integer> movieCounts = new HashMap<>();
+        for (int i = 0; i < count; ) {
+            int start = i;
+            for (i++; i < count && films[i] == films[start]; i++);
+            movieCounts.put(films[start], i - start);
+        }
+
+        userMap.ensureCapacity(userMap.size() + userCounts.size());
+        movieMap.ensureCapacity(movieMap.size() + movieCounts.size());
+
+        // Add the ratings in order, so each list is in the same order as add would leave it
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(timestamps[i], 0, ZoneOffset.UTC);
+            if (checkedUsers.contains(userIDs[i])) {
+                if (add(userIDs[i], movieIDs[i], ratings[i], time)) added++;
+                continue;
+            }
+
+            // A new user who rates each film once can't clash with any rating already stored
+            Rating rate = new Rating(userIDs[i], movieIDs[i], ratings[i], time);
+            List<Rating> userRatings = userMap.get(userIDs[i]);
+            if (userRatings == null) {
+                userRatings = new List<>(userCounts.get(userIDs[i]));
+                userMap.put(userIDs[i], userRatings);
+            }
+            userRatings.add(rate);
+
+            List<Rating> movieRatings = movieMap.get(movieIDs[i]);
+            if (movieRatings == null) {
+                movieRatings = new List<>(movieCounts.get(movieIDs[i]));
+                movieMap.put(movieIDs[i], movieRatings);
+            }
+            movieRatings.add(rate);
+            added++;
+        }
+        return added;
+    }
+
     /**
      * Removes a given rating, using the user ID and the movie ID as the unique
      * identifier
@@ -122,6 +202,32 @@ public class Ratings implements IRatings {
         return false;  // Return false if the rating was not found
     }
 
+    /**
+     * Removes every rating for a given film, from both the film's and the users'
+     * lists of ratings. Only the users who rated the film are visited
+     * 
+     * @param movieID The movie ID
+     * @return TRUE if the film had ratings that were removed, FALSE otherwise
+     */
+    @Override
+    public boolean removeMovie(int movieID) {
+        List<Rating> movieRatings = movieMap.get(movieID);
+        if (movieRatings == null) return false;  // No ratings for this movie
+
+        // Remove each rating from the list of the user who made it
+        for (int i = 0; i < movieRatings.size(); i++) {
+            Rating rating = movieRatings.get(i);
+            List<Rating> userRatings = userMap.get(rating.getUserId());
+            if (userRatings != null) {
+                userRatings.remove(rating);
+                if (userRatings.isEmpty()) userMap.remove(rating.getUserId());  // Drop users with no ratings left
+            }
+        }
+
+        movieMap.remove(movieID);
+        return true;
+    }
+
     /**
      * Sets a rating for a given user ID and movie ID. Therefore, should the given
      * user have already rated the given movie, the new data should overwrite the
@@ -253,20 +359,12 @@ public class Ratings implements IRatings {
      */
     @Override
     public float getMovieAverageRating(int movieid) {
-        // Check if the movie exists in the stores and movieMap
-        boolean movieExistsInStores = false;
-        int[] allMovies = stores.getMovies().getAllIDs();  // Retrieve all movie IDs from the store
-        for (int i = 0; i < allMovies.length; i++) {
-            if (allMovies[i] == movieid) {
-                movieExistsInStores = true;
-                break;
-            }
-        }
+        if (!movieMap.containsKey(movieid)) {
+            boolean movieExistsInStores = stores.getMovies().contains(movieid);
 
-        // If the movie doesn't exist in the store and in movieMap, return 0.0f
-        if (movieExistsInStores && !movieMap.containsKey(movieid)) return 0.0f;
-        // If the movie doesn't exist in the store but exists in movieMap, return -1.0f
-        else if (!movieExistsInStores && !movieMap.containsKey(movieid)) return -1.0f;
+            // If the movie exists in the store but has no ratings, return 0.0f, otherwise -1.0f
+            return movieExistsInStores ? 0.0f : -1.0f;
+        }
 
         // Retrieve all the ratings for the movie and calculate the average
         float[] ratings = getMovieRatings(movieid);
@@ -400,14 +498,11 @@ public class Ratings implements IRatings {
     @Override
     public int getNumRatings(int movieid) {
         List<Rating> movieRatings = movieMap.get(movieid);  // Get ratings for the movie
-        int[] allMovies = stores.getMovies().getAllIDs();  // Retrieve all movie IDs from the store
 
         // Step 1: Check if the movie exists in stores. 
-        for (int movie : allMovies) {
-            if (movie == movieid) {
-                // If the movie exists in stores, return its number of ratings (0 if no ratings)
-                return (movieRatings == null) ? 0 : movieRatings.size();
-            } 
+        if (stores.getMovies().contains(movieid)) {
+            // If the movie exists in stores, return its number of ratings (0 if no ratings)
+            return (movieRatings == null) ? 0 : movieRatings.size();
         }
 
         // Step 2: Movie has not been added to stores, but has a rating in the Ratings store
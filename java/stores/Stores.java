@@ -4,6 +4,11 @@ import interfaces.*;
 
 public class Stores extends AbstractStores{
     public Stores(){
+        clear();
+    }
+
+    @Override
+    public void clear(){
         credits  = new Credits(this);
         keywords = new Keywords(this);
         movies   = new Movies(this);
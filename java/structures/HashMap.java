@@ -3,13 +3,44 @@ package structures;
 public class HashMap<K, V> {
     private KeyValueList<K, V> keyValueList;
     private static final float LOAD_FACTOR = 0.7f; // Load factor for resizing
-    private static final KeyValuePair<?, ?> DELETED = new KeyValuePair<>(null, null); // Deleted instance for proper Hash Map functionality
+    private static final KeyValuePair<?, ?> DELETED = KeyValueList.DELETED; // Must be the same instance KeyValueList marks removed entries with
 
 
     public HashMap() {
         this.keyValueList = new KeyValueList<K, V>(11); // Start with a prime number
     }
 
+    /**
+     * Creates a map with room for the given number of entries, so filling it
+     * never needs to resize.
+     *
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public HashMap(int expectedSize) {
+        this.keyValueList = new KeyValueList<K, V>(nextPrime(Math.max(10, capacityFor(expectedSize))));
+    }
+
+    /**
+     * Grows the table, if needed, so that it can hold the given number of entries
+     * without resizing. Used before adding many entries at once, so the table is
+     * rehashed at most once rather than every time it doubles.
+     *
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int needed = capacityFor(expectedSize);
+        if (needed > keyValueList.capacity()) {
+            rehash(nextPrime(needed));
+        }
+    }
+
+    /**
+     * The smallest table that holds the given number of entries under the load factor.
+     */
+    private static int capacityFor(int expectedSize) {
+        return (int) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+    }
+
     /**
      * Resizes the hash table if the load factor exceeds the threshold (0.7).
      * The table is resized to the next prime number greater than double the current capacity.
@@ -18,30 +49,39 @@ public class HashMap<K, V> {
      */
     private boolean resize() {
         if ((float) keyValueList.size() / keyValueList.capacity() > LOAD_FACTOR) {
-            int newCapacity = nextPrime(keyValueList.capacity() * 2); // Find the next prime number as new capacity
-            KeyValuePair<K, V>[] oldTable = keyValueList.table;
-            keyValueList.table = new KeyValuePair[newCapacity]; // Allocate new table
-            keyValueList.capacity = newCapacity; // Update capacity
-            keyValueList.size = 0; // Reset size
-
-            // Rehash all elements into the new table
-            for (KeyValuePair<K, V> entry : oldTable) {
-                if (entry != null) {
-                    put(entry.getKey(), entry.getValue()); // Reinsert entries into the resized table
-                }
-            }
+            rehash(nextPrime(keyValueList.capacity() * 2)); // Find the next prime number as new capacity
             return true; // Return true to indicate successful resize
         }
         return false; // Return false if resizing is not necessary
     }
 
+    /**
+     * Moves every entry into a new table of the given capacity.
+     *
+     * @param newCapacity The capacity of the new table.
+     */
+    @SuppressWarnings("unchecked")
+    private void rehash(int newCapacity) {
+        KeyValuePair<K, V>[] oldTable = keyValueList.table;
+        keyValueList.table = new KeyValuePair[newCapacity]; // Allocate new table
+        keyValueList.capacity = newCapacity; // Update capacity
+        keyValueList.size = 0; // Reset size
+
+        // Rehash all elements into the new table
+        for (KeyValuePair<K, V> entry : oldTable) {
+            if (entry != null && entry != DELETED) {
+                keyValueList.put(entry); // Reinsert entries into the resized table
+            }
+        }
+    }
+
     /**
      * Finds the next prime number greater than the given number.
      * 
      * @param num The number to find the next prime after.
      * @return The next prime number.
      */
-    private int nextPrime(int num) {
+    private static int nextPrime(int num) {
         int candidate = num + 1;
         while (!isPrime(candidate)) {
             candidate++; // Increment until a prime is found
@@ -55,7 +95,7 @@ public class HashMap<K, V> {
      * @param number The number to check.
      * @return {@code true} if the number is prime, {@code false} otherwise.
      */
-    private boolean isPrime(int number) {
+    private static boolean isPrime(int number) {
         if (number <= 1) return false; // Numbers <= 1 are not prime
         if (number == 2) return true; // 2 is prime
         if (number % 2 == 0) return false; // Eliminate even numbers
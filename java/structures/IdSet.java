@@ -0,0 +1,912 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of integer IDs in the style of a Roaring bitmap, used for the
+ * posting lists (e.g. "all films with keyword X") held by the stores.
+ *
+ * The 32-bit ID space is split into chunks of 65536 values, keyed by the high 16 bits
+ * of each ID. Every chunk is stored in whichever container suits its density:
+ * a sorted array for sparse chunks, a bitmap for dense chunks, and a list of runs for
+ * chunks made up of long consecutive stretches of IDs. IDs are always iterated in
+ * ascending (unsigned) order.
+ */
+public class IdSet {
+    private static final int MAX_ARRAY_SIZE = 4096; // Above this an array container is larger than a bitmap
+    private static final int BITMAP_WORDS = 1024;   // 65536 bits / 64 bits per word
+    private static final int INITIAL_CAPACITY = 4;
+
+    private char[] keys;             // Sorted high 16 bits of the IDs in each container
+    private Container[] containers;  // Container for the low 16 bits, parallel to keys
+    private int size;                // Number of containers in use
+
+    /**
+     * Creates an empty set.
+     */
+    public IdSet() {
+        this.keys = new char[INITIAL_CAPACITY];
+        this.containers = new Container[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Builds a set from an array of IDs. The array does not need to be sorted and may
+     * contain duplicates. Containers are built in one pass and then compressed.
+     *
+     * @param ids The IDs to put in the set
+     * @return A new set containing every ID in the array
+     */
+    public static IdSet of(int[] ids) {
+        return of(ids, ids.length);
+    }
+
+    /**
+     * Builds a set from the first {@code count} IDs of an array.
+     *
+     * @param ids   The IDs to put in the set
+     * @param count How many IDs from the start of the array to use
+     * @return A new set containing those IDs
+     */
+    public static IdSet of(int[] ids, int count) {
+        int[] sorted = Arrays.copyOf(ids, count);
+        // Sort by unsigned value so that the containers come out in key order
+        for (int i = 0; i < count; i++) sorted[i] ^= Integer.MIN_VALUE;
+        Arrays.sort(sorted);
+        for (int i = 0; i < count; i++) sorted[i] ^= Integer.MIN_VALUE;
+
+        IdSet set = new IdSet();
+        int i = 0;
+        while (i < count) {
+            char key = (char) (sorted[i] >>> 16);
+            int end = i;
+            while (end < count && (char) (sorted[end] >>> 16) == key) end++;
+
+            // Collect the distinct low bits for this key
+            char[] low = new char[end - i];
+            int card = 0;
+            for (int j = i; j < end; j++) {
+                char value = (char) sorted[j];
+                if (card == 0 || low[card - 1] != value) low[card++] = value;
+            }
+
+            Container container;
+            if (card <= MAX_ARRAY_SIZE) {
+                container = new ArrayContainer(low, card);
+            } else {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int j = 0; j < card; j++) bitmap.set(low[j]);
+                container = bitmap;
+            }
+            set.append(key, container.optimize());
+            i = end;
+        }
+        return set;
+    }
+
+    /**
+     * Adds an ID to the set.
+     *
+     * @param id The ID to add
+     * @return {@code true} if the ID was not already in the set, {@code false} otherwise
+     */
+    public boolean add(int id) {
+        char key = (char) (id >>> 16);
+        int index = findKey(key);
+        if (index >= 0) {
+            Container container = containers[index];
+            int before = container.cardinality();
+            containers[index] = container.add((char) id);
+            return containers[index].cardinality() > before;
+        }
+
+        // No container for this key yet, so insert a new one in sorted position
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new ArrayContainer().add((char) id);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an ID from the set.
+     *
+     * @param id The ID to remove
+     * @return {@code true} if the ID was in the set, {@code false} otherwise
+     */
+    public boolean remove(int id) {
+        int index = findKey((char) (id >>> 16));
+        if (index < 0) return false;
+
+        Container container = containers[index];
+        int before = container.cardinality();
+        container = container.remove((char) id);
+        if (container.cardinality() == before) return false;
+
+        if (container.cardinality() == 0) {
+            // Drop the now empty container
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            size--;
+            containers[size] = null;
+        } else {
+            containers[index] = container;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether an ID is in the set.
+     *
+     * @param id The ID to look for
+     * @return {@code true} if the ID is in the set, {@code false} otherwise
+     */
+    public boolean contains(int id) {
+        int index = findKey((char) (id >>> 16));
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    /**
+     * Returns the number of IDs in the set.
+     *
+     * @return The number of IDs in the set
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return {@code true} if the set has no IDs, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns every ID in the set as an array, in ascending order.
+     *
+     * @return A new array of all IDs in the set
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            pos = containers[i].fill(keys[i] << 16, result, pos);
+        }
+        return result;
+    }
+
+    /**
+     * Calls the given action on every ID in the set, in ascending order, without
+     * allocating an array.
+     *
+     * @param action The action to perform on each ID
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns an iterator over the IDs in the set, in ascending order.
+     * The set must not be modified while the iterator is in use.
+     *
+     * @return A primitive iterator over the set
+     */
+    public IdIterator iterator() {
+        return new IdIterator();
+    }
+
+    /**
+     * Returns a deep copy of this set.
+     *
+     * @return A new set holding the same IDs
+     */
+    public IdSet copy() {
+        IdSet copy = new IdSet();
+        copy.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            copy.keys[i] = keys[i];
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Converts every container to its smallest representation (array, bitmap or runs).
+     * Worth calling once a set has been fully built.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    /**
+     * Estimates how much memory the IDs in this set take up.
+     *
+     * @return The approximate number of bytes used by the containers
+     */
+    public long sizeInBytes() {
+        long total = size * 2L;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].sizeInBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Computes the intersection of two sets.
+     *
+     * @param a The first set
+     * @param b The second set
+     * @return A new set of the IDs that are in both {@code a} and {@code b}
+     */
+    public static IdSet and(IdSet a, IdSet b) {
+        IdSet result = new IdSet();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Container container = Container.and(a.containers[i], b.containers[j]);
+                if (container.cardinality() > 0) result.append(a.keys[i], container);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the union of two sets.
+     *
+     * @param a The first set
+     * @param b The second set
+     * @return A new set of the IDs that are in either {@code a} or {@code b}
+     */
+    public static IdSet or(IdSet a, IdSet b) {
+        IdSet result = new IdSet();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i >= a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], Container.or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the difference of two sets.
+     *
+     * @param a The set to take IDs from
+     * @param b The set of IDs to leave out
+     * @return A new set of the IDs that are in {@code a} but not in {@code b}
+     */
+    public static IdSet andNot(IdSet a, IdSet b) {
+        IdSet result = new IdSet();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) j++;
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                Container container = Container.andNot(a.containers[i], b.containers[j]);
+                if (container.cardinality() > 0) result.append(a.keys[i], container);
+            } else {
+                result.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Binary search for the container with the given key.
+     *
+     * @param key The high 16 bits of an ID
+     * @return The index of the key, or {@code -(insertion point) - 1} if it is not present
+     */
+    private int findKey(char key) {
+        // Most updates during loading land in the last container, so check it first
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Adds a container to the end of the set. The key must be larger than every existing key.
+     */
+    private void append(char key, Container container) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    /**
+     * Grows the key and container arrays so they can hold at least {@code capacity} containers.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+    }
+
+    /**
+     * A primitive iterator over an IdSet, so that IDs do not need to be boxed.
+     */
+    public class IdIterator {
+        private int containerIndex = 0;
+        private Cursor cursor = size > 0 ? containers[0].cursor() : null;
+
+        /**
+         * @return {@code true} if there are more IDs to iterate over
+         */
+        public boolean hasNext() {
+            while (cursor != null && !cursor.hasNext()) {
+                containerIndex++;
+                cursor = containerIndex < size ? containers[containerIndex].cursor() : null;
+            }
+            return cursor != null;
+        }
+
+        /**
+         * @return The next ID in ascending order
+         * @throws NoSuchElementException if there are no more IDs
+         */
+        public int next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return (keys[containerIndex] << 16) | cursor.next();
+        }
+    }
+
+    /****************************************************/
+    /*                                                  */
+    /*                    Containers                    */
+    /*                                                  */
+    /****************************************************/
+
+    /**
+     * Walks the low 16 bits stored in a container in ascending order.
+     */
+    private static abstract class Cursor {
+        abstract boolean hasNext();
+        abstract char next();
+    }
+
+    /**
+     * Holds the low 16 bits of every ID sharing the same high 16 bits.
+     * Mutating operations return the container that should be used from then on,
+     * as a container may convert itself into a different representation.
+     */
+    private static abstract class Container {
+        abstract int cardinality();
+        abstract boolean contains(char low);
+        abstract Container add(char low);
+        abstract Container remove(char low);
+        abstract int fill(int high, int[] out, int pos);
+        abstract void forEach(int high, IntConsumer action);
+        abstract Cursor cursor();
+        abstract Container copy();
+        abstract BitmapContainer toBitmap();
+        abstract int numberOfRuns();
+        abstract int sizeInBytes();
+
+        /**
+         * Picks the smallest of the array, bitmap and run representations for this container.
+         */
+        Container optimize() {
+            int card = cardinality();
+            int runBytes = RunContainer.bytesFor(numberOfRuns());
+            int otherBytes = card <= MAX_ARRAY_SIZE ? ArrayContainer.bytesFor(card) : BitmapContainer.BYTES;
+            if (runBytes < otherBytes) {
+                return (this instanceof RunContainer) ? this : RunContainer.from(this);
+            }
+            return shrink(this);
+        }
+
+        /**
+         * Uses an array for sparse containers and a bitmap for dense ones.
+         */
+        static Container shrink(Container container) {
+            int card = container.cardinality();
+            if (card <= MAX_ARRAY_SIZE) {
+                if (container instanceof ArrayContainer) return container;
+                char[] content = new char[card];
+                int[] values = new int[card];
+                container.fill(0, values, 0);
+                for (int i = 0; i < card; i++) content[i] = (char) values[i];
+                return new ArrayContainer(content, card);
+            }
+            return (container instanceof BitmapContainer) ? container : container.toBitmap();
+        }
+
+        static Container and(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, true);
+            if (b instanceof ArrayContainer) return ((ArrayContainer) b).filter(a, true);
+            BitmapContainer result = a.toBitmap().copyBitmap();
+            result.andWith(b.toBitmap());
+            return shrink(result);
+        }
+
+        static Container or(Container a, Container b) {
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                    && a.cardinality() + b.cardinality() <= MAX_ARRAY_SIZE) {
+                return ((ArrayContainer) a).merge((ArrayContainer) b);
+            }
+            BitmapContainer result = a.toBitmap().copyBitmap();
+            result.orWith(b.toBitmap());
+            return shrink(result);
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).filter(b, false);
+            BitmapContainer result = a.toBitmap().copyBitmap();
+            result.andNotWith(b.toBitmap());
+            return shrink(result);
+        }
+    }
+
+    /**
+     * Sparse container: a sorted array of the low 16 bits.
+     */
+    private static class ArrayContainer extends Container {
+        private char[] content;
+        private int card;
+
+        ArrayContainer() {
+            this.content = new char[4];
+            this.card = 0;
+        }
+
+        ArrayContainer(char[] content, int card) {
+            this.content = content;
+            this.card = card;
+        }
+
+        static int bytesFor(int card) {
+            return card * 2;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(content, 0, card, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = (card > 0 && content[card - 1] < low) ? -card - 1 : Arrays.binarySearch(content, 0, card, low);
+            if (index >= 0) return this; // Already present
+
+            if (card >= MAX_ARRAY_SIZE) {
+                // Too big to stay an array, so switch to a bitmap
+                return toBitmap().add(low);
+            }
+
+            index = -index - 1;
+            if (card == content.length) {
+                content = Arrays.copyOf(content, Math.min(MAX_ARRAY_SIZE, content.length * 2));
+            }
+            System.arraycopy(content, index, content, index + 1, card - index);
+            content[index] = low;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(content, 0, card, low);
+            if (index >= 0) {
+                System.arraycopy(content, index + 1, content, index, card - index - 1);
+                card--;
+            }
+            return this;
+        }
+
+        @Override
+        int fill(int high, int[] out, int pos) {
+            if (out == null) return pos;
+            for (int i = 0; i < card; i++) {
+                out[pos++] = high | content[i];
+            }
+            return pos;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < card; i++) {
+                action.accept(high | content[i]);
+            }
+        }
+
+        @Override
+        Cursor cursor() {
+            return new Cursor() {
+                private int index = 0;
+                boolean hasNext() { return index < card; }
+                char next() { return content[index++]; }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, Math.max(card, 1)), card);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < card; i++) bitmap.set(content[i]);
+            return bitmap;
+        }
+
+        @Override
+        int numberOfRuns() {
+            if (card == 0) return 0;
+            int runs = 1;
+            for (int i = 1; i < card; i++) {
+                if (content[i] != content[i - 1] + 1) runs++;
+            }
+            return runs;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return bytesFor(card);
+        }
+
+        /**
+         * Keeps the values that are ({@code keep == true}) or are not ({@code keep == false})
+         * in the other container.
+         */
+        ArrayContainer filter(Container other, boolean keep) {
+            char[] result = new char[Math.max(card, 1)];
+            int count = 0;
+            for (int i = 0; i < card; i++) {
+                if (other.contains(content[i]) == keep) result[count++] = content[i];
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        /**
+         * Merges two sorted arrays, dropping duplicates.
+         */
+        ArrayContainer merge(ArrayContainer other) {
+            char[] result = new char[Math.max(card + other.card, 1)];
+            int i = 0, j = 0, count = 0;
+            while (i < card && j < other.card) {
+                if (content[i] < other.content[j]) result[count++] = content[i++];
+                else if (content[i] > other.content[j]) result[count++] = other.content[j++];
+                else {
+                    result[count++] = content[i++];
+                    j++;
+                }
+            }
+            while (i < card) result[count++] = content[i++];
+            while (j < other.card) result[count++] = other.content[j++];
+            return new ArrayContainer(result, count);
+        }
+    }
+
+    /**
+     * Dense container: one bit per possible value of the low 16 bits.
+     */
+    private static class BitmapContainer extends Container {
+        static final int BYTES = BITMAP_WORDS * 8;
+        private final long[] words;
+        private int card;
+
+        BitmapContainer() {
+            this.words = new long[BITMAP_WORDS];
+            this.card = 0;
+        }
+
+        private BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        void set(char low) {
+            long mask = 1L << low;
+            int index = low >>> 6;
+            if ((words[index] & mask) == 0) {
+                words[index] |= mask;
+                card++;
+            }
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            set(low);
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long mask = 1L << low;
+            int index = low >>> 6;
+            if ((words[index] & mask) != 0) {
+                words[index] &= ~mask;
+                card--;
+                // Go back to an array once it becomes the smaller representation
+                if (card <= MAX_ARRAY_SIZE) return shrink(this);
+            }
+            return this;
+        }
+
+        @Override
+        int fill(int high, int[] out, int pos) {
+            if (out == null) return pos;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    out[pos++] = high | ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1; // Clear the lowest set bit
+                }
+            }
+            return pos;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | ((i << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Cursor cursor() {
+            return new Cursor() {
+                private int index = 0;
+                private long word = words[0];
+                boolean hasNext() {
+                    while (word == 0 && index < BITMAP_WORDS - 1) word = words[++index];
+                    return word != 0;
+                }
+                char next() {
+                    hasNext();
+                    char value = (char) ((index << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return copyBitmap();
+        }
+
+        BitmapContainer copyBitmap() {
+            return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), card);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            long previous = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                // A run starts at every set bit whose lower neighbour is unset
+                runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+                previous = word;
+            }
+            return runs;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return BYTES;
+        }
+
+        void andWith(BitmapContainer other) {
+            card = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= other.words[i];
+                card += Long.bitCount(words[i]);
+            }
+        }
+
+        void orWith(BitmapContainer other) {
+            card = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] |= other.words[i];
+                card += Long.bitCount(words[i]);
+            }
+        }
+
+        void andNotWith(BitmapContainer other) {
+            card = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= ~other.words[i];
+                card += Long.bitCount(words[i]);
+            }
+        }
+    }
+
+    /**
+     * Run container: pairs of (start, length - 1) describing consecutive stretches of values.
+     * Run containers are read-only; any update converts them back to an array or bitmap.
+     */
+    private static class RunContainer extends Container {
+        private final char[] runs; // runs[2i] = start, runs[2i + 1] = length - 1
+        private final int numRuns;
+        private final int card;
+
+        private RunContainer(char[] runs, int numRuns, int card) {
+            this.runs = runs;
+            this.numRuns = numRuns;
+            this.card = card;
+        }
+
+        static int bytesFor(int numRuns) {
+            return 2 + numRuns * 4;
+        }
+
+        /**
+         * Builds a run container holding the same values as another container.
+         */
+        static RunContainer from(Container container) {
+            int numRuns = container.numberOfRuns();
+            char[] runs = new char[numRuns * 2];
+            Cursor cursor = container.cursor();
+            int run = -1;
+            int previous = -2;
+            while (cursor.hasNext()) {
+                char value = cursor.next();
+                if (value != previous + 1) {
+                    run++;
+                    runs[2 * run] = value;
+                    runs[2 * run + 1] = 0;
+                } else {
+                    runs[2 * run + 1]++;
+                }
+                previous = value;
+            }
+            return new RunContainer(runs, numRuns, container.cardinality());
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char low) {
+            // Binary search for the last run starting at or before low
+            int lo = 0, hi = numRuns - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (runs[2 * mid] <= low) lo = mid + 1;
+                else hi = mid - 1;
+            }
+            if (hi < 0) return false;
+            return low - runs[2 * hi] <= runs[2 * hi + 1];
+        }
+
+        @Override
+        Container add(char low) {
+            if (contains(low)) return this;
+            return shrink(this).add(low);
+        }
+
+        @Override
+        Container remove(char low) {
+            if (!contains(low)) return this;
+            return shrink(this).remove(low);
+        }
+
+        @Override
+        int fill(int high, int[] out, int pos) {
+            if (out == null) return pos;
+            for (int i = 0; i < numRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int value = start; value <= end; value++) {
+                    out[pos++] = high | value;
+                }
+            }
+            return pos;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < numRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int value = start; value <= end; value++) {
+                    action.accept(high | value);
+                }
+            }
+        }
+
+        @Override
+        Cursor cursor() {
+            return new Cursor() {
+                private int run = 0;
+                private int offset = 0;
+                boolean hasNext() { return run < numRuns; }
+                char next() {
+                    char value = (char) (runs[2 * run] + offset);
+                    if (offset++ == runs[2 * run + 1]) {
+                        run++;
+                        offset = 0;
+                    }
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return this; // Immutable, so it can be shared
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < numRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int value = start; value <= end; value++) {
+                    bitmap.set((char) value);
+                }
+            }
+            return bitmap;
+        }
+
+        @Override
+        int numberOfRuns() {
+            return numRuns;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return bytesFor(numRuns);
+        }
+    }
+}
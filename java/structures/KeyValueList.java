@@ -11,7 +11,7 @@ public class KeyValueList<K, V> {
     protected KeyValuePair<K, V>[] table; // Array for storing key-value pairs
     protected int size; // Number of key-value pairs in the table
     protected int capacity; // Maximum capacity of the table
-    private static final KeyValuePair<?, ?> DELETED = new KeyValuePair<>(null, null); // Deleted instance for proper Hash Map functionality
+    static final KeyValuePair<?, ?> DELETED = new KeyValuePair<>(null, null); // Deleted instance for proper Hash Map functionality, shared with HashMap
 
     /**
      * Constructs a KeyValueList with the specified initial capacity.
@@ -42,8 +42,8 @@ public class KeyValueList<K, V> {
         // Search for an appropriate spot for the pair
         for (int i = 0; i < capacity; i++) {
             int probeIndex = (index + i * stepSize) % capacity; // Linear probe with step size
-            if (table[probeIndex] == DELETED && firstDeletedIndex == -1) {
-                firstDeletedIndex = probeIndex; // Mark first deleted spot
+            if (table[probeIndex] == DELETED) {
+                if (firstDeletedIndex == -1) firstDeletedIndex = probeIndex; // Mark first deleted spot
             } else if (table[probeIndex] == null) {
                 // If an empty spot is found, insert the pair
                 if (firstDeletedIndex != -1) table[firstDeletedIndex] = pair; // Place in deleted spot
@@ -134,6 +134,7 @@ public class KeyValueList<K, V> {
         for (int i = 0; i < capacity; i++) {
             int probeIndex = (index + i * stepSize) % capacity;
             if (table[probeIndex] == null) return false; // Key not found
+            if (table[probeIndex] == DELETED) continue; // Skip deleted entries
             if (table[probeIndex].getKey().equals(key)) {
                 table[probeIndex] = (KeyValuePair<K, V>) DELETED; // Mark as deleted
                 size--; // Decrease the size
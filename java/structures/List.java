@@ -12,6 +12,17 @@ public class List<T> {
         this.elements = new Object[DEFAULT_CAPACITY]; // Initialize the list with the given capacity
         this.size = 0; // Start with an empty list
     }
+
+    /**
+     * Constructor that initializes the list with room for the given number of
+     * elements, for when the final size is known in advance.
+     * 
+     * @param capacity The number of elements the list can hold before it resizes.
+     */
+    public List(int capacity) {
+        this.elements = new Object[Math.max(capacity, 1)];
+        this.size = 0;
+    }
     
     /**
      * Adds an element to the end of the list. If the list is full, it resizes the list.
@@ -120,6 +131,17 @@ public class List<T> {
         return size; // Return the current size of the list
     }
     
+    /**
+     * Returns a read-only view of the list backed by its internal array, so reading
+     * the elements does not copy them. The view covers the elements in the list when
+     * it is made, so it should be made again after the list changes.
+     * 
+     * @return A view of the elements currently in the list.
+     */
+    public ObjectView<T> view() {
+        return new ObjectView<>(elements, 0, size);
+    }
+
     /**
      * Ensures there is enough capacity to add more elements. If the list is full, the capacity is doubled.
      */
@@ -0,0 +1,212 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A substring index of names, for finding everyone whose name contains a search term
+ * without looking at every name. Names are case folded, and every run of three characters
+ * in a name (a trigram) has a posting list of the entries whose names contain it. A search
+ * intersects the posting lists of the term's trigrams, and then only checks the names
+ * that are left for the whole term.
+ *
+ * Terms shorter than three characters have no trigrams, so every name is checked, but
+ * against the folded names kept here rather than folding each name again.
+ *
+ * @param <V> The type of the values found by name, such as people
+ */
+public class NameIndex<V> {
+    private static final int VERIFY_BELOW = 64; // Candidates left after which the rest of the posting lists aren't worth intersecting
+
+    // The posting lists hold slots in the arrays below rather than IDs, so the
+    // candidates of a search can be checked without looking each one up
+    private final HashMap<Integer, IdSet> trigramSlots; // Posting list of slots for each trigram key
+    private final HashMap<Integer, Integer> slots;      // The slot of each ID
+    private int[] ids;        // Every ID, packed at the front of the array in no particular order
+    private String[] names;   // The folded name in each slot
+    private Object[] values;  // The value in each slot
+    private int size;
+
+    public NameIndex() {
+        this.trigramSlots = new HashMap<>();
+        this.slots = new HashMap<>();
+        this.ids = new int[16];
+        this.names = new String[16];
+        this.values = new Object[16];
+        this.size = 0;
+    }
+
+    /**
+     * Makes the key of the trigram starting at a position. The key is exact for characters
+     * below 1024, which covers nearly every name; above that two trigrams can share a key,
+     * which only means a few more names are checked
+     */
+    private static int trigram(String name, int start) {
+        return (name.charAt(start) << 20) ^ (name.charAt(start + 1) << 10) ^ name.charAt(start + 2);
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase();
+    }
+
+    /**
+     * Adds a name to the index. Nothing is added if the ID is already in the index, or
+     * the name is null
+     *
+     * @param id    The ID of the value
+     * @param name  The name to find the value by
+     * @param value The value
+     */
+    public void add(int id, String name, V value) {
+        if (name == null || slots.containsKey(id)) return;
+        int slot = append(id, fold(name), value);
+        addPostings(names[slot], slot);
+    }
+
+    /**
+     * Adds many names at once, building each posting list in one go rather than one slot
+     * at a time. IDs already in the index, and null names, are skipped as they would be by add
+     *
+     * @param newIDs    The IDs
+     * @param newNames  The name of each ID
+     * @param newValues The value of each ID
+     * @param count     How many IDs from the start of the arrays to add
+     */
+    public void addAll(int[] newIDs, String[] newNames, V[] newValues, int count) {
+        slots.ensureCapacity(size + count);
+        PostingsBuilder postings = new PostingsBuilder(count * 12);
+        for (int j = 0; j < count; j++) {
+            if (newNames[j] == null || slots.containsKey(newIDs[j])) continue;
+            int slot = append(newIDs[j], fold(newNames[j]), newValues[j]);
+            String folded = names[slot];
+            for (int i = 0; i + 3 <= folded.length(); i++) {
+                postings.add(trigram(folded, i), slot);
+            }
+        }
+        postings.addTo(trigramSlots);
+    }
+
+    private int append(int id, String folded, V value) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        ids[size] = id;
+        names[size] = folded;
+        values[size] = value;
+        slots.put(id, size);
+        return size++;
+    }
+
+    private void addPostings(String folded, int slot) {
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            int key = trigram(folded, i);
+            IdSet postings = trigramSlots.get(key);
+            if (postings == null) {
+                postings = new IdSet();
+                trigramSlots.put(key, postings);
+            }
+            postings.add(slot);
+        }
+    }
+
+    private void removePostings(String folded, int slot) {
+        for (int i = 0; i + 3 <= folded.length(); i++) {
+            int key = trigram(folded, i);
+            IdSet postings = trigramSlots.get(key);
+            if (postings != null) {
+                postings.remove(slot);
+                if (postings.isEmpty()) trigramSlots.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes a name from the index
+     *
+     * @param id The ID whose name should be removed
+     */
+    public void remove(int id) {
+        Integer slot = slots.get(id);
+        if (slot == null) return;
+        removePostings(names[slot], slot);
+        slots.remove(id);
+
+        // Move the last entry into the gap to keep the arrays packed
+        int last = --size;
+        if (slot != last) {
+            removePostings(names[last], last);
+            ids[slot] = ids[last];
+            names[slot] = names[last];
+            values[slot] = values[last];
+            addPostings(names[slot], slot);
+            slots.put(ids[slot], slot);
+        }
+        names[last] = null;
+        values[last] = null;
+    }
+
+    /**
+     * Finds every value whose name contains a term, ignoring case
+     *
+     * @param term     The term to look for
+     * @param newArray Makes an array of values of a given length, such as {@code Person[]::new}
+     * @return The values in ascending ID order, or an empty array if no names contain the term
+     */
+    @SuppressWarnings("unchecked")
+    public V[] find(String term, IntFunction<V[]> newArray) {
+        if (term == null) return newArray.apply(0);
+        String folded = fold(term);
+
+        int[] found;
+        int count = 0;
+        if (folded.length() < 3) {
+            found = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                if (names[slot].contains(folded)) found[count++] = slot;
+            }
+        } else {
+            // Every name containing the term has all of its trigrams, so start from the
+            // rarest trigram and narrow the candidates down with the others
+            int numTrigrams = folded.length() - 2;
+            IdSet[] lists = new IdSet[numTrigrams];
+            for (int i = 0; i < numTrigrams; i++) {
+                lists[i] = trigramSlots.get(trigram(folded, i));
+                if (lists[i] == null) return newArray.apply(0); // No name has this trigram
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+
+            IdSet candidates = lists[0];
+            for (int i = 1; i < numTrigrams && candidates.cardinality() >= VERIFY_BELOW; i++) {
+                candidates = IdSet.and(candidates, lists[i]);
+            }
+
+            // Having the trigrams doesn't mean they are in the right order, so check the names
+            found = candidates.toArray();
+            for (int i = 0; i < found.length; i++) {
+                if (names[found[i]].contains(folded)) found[count++] = found[i];
+            }
+        }
+
+        // Order by ID, with the slot alongside
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) ids[found[i]] << 32) | found[i];
+        }
+        Arrays.sort(order);
+
+        V[] result = newArray.apply(count);
+        for (int i = 0; i < count; i++) {
+            result[i] = (V) values[(int) order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of names in the index
+     */
+    public int size() {
+        return size;
+    }
+}
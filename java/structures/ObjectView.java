@@ -0,0 +1,64 @@
+package structures;
+
+/**
+ * A read-only window onto part of an object array owned by a store.
+ * No copy is made, so reading through a view never allocates. The view shares
+ * the store's array, so once the store is modified it may see the change or
+ * stale elements, and should be fetched again.
+ *
+ * @param <T> The type of the elements in the view.
+ */
+public class ObjectView<T> {
+    private final Object[] array;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Creates a view of {@code length} elements of an array, starting at {@code offset}.
+     *
+     * @param array  The backing array (not copied)
+     * @param offset The index in the array of the first element in the view
+     * @param length The number of elements in the view
+     */
+    public ObjectView(Object[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException("Offset: " + offset + ", Length: " + length + ", Array length: " + array.length);
+        }
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index The index of the element to retrieve.
+     * @return The element at the specified index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index >= length || index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+        }
+        return (T) array[offset + index];
+    }
+
+    /**
+     * Returns the number of elements in the view.
+     *
+     * @return The size of the view.
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Checks if the view is empty.
+     *
+     * @return {@code true} if the view has no elements, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+}
@@ -0,0 +1,61 @@
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * Collects (key, ID) pairs for many posting lists at once, and then builds each list in one go.
+ * Used by the stores when adding data in bulk, so each posting list is built with
+ * {@link IdSet#of(int[], int)} instead of growing one ID at a time.
+ */
+public class PostingsBuilder {
+    private long[] pairs; // The key in the high 32 bits, the ID in the low 32 bits
+    private int size;
+
+    /**
+     * @param expectedPairs Roughly how many pairs will be added
+     */
+    public PostingsBuilder(int expectedPairs) {
+        this.pairs = new long[Math.max(expectedPairs, 16)];
+        this.size = 0;
+    }
+
+    /**
+     * Records that an ID belongs in the posting list of a key
+     *
+     * @param key The genre, person, keyword... the list is for
+     * @param id  The film ID
+     */
+    public void add(int key, int id) {
+        if (size == pairs.length) pairs = Arrays.copyOf(pairs, size * 2);
+        pairs[size++] = ((long) key << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds every pair to a map of posting lists. Keys without a list get a new one built from
+     * all of their IDs at once; keys that already have a list have the IDs added to it.
+     *
+     * @param postings The posting lists, by key
+     */
+    public void addTo(HashMap<Integer, IdSet> postings) {
+        // Sorting brings each key's IDs together
+        Arrays.sort(pairs, 0, size);
+
+        int[] ids = new int[16];
+        int i = 0;
+        while (i < size) {
+            int key = (int) (pairs[i] >> 32);
+            int count = 0;
+            while (i < size && (int) (pairs[i] >> 32) == key) {
+                if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+                ids[count++] = (int) pairs[i++];
+            }
+
+            IdSet films = postings.get(key);
+            if (films == null) {
+                postings.put(key, IdSet.of(ids, count));
+            } else {
+                for (int j = 0; j < count; j++) films.add(ids[j]);
+            }
+        }
+    }
+}
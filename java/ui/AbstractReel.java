@@ -1,20 +1,33 @@
 package ui;
 
+import java.awt.Dimension;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
-import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
-import javax.swing.JSeparator;
 import javax.swing.SwingUtilities;
 import javax.swing.border.TitledBorder;
 import javax.swing.event.MouseInputAdapter;
 
+import interfaces.AbstractStores;
+import structures.IntView;
 import utils.Constants;
+import utils.ImageScaler;
+import utils.ImageService;
+import utils.LruCache;
+import utils.ScreenLoader;
+import utils.SharedImages;
 
 /***
  * Generic Class for a Reel (horizontal sequential view) of images with captions
@@ -29,6 +42,21 @@ abstract class AbstractReel extends JScrollPane implements Runnable {
     // private JScrollPane scrollPane;
     private JPanel resultsPanel;
 
+    private static final int ITEM_GAP = 6;           // Pixels between items
+    private static final int LABEL_TEXT_HEIGHT = 20; // Room for the label under each picture
+    private static final int OVERSCAN_ITEMS = 3;     // Items either side of the view that are shown too, so scrolling doesn't show gaps
+    private static final int ICON_CACHE_SIZE = 64;   // Scaled pictures kept for items that have scrolled out of view
+
+    private IntView items;
+    private IntFunction<String> labels;
+    private int itemWidth;
+    private int itemHeight;
+    private int generation = 0; // Changed on every displayItems, so late pictures for old items are ignored
+    private ImageIcon placeholderIcon;
+    private HashMap<Integer, ReelItem> shownItems = new HashMap<>(); // By item index
+    private ArrayList<ReelItem> freeItems = new ArrayList<>();
+    private LruCache<Integer, ImageIcon> icons = new LruCache<>(ICON_CACHE_SIZE); // By item index
+
     public AbstractReel(JPanel screenPanel){
         this(screenPanel, "Unknown Title", "Loading Reel");
     }
@@ -56,6 +84,7 @@ abstract class AbstractReel extends JScrollPane implements Runnable {
         setBackground(Constants.getHighlight());
         setForeground(Constants.getFontColor());
         getHorizontalScrollBar().setUnitIncrement(80);
+        getViewport().addChangeListener(e -> showVisibleItems()); // Scrolled or resized
 
         setVisible(false);
         loadingText = new JLabel(loadingMessage);
@@ -73,63 +102,259 @@ abstract class AbstractReel extends JScrollPane implements Runnable {
      * @param labels The labels for the items.
      */
     protected void displayItems(int[] items, String[] labels) {
+        displayItems(items == null ? null : new IntView(items, 0, items.length), labels);
+    }
+
+    /***
+     * Display the items in the reel, making each label only when its item is shown.
+     * @param items The items to display. Pictures retreived from getImageURL
+     * @param labels Gives the label of the item at an index
+     */
+    protected void displayItems(int[] items, IntFunction<String> labels) {
+        displayItems(items == null ? null : new IntView(items, 0, items.length), labels);
+    }
+
+    /***
+     * Display the items in the reel, reading the item IDs from a store view
+     * rather than a copied array.
+     * @param items The items to display. Pictures retreived from getImage function
+     * @param labels The labels for the items.
+     */
+    protected void displayItems(IntView items, String[] labels) {
+        displayItems(items, i -> labels[i]);
+    }
+
+    /***
+     * Display the items in the reel. Only the items in or near the visible part of the reel
+     * are given a component, which are reused as the reel is scrolled, so a reel of thousands
+     * of items is shown as quickly as a reel of ten. Labels are only made, and pictures only
+     * fetched, for the items that are shown.
+     * @param items The items to display. Pictures retreived from getImageURL
+     * @param labels Gives the label of the item at an index
+     */
+    protected void displayItems(IntView items, IntFunction<String> labels) {
         setVisible(false);
 
-        if (items == null || items.length == 0) {
+        if (items == null || items.size() == 0) {
             loadingText.setText("No reel items found!");
             System.out.println("\tNo reel items found");
             setVisible(true);
             return;
         } else {
-            loadingText.setText("Processing " + items.length + " reel items...");
-            System.out.println("\t" + items.length + " reel items found (max: " + Constants.topMoviesCount + ")");
+            loadingText.setText("Processing " + items.size() + " reel items...");
+            System.out.println("\t" + items.size() + " reel items found (max: " + Constants.topMoviesCount + ")");
         }
 
-        setVisible(false); 
-        int itemHeight = getHeight() - 60;
-        int itemWidth = (int) (itemHeight * 0.66);
+        this.items = items;
+        this.labels = labels;
+        itemHeight = Math.max(1, getHeight() - 60);
+        itemWidth = Math.max(1, (int) (itemHeight * 0.66));
+        generation++;
+        cancelFetches();
+        shownItems.clear();
+        freeItems.clear();
+        icons.clear();
 
         resultsPanel.removeAll();
-        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.X_AXIS));
-        resultsPanel.setSize(itemWidth*items.length, itemHeight);
+        resultsPanel.setLayout(null); // Items are placed by showVisibleItems
+        Dimension size = new Dimension(slotWidth() * items.size(), itemHeight + LABEL_TEXT_HEIGHT);
+        resultsPanel.setPreferredSize(size);
+        resultsPanel.setSize(size);
+
+        // Every item shows the placeholder until its own picture has been fetched
+        Image placeholder = getPlaceholderPath() == null ? null : SharedImages.scaled(getPlaceholderPath(), itemWidth, itemHeight);
+        placeholderIcon = placeholder == null ? null : new ImageIcon(placeholder);
+
+        showVisibleItems();
+        resultsPanel.revalidate();
+        setVisible(true);
+    }
 
-        for (int i = 0; i < items.length; i++){
-            JLabel textLabel = new JLabel(labels[i]);
-            int itemId = items[i];
+    /***
+     * Runs a query for the reel's items in the background, makes their labels there too,
+     * and displays them once they are ready, so a slow query never holds up the screen.
+     * Nothing is displayed if another screen has been shown in the meantime.
+     * @param stores The stores the items come from, which are locked for reading while the query runs
+     * @param query Gets the items from the stores. Run off the EDT
+     * @param labelOf Gives the label of an item from its ID. Also run off the EDT
+     */
+    protected void loadItems(AbstractStores stores, Supplier<int[]> query, IntFunction<String> labelOf) {
+        ScreenLoader.load(screenPanel, stores, () -> {
+            int[] found = query.get();
+            if (found == null) {
+                return null;
+            }
+            String[] foundLabels = new String[found.length];
+            for (int i = 0; i < found.length; i++) {
+                foundLabels[i] = labelOf.apply(found[i]);
+            }
+            return new LoadedItems(found, foundLabels);
+        }, loaded -> {
+            if (loaded == null) {
+                displayItems((IntView) null, (String[]) null);
+            } else {
+                displayItems(loaded.items, loaded.labels);
+            }
+        });
+    }
+
+    private static class LoadedItems {
+        final int[] items;
+        final String[] labels;
+
+        LoadedItems(int[] items, String[] labels) {
+            this.items = items;
+            this.labels = labels;
+        }
+    }
+
+    private int slotWidth() {
+        return itemWidth + ITEM_GAP;
+    }
+
+    /***
+     * Gives a component to each item in or near the visible part of the reel, taking them
+     * from items that have scrolled out of view
+     */
+    private void showVisibleItems() {
+        if (items == null) {
+            return;
+        }
+        Rectangle view = getViewport().getViewRect();
+        int first = Math.max(0, view.x / slotWidth() - OVERSCAN_ITEMS);
+        int last = Math.min(items.size() - 1, (view.x + Math.max(view.width, getWidth())) / slotWidth() + OVERSCAN_ITEMS);
+
+        // Free the components of items that are no longer near the view
+        Iterator<Map.Entry<Integer, ReelItem>> shown = shownItems.entrySet().iterator();
+        while (shown.hasNext()) {
+            Map.Entry<Integer, ReelItem> entry = shown.next();
+            if (entry.getKey() < first || entry.getKey() > last) {
+                ReelItem item = entry.getValue();
+                item.cancelFetch(); // Its picture isn't needed any more, so it shouldn't hold up the ones in view
+                item.index = -1;
+                item.setVisible(false);
+                freeItems.add(item);
+                shown.remove();
+            }
+        }
 
-            Image poster = getImage(itemId);
-            if (poster == null){
-                System.err.println("poster is null");
+        for (int index = first; index <= last; index++) {
+            if (shownItems.containsKey(index)) {
+                continue;
             }
-            textLabel.setIcon(new ImageIcon(poster.getScaledInstance(itemWidth, itemHeight, Image.SCALE_DEFAULT)));
-            textLabel.setHorizontalTextPosition(JLabel.CENTER);
-            textLabel.setVerticalTextPosition(JLabel.BOTTOM);
-            textLabel.setSize(itemWidth, itemHeight);
-            textLabel.setForeground(Constants.getFontColor());
-            textLabel.addMouseListener(new MouseInputAdapter() {
+            ReelItem item;
+            if (freeItems.isEmpty()) {
+                item = new ReelItem();
+                resultsPanel.add(item);
+            } else {
+                item = freeItems.remove(freeItems.size() - 1);
+            }
+            bind(item, index);
+            shownItems.put(index, item);
+        }
+        resultsPanel.repaint();
+    }
+
+    /***
+     * Shows an item in a component, fetching its picture if it isn't cached
+     */
+    private void bind(ReelItem item, int index) {
+        item.index = index;
+        item.itemId = items.get(index);
+        String label = labels.apply(index);
+        item.setText(label);
+        item.setToolTipText(label);
+        item.setBounds(index * slotWidth(), 0, itemWidth, itemHeight + LABEL_TEXT_HEIGHT);
+
+        ImageIcon icon = icons.get(index);
+        item.setIcon(icon != null ? icon : placeholderIcon);
+        item.setVisible(true);
+        if (icon == null) {
+            int itemGeneration = generation;
+            int width = itemWidth, height = itemHeight;
+            item.fetch = ImageService.load(getImageURL(item.itemId), poster -> {
+                if (itemGeneration != generation) {
+                    return; // The reel is showing something else now
+                }
+                ImageIcon scaled = new ImageIcon(ImageScaler.scale(poster, width, height));
+                icons.put(index, scaled);
+                if (item.index == index) {
+                    item.setIcon(scaled);
+                }
+            });
+        }
+    }
+
+    /***
+     * Cancels the picture fetches of every item shown, for when the items are replaced
+     */
+    private void cancelFetches() {
+        for (ReelItem item : shownItems.values()) {
+            item.cancelFetch();
+        }
+    }
+
+    /***
+     * Cancels the picture fetches once the reel is no longer on screen
+     */
+    @Override
+    public void removeNotify() {
+        cancelFetches();
+        super.removeNotify();
+    }
+
+    /***
+     * A reusable component for an item of the reel: its picture above its label
+     */
+    private class ReelItem extends JLabel {
+        int index = -1; // The index of the item shown, or -1 while unused
+        int itemId;
+        ImageService.Request fetch; // The fetch of the item's picture, or null if there isn't one
+
+        void cancelFetch() {
+            if (fetch != null) {
+                fetch.cancel();
+                fetch = null;
+            }
+        }
+
+        ReelItem() {
+            setHorizontalTextPosition(JLabel.CENTER);
+            setVerticalTextPosition(JLabel.BOTTOM);
+            setForeground(Constants.getFontColor());
+            addMouseListener(new MouseInputAdapter() {
                 @Override
                 public void mouseClicked(MouseEvent e) {
+                    if (index < 0) {
+                        return;
+                    }
+                    int clickedId = itemId;
                     SwingUtilities.invokeLater(new Runnable() {
                         @Override
                         public void run() {
-                            itemClickAction(itemId);
+                            itemClickAction(clickedId);
                         }
                     });
                 }
             });
-
-            resultsPanel.add(textLabel);
-            if (i < items.length-1) {
-                resultsPanel.add(new JSeparator(JSeparator.VERTICAL));
-            }
         }
-
-        setVisible(true);
     }
 
     protected void itemClickAction(int itemId){ }
 
-    protected Image getImage(int itemId){
+    /***
+     * The picture shown for every item until its own has been fetched, from SharedImages
+     */
+    protected String getPlaceholderPath(){
+        return null;
+    }
+
+    /***
+     * The URL of an item's picture, which is fetched in the background
+     * @param itemId The item
+     * @return The URL, or null if the item has no picture
+     */
+    protected String getImageURL(int itemId){
         return null;
     }
 
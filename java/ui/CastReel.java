@@ -2,15 +2,10 @@ package ui;
 
 import javax.swing.JPanel;
 
-import java.awt.Image;
-
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
-
 import stores.CastCredit;
 import stores.Credits;
+import utils.ImageService;
+import utils.SharedImages;
 
 public class CastReel extends AbstractReel {
 
@@ -23,35 +18,17 @@ public class CastReel extends AbstractReel {
     }
 
     @Override
-    protected Image getImage(int castId){
-        String castImageURL = cast.getProfilePath();
-        try{
-            Image unknown = ImageIO.read(new File("src/main/resources/img/Person-Unknown.png"));
-
-            if (castImageURL == null || castImageURL.equals("")){
-                System.err.println("Cast image URL was null or empty");
-                return unknown;
-            }
-
-            String completeURL = "https://image.tmdb.org/t/p/w500" + castImageURL;
-            Image im;
-            try{
-                im = ImageIO.read(new URL(completeURL));
-                if (im == null){ // File not found at URL
-                    im = unknown;
-                }
-            }
-            catch (IOException e){
-                im = unknown;
-            }
-
-            return im;
+    protected String getPlaceholderPath(){
+        return SharedImages.UNKNOWN_PERSON;
+    }
 
+    @Override
+    protected String getImageURL(int castId){
+        String castImageURL = cast.getProfilePath();
+        if (castImageURL == null || castImageURL.equals("")){
+            System.err.println("Cast image URL was null or empty");
         }
-        catch (IOException e){
-            return null;
-        }
-
+        return ImageService.url("w500", castImageURL);
     }
 
     @Override 
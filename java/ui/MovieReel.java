@@ -4,13 +4,9 @@ import javax.swing.JPanel;
 
 import screen.FilmScreen;
 
-import java.awt.Image;
-import javax.imageio.ImageIO;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
-
 import interfaces.AbstractStores;
+import utils.ImageService;
+import utils.SharedImages;
 
 public class MovieReel extends AbstractReel{
     protected AbstractStores stores;
@@ -34,34 +30,13 @@ public class MovieReel extends AbstractReel{
     // date: 5/2/2014
     // Date accessed ~ January 25th 2023
     @Override
-    protected Image getImage(int movieId){
-        try{
-            String posterEndURL = stores.getMovies().getPoster(movieId);
-            Image unknown = ImageIO.read(new File("src/main/resources/img/Movie-Unknown-poster.png"));
-            if (posterEndURL == null || posterEndURL.equals("")){
-                return unknown;
-            }
-
-            String completeURL = "https://image.tmdb.org/t/p/w342" + posterEndURL;
-            Image im;
-            try{
-                im = ImageIO.read(new URL(completeURL));
-                if (im == null){ // File not found at URL
-                    im = unknown;
-                }
-            }
-            catch (IOException e){
-                im = unknown;
-            }
-
-            return im;
-
-        }
-        catch (IOException e){
-            return null;
+    protected String getPlaceholderPath(){
+        return SharedImages.UNKNOWN_POSTER;
+    }
 
-        }
-        
+    @Override
+    protected String getImageURL(int movieId){
+        return ImageService.url("w342", stores.getMovies().getPoster(movieId));
     }
 
     @Override
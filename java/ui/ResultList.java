@@ -0,0 +1,196 @@
+package ui;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.event.MouseEvent;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.MouseInputAdapter;
+
+import utils.Constants;
+
+/***
+ * A scrollable list of search results that only draws the rows that can be seen. Rows are
+ * not components: a single renderer draws each visible row from its index, asking for the
+ * row's text only then, so a list of tens of thousands of results costs no more to show
+ * than a list of ten. Every row has the same height, so the list never has to measure them.
+ *
+ * Rows are either a title on its own, a bold title above a longer wrapped detail, or
+ * fixed width "chips" that fill each line before wrapping onto the next.
+ */
+public class ResultList extends JList<Integer> {
+    public static final int ROW_HEIGHT = 50;
+    public static final int DETAILED_ROW_HEIGHT = 110;
+    public static final int CHIP_HEIGHT = 35;
+
+    /***
+     * A list of single line rows
+     * @param size The number of rows
+     * @param titles Gives the text of the row at an index
+     * @param onClick Given the index of a row that is clicked, on the EDT. May be null
+     */
+    public ResultList(int size, IntFunction<String> titles, IntConsumer onClick) {
+        this(size, titles, null, onClick);
+    }
+
+    /***
+     * A list of rows with a title and a detail under it
+     * @param size The number of rows
+     * @param titles Gives the title of the row at an index
+     * @param details Gives the detail of the row at an index
+     * @param onClick Given the index of a row that is clicked, on the EDT. May be null
+     */
+    public ResultList(int size, IntFunction<String> titles, IntFunction<String> details, IntConsumer onClick) {
+        super(new IndexModel(size));
+        setCellRenderer(new Row(titles, details));
+        setFixedCellHeight(details == null ? ROW_HEIGHT : DETAILED_ROW_HEIGHT);
+        setFixedCellWidth(1); // Rows stretch to the width of the list
+        setup(onClick);
+    }
+
+    /***
+     * A list of fixed width chips, such as keywords, which fill each line and then wrap
+     * @param size The number of chips
+     * @param names Gives the text of the chip at an index
+     * @param chipWidth The width of every chip. Longer text is cut short, but is shown in full as a tooltip
+     * @param onClick Given the index of a chip that is clicked, on the EDT. May be null
+     * @return The list
+     */
+    public static ResultList chips(int size, IntFunction<String> names, int chipWidth, IntConsumer onClick) {
+        ResultList list = new ResultList(size, names, onClick);
+        list.setCellRenderer(new Chip(names));
+        list.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        list.setVisibleRowCount(-1); // As many chips on a line as fit
+        list.setFixedCellWidth(chipWidth);
+        list.setFixedCellHeight(CHIP_HEIGHT);
+        return list;
+    }
+
+    private void setup(IntConsumer onClick) {
+        setBackground(Constants.getHighlight());
+        setForeground(Constants.getFontColor());
+        setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        if (onClick == null) {
+            return;
+        }
+        addMouseListener(new MouseInputAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = locationToIndex(e.getPoint());
+                if (index < 0 || !getCellBounds(index, index).contains(e.getPoint())) {
+                    return;
+                }
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        onClick.accept(index);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int index = locationToIndex(e.getPoint());
+        if (index < 0 || !(getCellRenderer() instanceof Chip)) {
+            return null;
+        }
+        return ((Chip) getCellRenderer()).names.apply(index);
+    }
+
+    /***
+     * The rows are just their indexes; the text is looked up as they are drawn
+     */
+    private static class IndexModel extends AbstractListModel<Integer> {
+        private final int size;
+
+        IndexModel(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+    }
+
+    /***
+     * Draws a row: its title, and its detail if it has one
+     */
+    private static class Row extends JPanel implements ListCellRenderer<Integer> {
+        private final IntFunction<String> titles;
+        private final IntFunction<String> details;
+        private final JLabel title = new JLabel();
+        private final JTextArea detail = new JTextArea();
+
+        Row(IntFunction<String> titles, IntFunction<String> details) {
+            this.titles = titles;
+            this.details = details;
+            setLayout(new BorderLayout());
+            setBackground(Constants.getBackground());
+            setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, Constants.getHighlight())); // Separates the rows
+
+            title.setForeground(Constants.getFontColor());
+            title.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+            add(title, BorderLayout.NORTH);
+
+            if (details != null) {
+                title.setFont(title.getFont().deriveFont(Font.BOLD));
+                detail.setForeground(Constants.getFontColor());
+                detail.setBackground(Constants.getHighlight());
+                detail.setLineWrap(true);
+                detail.setWrapStyleWord(true);
+                detail.setEditable(false);
+                add(detail, BorderLayout.CENTER);
+            }
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer index, int position, boolean isSelected, boolean cellHasFocus) {
+            title.setText(titles.apply(index));
+            if (details != null) {
+                detail.setText(details.apply(index));
+            }
+            return this;
+        }
+    }
+
+    /***
+     * Draws a chip: its text centred on a block of colour, with a gap around it
+     */
+    private static class Chip extends JLabel implements ListCellRenderer<Integer> {
+        private final IntFunction<String> names;
+
+        Chip(IntFunction<String> names) {
+            this.names = names;
+            setOpaque(true);
+            setHorizontalAlignment(JLabel.CENTER);
+            setBackground(Constants.getBackground());
+            setForeground(Constants.getFontColor());
+            setBorder(BorderFactory.createMatteBorder(5, 5, 0, 0, Constants.getHighlight()));
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer index, int position, boolean isSelected, boolean cellHasFocus) {
+            setText(names.apply(index));
+            return this;
+        }
+    }
+}
@@ -54,5 +54,27 @@ public final class Constants {
     public static final String defaultKeywordsPath      = "data/keywords.csv";
     public static final String defaultMovieMetadataPath = "data/movies_metadata.csv";
     public static final String defaultRatingsPath       = "data/ratings.csv";
+    public static final String defaultSnapshotPath      = "data/warwickplus.snapshot"; // Written after the first full load, see StoreSnapshot
+
+    // Leave film taglines, homepages and cast characters in the data files until they are
+    // shown, rather than holding them all in memory. See LazyText
+    public static final boolean lazyTextFields = true;
+
+    // Where posters and profile pictures are downloaded from. The property lets a local
+    // server stand in for TMDB, e.g. -Dwarwickplus.imageBaseURL=http://localhost:8000/
+    public static final String imageBaseURL = System.getProperty("warwickplus.imageBaseURL", "https://image.tmdb.org/t/p/");
+    public static final int imageLoaderThreads = 6;
+    public static final long imageMemoryCacheBytes = 64L << 20;   // Decoded images kept in memory, see ImageService
+    public static final long sharedImageCacheBytes = 16L << 20;   // Scaled placeholders and logos kept in memory, see SharedImages
+    public static final String imageCacheDirectory = "data/image-cache"; // Downloaded images kept between launches
+    public static final long imageDiskCacheBytes = 256L << 20;
+
+    // Background threads that run the store queries behind each screen, see ScreenLoader.
+    // Enough for every query on the busiest screen to run at once
+    public static final int screenLoaderThreads = 4;
+
+    // Searching as the user types in the search box
+    public static final int searchDelay = 250;   // ms after the last key press before searching
+    public static final int searchMinLength = 2; // Shorter terms match nearly everything, so wait for more
 
 }
@@ -0,0 +1,463 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits a memory-mapped CSV file into records and fields without copying it.
+ *
+ * Each call to {@link #nextRecord()} finds where the fields of the next record start
+ * and end in the mapped bytes. Numbers are parsed straight from those bytes, and a
+ * String is only created when {@link #getString(int)} is called, so fields that are
+ * never stored are never copied. Quoted fields may contain commas, newlines and
+ * {@code ""} escaped quotes, which is how the JSON columns of the data files are stored.
+ */
+public class CsvTokenizer {
+    private final MappedByteBuffer buffer;
+    private final long baseOffset; // Offset of the buffer in the file
+    private final int limit;
+    private int pos = 0;
+
+    private String[] header = new String[0];
+    private int numFields = 0;
+    private int[] starts = new int[32];  // First byte of each field, after any opening quote
+    private int[] ends = new int[32];    // Byte after the end of each field, before any closing quote
+    private boolean[] escaped = new boolean[32]; // Whether each field contains "" escapes
+    private int recordStart = 0;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Maps a whole file for tokenizing
+     *
+     * @param file The CSV file
+     * @return A tokenizer positioned at the start of the file
+     * @throws IOException If the file cannot be opened, or is too large to map in one go
+     */
+    public static CsvTokenizer open(File file) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File '" + file.getPath() + "' is too large to map in one go, it should be split into ranges");
+            }
+            return new CsvTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), 0);
+        }
+    }
+
+    /**
+     * Creates a tokenizer over part of a file that has already been mapped. The range
+     * must start at the beginning of a record and end at the end of one
+     *
+     * @param buffer     The mapped bytes
+     * @param baseOffset The offset of the buffer in the file
+     */
+    public CsvTokenizer(MappedByteBuffer buffer, long baseOffset) {
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+        this.limit = buffer.limit();
+
+        // Skip a UTF-8 byte order mark
+        if (baseOffset == 0 && limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            pos = 3;
+        }
+    }
+
+    /**
+     * Reads the next record as the header, so columns can be found by name
+     *
+     * @return The column names
+     */
+    public String[] readHeader() {
+        if (!nextRecord()) {
+            header = new String[0];
+        } else {
+            header = new String[numFields];
+            for (int i = 0; i < numFields; i++) {
+                header[i] = getString(i);
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Finds which column has a name in the header
+     *
+     * @param name The column name
+     * @return The index of the column
+     * @throws IllegalArgumentException If the header has no column with that name
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Mapping for " + name + " not found, expected one of " + String.join(",", header));
+    }
+
+    /**
+     * Moves on to the next record, skipping blank lines
+     *
+     * @return {@code true} if there was another record, {@code false} at the end of the input
+     */
+    public boolean nextRecord() {
+        while (pos < limit && (buffer.get(pos) == '\n' || buffer.get(pos) == '\r')) {
+            pos++;
+        }
+        numFields = 0;
+        if (pos >= limit) {
+            return false;
+        }
+        recordStart = pos;
+
+        while (true) {
+            if (numFields == starts.length) {
+                grow();
+            }
+            boolean hasEscapes = false;
+            int start, end;
+            if (buffer.get(pos) == '"') {
+                // Quoted field: runs to the next quote that isn't doubled
+                start = ++pos;
+                while (true) {
+                    if (pos >= limit) {
+                        end = limit;
+                        break;
+                    }
+                    if (buffer.get(pos) == '"') {
+                        if (pos + 1 < limit && buffer.get(pos + 1) == '"') {
+                            hasEscapes = true;
+                            pos += 2;
+                            continue;
+                        }
+                        end = pos++;
+                        break;
+                    }
+                    pos++;
+                }
+                // Anything between the closing quote and the delimiter is ignored
+                while (pos < limit && !isDelimiter(buffer.get(pos))) {
+                    pos++;
+                }
+            } else {
+                start = pos;
+                while (pos < limit && !isDelimiter(buffer.get(pos))) {
+                    pos++;
+                }
+                end = pos;
+            }
+            starts[numFields] = start;
+            ends[numFields] = end;
+            escaped[numFields] = hasEscapes;
+            numFields++;
+
+            if (pos < limit && buffer.get(pos) == ',') {
+                pos++;
+                if (pos >= limit) { // Trailing comma at the end of the input
+                    addEmptyField();
+                    return true;
+                }
+                continue;
+            }
+            // End of the record
+            if (pos < limit && buffer.get(pos) == '\r') pos++;
+            if (pos < limit && buffer.get(pos) == '\n') pos++;
+            return true;
+        }
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    private void addEmptyField() {
+        if (numFields == starts.length) {
+            grow();
+        }
+        starts[numFields] = limit;
+        ends[numFields] = limit;
+        escaped[numFields] = false;
+        numFields++;
+    }
+
+    private void grow() {
+        int capacity = starts.length * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        escaped = Arrays.copyOf(escaped, capacity);
+    }
+
+    /**
+     * Gets the number of fields in the current record
+     *
+     * @return The number of fields
+     */
+    public int size() {
+        return numFields;
+    }
+
+    /**
+     * Gets the offset in the file of the start of the current record
+     *
+     * @return The byte offset
+     */
+    public long offset() {
+        return baseOffset + recordStart;
+    }
+
+    /**
+     * Gets the mapped bytes, for reading a field's byte range directly
+     *
+     * @return The buffer the field ranges index into
+     */
+    public MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the position in {@link #buffer()} of the first byte of a field
+     */
+    public int start(int field) {
+        checkField(field);
+        return starts[field];
+    }
+
+    /**
+     * Gets the position in {@link #buffer()} just after the last byte of a field
+     */
+    public int end(int field) {
+        checkField(field);
+        return ends[field];
+    }
+
+    /**
+     * Gets the offset in the file of the first byte of a field, after any opening quote
+     */
+    public long fileOffset(int field) {
+        checkField(field);
+        return baseOffset + starts[field];
+    }
+
+    /**
+     * Checks whether a field contains {@code ""} escaped quotes, in which case its raw
+     * bytes differ from its value
+     */
+    public boolean hasEscapes(int field) {
+        checkField(field);
+        return escaped[field];
+    }
+
+    /**
+     * Checks whether a field is empty
+     */
+    public boolean isEmpty(int field) {
+        checkField(field);
+        return starts[field] == ends[field];
+    }
+
+    /**
+     * Gets a field as a String. This is the only accessor that allocates
+     *
+     * @param field The column of the field
+     * @return The field's value, with escaped quotes undone
+     */
+    public String getString(int field) {
+        checkField(field);
+        int length = copyField(field);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies a field's value into the scratch array, undoing escaped quotes
+     *
+     * @return The number of bytes copied
+     */
+    private int copyField(int field) {
+        if (scratch.length < ends[field] - starts[field]) {
+            scratch = new byte[Math.max(ends[field] - starts[field], scratch.length * 2)];
+        }
+        return getBytes(field, scratch);
+    }
+
+    /**
+     * Gets the most bytes a field's value can take up, so a large enough array can be
+     * passed to {@link #getBytes(int, byte[])}
+     */
+    public int rawLength(int field) {
+        checkField(field);
+        return ends[field] - starts[field];
+    }
+
+    /**
+     * Copies a field's value into an array without creating a String, undoing escaped quotes
+     *
+     * @param field The column of the field
+     * @param dest  The array to copy into, which must hold at least {@link #rawLength(int)} bytes
+     * @return The number of bytes copied
+     */
+    public int getBytes(int field, byte[] dest) {
+        checkField(field);
+        int start = starts[field];
+        int end = ends[field];
+        if (!escaped[field]) {
+            buffer.get(start, dest, 0, end - start);
+            return end - start;
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            dest[length++] = b;
+            if (b == '"') {
+                i++; // Skip the second quote of the pair
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Parses a field as an int
+     *
+     * @throws NumberFormatException If the field is not a whole number
+     */
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberError(field);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a field as a long
+     *
+     * @throws NumberFormatException If the field is not a whole number
+     */
+    public long getLong(int field) {
+        checkField(field);
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            throw numberError(field); // Empty, or too long to be sure it fits
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw numberError(field);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a field as a double. Values with up to 15 significant digits and a small exponent
+     * are worked out directly, as they are exact in a double; anything else falls back to
+     * {@link Double#parseDouble(String)}
+     *
+     * @throws NumberFormatException If the field is not a number
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;      // Significant digits in the mantissa
+        int exponent = 0;    // Power of ten the mantissa is multiplied by
+        boolean anyDigits = false;
+        boolean exact = true;
+        for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+            anyDigits = true;
+            if (digits < 15) {
+                mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exact = false;
+            }
+        }
+        if (i < end && buffer.get(i) == '.') {
+            i++;
+            for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                anyDigits = true;
+                if (digits < 15) {
+                    mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                    exponent--;
+                    if (mantissa != 0) digits++;
+                } else if (buffer.get(i) != '0') {
+                    exact = false;
+                }
+            }
+        }
+        if (!anyDigits) {
+            throw numberError(field);
+        }
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            exact = false; // Rare in the data files, so leave it to the JDK
+        }
+        if (i < end && exact) {
+            throw numberError(field);
+        }
+
+        if (!exact || exponent < -22) {
+            try {
+                return Double.parseDouble(getString(field));
+            } catch (NumberFormatException e) {
+                throw numberError(field);
+            }
+        }
+        double value = exponent == 0 ? mantissa : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Parses a field as a float
+     *
+     * @throws NumberFormatException If the field is not a number
+     */
+    public float getFloat(int field) {
+        return (float) getDouble(field);
+    }
+
+    /**
+     * Parses a field as a boolean, in the same way as {@link Boolean#parseBoolean(String)}
+     */
+    public boolean getBoolean(int field) {
+        checkField(field);
+        int start = starts[field];
+        if (ends[field] - start != 4) {
+            return false;
+        }
+        return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'r'
+            && (buffer.get(start + 2) | 0x20) == 'u' && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    private NumberFormatException numberError(int field) {
+        return new NumberFormatException("For input string: \"" + getString(field) + "\" at byte " + offset());
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= numFields) {
+            throw new IndexOutOfBoundsException("Field: " + field + ", Number of fields: " + numFields);
+        }
+    }
+}
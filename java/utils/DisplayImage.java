@@ -10,97 +10,94 @@ import javax.swing.*;
 
 public class DisplayImage extends JPanel{
     private BufferedImage rawImage;
-    private Image image;
+    private BufferedImage scaledImage; // rawImage scaled for the current size, only remade when the size changes
+    private int scaledWidth = -1;
+    private int scaledHeight = -1;
+    private String sharedPath; // The SharedImages file being shown, whose scaled sizes are shared, or null
     private int boundary = 0;
     public enum ImageType {Movie, Person};
     private boolean isUnknown = false;
 
     public DisplayImage(String urlEnding, ImageType type){
-        BufferedImage unknown;
-        try{
-            switch (type){
-                case Movie:
-                    unknown = ImageIO.read(new File("src/main/resources/img/Movie-Unknown-poster.png"));
-                    break;
-                case Person:
-                    unknown = ImageIO.read(new File("src/main/resources/img/Person-Unknown.png"));
-                    break;
-                default:
-                    unknown = null;
-            }
-
-            if (urlEnding == null || urlEnding.equals("")){
-                System.err.println("Unable to load image, ending for image url was null or empty");
-                rawImage = unknown;
-            }
-
-            //Try and get the image from the url
-            String completeURL = "https://image.tmdb.org/t/p/w500" + urlEnding;
-            BufferedImage im;
-            try {
-                im = ImageIO.read(new URL(completeURL));
-                if (im == null){
-                    im = unknown;
-                }
-            }
-            catch (IOException e){
-                im = unknown;
-            }
-
-            rawImage = im;
+        this(urlEnding, type, "w500");
+    }
 
-            if (rawImage == unknown){
-                boundary = 10;
-                isUnknown = true;
-                this.setBorder(BorderFactory.createLineBorder(Color.WHITE)); 
-            }
-            else {
-                boundary = 0;
-            }
-        }
-        catch (IOException e){
-            //Unable to find the unknown file
+    /**
+     * Shows the 'unknown' image for the type straight away, and swaps in the image from the
+     * URL once ImageService has fetched it
+     * @param urlEnding The poster or profile path
+     * @param type Which 'unknown' image to show until then
+     * @param size The TMDB size of the image to fetch
+     */
+    public DisplayImage(String urlEnding, ImageType type, String size){
+        sharedPath = type == ImageType.Person ? SharedImages.UNKNOWN_PERSON : SharedImages.UNKNOWN_POSTER;
+        rawImage = SharedImages.get(sharedPath);
+        if (rawImage == null){
             System.err.println("Unable to find the appropriate 'unknown' image for " + type);
-            System.err.println(e.getMessage());
-            System.err.println(e.getStackTrace());
         }
+        boundary = 10;
+        isUnknown = true;
+        this.setBorder(BorderFactory.createLineBorder(Color.WHITE));
+
+        if (urlEnding == null || urlEnding.equals("")){
+            System.err.println("Unable to load image, ending for image url was null or empty");
+            return;
+        }
+        ImageService.load(ImageService.url(size, urlEnding), this::setImage);
     }
 
     public DisplayImage(String fileName) throws IOException {
-        rawImage = ImageIO.read(new File(fileName));
+        this(fileName, 0, false);
     }
 
     public DisplayImage(String fileName, int boundary, boolean URL) throws IOException {
         if (URL) {
             rawImage = ImageIO.read(new URL(fileName));
         } else {
-            rawImage = ImageIO.read(new File(fileName));
+            // Files that come with the program are decoded once and shared
+            rawImage = SharedImages.get(fileName);
+            if (rawImage == null) {
+                throw new IOException("Can't read input file " + fileName);
+            }
+            sharedPath = fileName;
         }
         this.boundary = boundary;
     }
 
     public boolean isUnknown(){ return isUnknown; }
 
+    /**
+     * Replaces the 'unknown' image with the real one. Called on the EDT
+     * @param loaded The real image
+     */
+    private void setImage(BufferedImage loaded){
+        rawImage = loaded;
+        sharedPath = null;
+        scaledImage = null;
+        boundary = 0;
+        isUnknown = false;
+        setBorder(null);
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
-        if (this.getWidth() > this.getHeight()) {
-            image = rawImage.getScaledInstance(-1, this.getHeight(), Image.SCALE_SMOOTH);
-        } else {
-            image = rawImage.getScaledInstance(this.getWidth(), -1, Image.SCALE_SMOOTH);
+        if (rawImage == null) {
+            return;
         }
-
-        if (image.getWidth(this.getParent()) > this.getWidth()) {
-            image = rawImage.getScaledInstance(this.getWidth(), -1, Image.SCALE_SMOOTH);
-        }
-
-        if (image.getHeight(this.getParent()) > this.getHeight()) {
-            image = rawImage.getScaledInstance(-1, this.getHeight(), Image.SCALE_SMOOTH);
+        if (scaledImage == null || scaledWidth != getWidth() || scaledHeight != getHeight()) {
+            if (getWidth() <= boundary || getHeight() <= boundary) {
+                return;
+            }
+            // Fit the image inside the panel, leaving room for the border if there is one
+            scaledImage = sharedPath != null ? SharedImages.fitted(sharedPath, getWidth(), getHeight(), boundary)
+                                             : ImageScaler.fit(rawImage, getWidth(), getHeight(), boundary);
+            scaledWidth = getWidth();
+            scaledHeight = getHeight();
         }
 
-        image = rawImage.getScaledInstance(image.getWidth(this.getParent())-boundary, image.getHeight(this.getParent())-boundary, Image.SCALE_SMOOTH);
-
-        int xPos = (this.getWidth() / 2) - (image.getWidth(this.getParent()) / 2);
-        int yPos = (this.getHeight() / 2) - (image.getHeight(this.getParent()) / 2);
-        g.drawImage(image, xPos, yPos, this);
+        int xPos = (this.getWidth() / 2) - (scaledImage.getWidth() / 2);
+        int yPos = (this.getHeight() / 2) - (scaledImage.getHeight() / 2);
+        g.drawImage(scaledImage, xPos, yPos, this);
     }
 }
@@ -0,0 +1,371 @@
+package utils;
+
+import java.time.LocalDate;
+
+import interfaces.AbstractStores;
+import structures.IdSet;
+import structures.List;
+
+/**
+ * A conjunctive (AND) query over films, combining filters across the Movies,
+ * Keywords, Credits and Ratings stores. For example, "released 1990-2000, genre
+ * Thriller, keyword 'heist', average rating at least 4, starring person X".
+ *
+ * The query is planned by selectivity: every filter backed by a posting list is
+ * looked up, the smallest list drives the query, and each candidate is then checked
+ * against the remaining lists and the cheaper per-film filters, so that no
+ * intermediate intersections need to be built.
+ */
+public class FilmQuery {
+    /**
+     * The orders in which results can be returned. Ties are always broken by film ID.
+     */
+    public enum SortOrder {
+        ID,
+        RELEASE,
+        POPULARITY,
+        AVERAGE_RATING
+    }
+
+    private final AbstractStores stores;
+
+    private List<Integer> genreIDs = new List<>();
+    private List<Integer> keywordIDs = new List<>();
+    private List<Integer> castIDs = new List<>();
+    private List<Integer> crewIDs = new List<>();
+    private LocalDate releasedAfter = null;
+    private LocalDate releasedBefore = null;
+    private float minAverageRating = -1.0f; // Negative means no rating filter
+
+    private SortOrder sortOrder = SortOrder.ID;
+    private boolean descending = false;
+
+    private int[] results = null; // Cached matches once the query has been run
+
+    /**
+     * Creates an empty query, which matches every film
+     *
+     * @param stores The stores to run the query against
+     */
+    public FilmQuery(AbstractStores stores) {
+        this.stores = stores;
+    }
+
+    /**
+     * Only matches films released strictly between two dates
+     *
+     * @param start The start of the range (exclusive)
+     * @param end   The end of the range (exclusive)
+     * @return This query, so filters can be chained
+     * @throws IllegalArgumentException If either date is null
+     */
+    public FilmQuery releasedBetween(LocalDate start, LocalDate end) {
+        if (start == null || end == null) throw new IllegalArgumentException("Release range: " + start + " to " + end);
+        this.releasedAfter = start;
+        this.releasedBefore = end;
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Only matches films with the given genre. Can be called more than once to require several genres
+     *
+     * @param genreID The genre ID
+     * @return This query, so filters can be chained
+     */
+    public FilmQuery withGenre(int genreID) {
+        genreIDs.add(genreID);
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Only matches films with the given keyword. Can be called more than once to require several keywords
+     *
+     * @param keywordID The keyword ID
+     * @return This query, so filters can be chained
+     */
+    public FilmQuery withKeyword(int keywordID) {
+        keywordIDs.add(keywordID);
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Only matches films that the given person starred in
+     *
+     * @param castID The cast ID
+     * @return This query, so filters can be chained
+     */
+    public FilmQuery withCast(int castID) {
+        castIDs.add(castID);
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Only matches films that the given person worked on as crew
+     *
+     * @param crewID The crew ID
+     * @return This query, so filters can be chained
+     */
+    public FilmQuery withCrew(int crewID) {
+        crewIDs.add(crewID);
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Only matches films whose average user rating is at least the given value
+     *
+     * @param rating The minimum average rating (between 0 and 5)
+     * @return This query, so filters can be chained
+     */
+    public FilmQuery withMinAverageRating(float rating) {
+        this.minAverageRating = rating;
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Sets the order that results are returned in
+     *
+     * @param order      The field to sort by
+     * @param descending {@code true} for highest first, {@code false} for lowest first
+     * @return This query, so options can be chained
+     */
+    public FilmQuery sortBy(SortOrder order, boolean descending) {
+        this.sortOrder = order;
+        this.descending = descending;
+        this.results = null;
+        return this;
+    }
+
+    /**
+     * Gets one page of matching film IDs, in the requested sort order
+     *
+     * @param pageNumber The page to return, starting at 0
+     * @param pageSize   The number of film IDs on each page
+     * @return The film IDs on that page. Empty if the page is past the end of the results
+     * @throws IllegalArgumentException If the page number is negative or the page size isn't positive
+     */
+    public int[] getPage(int pageNumber, int pageSize) {
+        if (pageNumber < 0) throw new IllegalArgumentException("Page number: " + pageNumber);
+        if (pageSize < 1) throw new IllegalArgumentException("Page size: " + pageSize);
+
+        // A page past the largest possible array is empty, rather than overflowing
+        long from = (long) pageNumber * pageSize;
+        if (from >= Integer.MAX_VALUE) return new int[0];
+        int end = (int) Math.min(from + pageSize, Integer.MAX_VALUE);
+
+        // Ascending ID order is the order the posting lists are iterated in, so only
+        // the films up to the end of the page need to be found
+        int[] matches = (results == null && sortOrder == SortOrder.ID && !descending)
+                ? run(end)
+                : getResults();
+
+        if (from >= matches.length) return new int[0];
+        int to = Math.min(matches.length, end);
+
+        int[] page = new int[to - (int) from];
+        System.arraycopy(matches, (int) from, page, 0, page.length);
+        return page;
+    }
+
+    /**
+     * Gets every matching film ID, for lists that show all of the results at once
+     *
+     * @return The matching film IDs, in the requested sort order
+     */
+    public int[] getAll() {
+        int[] matches = getResults();
+        int[] all = new int[matches.length];
+        System.arraycopy(matches, 0, all, 0, matches.length);
+        return all;
+    }
+
+    /**
+     * Gets the total number of films that match the query
+     *
+     * @return The number of matching films
+     */
+    public int count() {
+        return getResults().length;
+    }
+
+    /**
+     * Runs the query in full (if it has not been run already) and sorts the results
+     *
+     * @return Every matching film ID in the requested order
+     */
+    private int[] getResults() {
+        if (results == null) {
+            int[] matches = run(Integer.MAX_VALUE);
+            sort(matches);
+            results = matches;
+        }
+        return results;
+    }
+
+    /**
+     * Finds matching films in ascending ID order, stopping once enough have been found
+     *
+     * @param limit The maximum number of films to find
+     * @return The matching film IDs, in ascending order
+     */
+    private int[] run(int limit) {
+        // Step 1: Look up the posting list for every indexed filter
+        List<IdSet> postings = new List<>();
+        for (int i = 0; i < genreIDs.size(); i++) postings.add(stores.getMovies().getGenrePostings(genreIDs.get(i)));
+        for (int i = 0; i < keywordIDs.size(); i++) postings.add(stores.getKeywords().getKeywordPostings(keywordIDs.get(i)));
+        for (int i = 0; i < castIDs.size(); i++) postings.add(stores.getCredits().getCastPostings(castIDs.get(i)));
+        for (int i = 0; i < crewIDs.size(); i++) postings.add(stores.getCredits().getCrewPostings(crewIDs.get(i)));
+
+        // Step 2: Without any posting lists, the release range (or every film) drives the query
+        boolean checkRelease = releasedAfter != null;
+        if (postings.isEmpty()) {
+            if (checkRelease) {
+                postings.add(stores.getMovies().getReleasedInRangePostings(releasedAfter, releasedBefore));
+                checkRelease = false;
+            } else {
+                postings.add(IdSet.of(stores.getMovies().getAllIDs()));
+            }
+        }
+
+        // Step 3: Order the posting lists by size, so the most selective one is iterated
+        // and the rest are only probed. Any empty list means nothing can match
+        int[] sizes = new int[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            sizes[i] = postings.get(i).cardinality();
+            if (sizes[i] == 0) return new int[0];
+        }
+        for (int i = 1; i < postings.size(); i++) {
+            IdSet set = postings.get(i);
+            int size = sizes[i];
+            int j = i - 1;
+            while (j >= 0 && sizes[j] > size) {
+                postings.set(j + 1, postings.get(j));
+                sizes[j + 1] = sizes[j];
+                j--;
+            }
+            postings.set(j + 1, set);
+            sizes[j + 1] = size;
+        }
+
+        // Step 4: Walk the smallest list, checking the cheapest filters first
+        int[] matches = new int[Math.min(sizes[0], limit)];
+        int count = 0;
+        IdSet.IdIterator candidates = postings.get(0).iterator();
+        while (count < matches.length && candidates.hasNext()) {
+            int filmID = candidates.next();
+            if (matchesPostings(filmID, postings)
+                    && (!checkRelease || matchesRelease(filmID))
+                    && (minAverageRating < 0 || matchesRating(filmID))) {
+                matches[count++] = filmID;
+            }
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(matches, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Checks a film against every posting list apart from the driving one
+     */
+    private boolean matchesPostings(int filmID, List<IdSet> postings) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(filmID)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks a film was released strictly inside the release range
+     */
+    private boolean matchesRelease(int filmID) {
+        LocalDate release = stores.getMovies().getRelease(filmID);
+        return release != null && release.isAfter(releasedAfter) && release.isBefore(releasedBefore);
+    }
+
+    /**
+     * Checks a film has a high enough average rating. Every candidate is a stored film, so a
+     * film without ratings is an average of 0 found by a keyed lookup, not a scan of the films
+     */
+    private boolean matchesRating(int filmID) {
+        return stores.getRatings().getMovieAverageRating(filmID) >= minAverageRating;
+    }
+
+    /**
+     * Sorts the matching films (already in ascending ID order) by the requested field
+     *
+     * @param matches The film IDs to sort in place
+     */
+    private void sort(int[] matches) {
+        if (sortOrder == SortOrder.ID) {
+            if (descending) reverse(matches);
+            return;
+        }
+
+        // Look up each sort key once rather than on every comparison. Average ratings are
+        // keyed lookups, including for films without ratings, so this is linear overall
+        double[] keys = new double[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            int filmID = matches[i];
+            switch (sortOrder) {
+                case RELEASE:
+                    LocalDate release = stores.getMovies().getRelease(filmID);
+                    if (release == null) {
+                        keys[i] = Double.POSITIVE_INFINITY; // Undated films go last whichever way round
+                        continue;
+                    }
+                    keys[i] = release.toEpochDay();
+                    break;
+                case POPULARITY:
+                    keys[i] = stores.getMovies().getPopularity(filmID);
+                    break;
+                default:
+                    keys[i] = stores.getRatings().getMovieAverageRating(filmID);
+                    break;
+            }
+            if (descending) keys[i] = -keys[i];
+        }
+
+        // Merge sort is stable, so equal keys stay in ID order
+        mergeSort(matches, keys, new int[matches.length], new double[matches.length], 0, matches.length);
+    }
+
+    /**
+     * Stable merge sort of film IDs by their keys, between from (inclusive) and to (exclusive)
+     */
+    private static void mergeSort(int[] ids, double[] keys, int[] idBuffer, double[] keyBuffer, int from, int to) {
+        if (to - from < 2) return;
+        int middle = (from + to) >>> 1;
+        mergeSort(ids, keys, idBuffer, keyBuffer, from, middle);
+        mergeSort(ids, keys, idBuffer, keyBuffer, middle, to);
+
+        int left = from, right = middle, out = from;
+        while (left < middle || right < to) {
+            if (right >= to || (left < middle && keys[left] <= keys[right])) {
+                idBuffer[out] = ids[left];
+                keyBuffer[out++] = keys[left++];
+            } else {
+                idBuffer[out] = ids[right];
+                keyBuffer[out++] = keys[right++];
+            }
+        }
+        System.arraycopy(idBuffer, from, ids, from, to - from);
+        System.arraycopy(keyBuffer, from, keys, from, to - from);
+    }
+
+    /**
+     * Reverses an array in place
+     */
+    private static void reverse(int[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps downloaded images in a directory, so they aren't downloaded again on later launches.
+ * The files are the bytes exactly as they were downloaded. Once the directory holds more than
+ * its limit, the files used least recently (by modification time, which is updated whenever a
+ * file is read) are deleted until it is back under 90% of the limit.
+ */
+public class ImageDiskCache {
+    private final File directory;
+    private final long maxBytes;
+    private long totalBytes = -1; // Found the first time it is needed
+
+    /**
+     * @param directory Where the images are kept. Created if it doesn't exist
+     * @param maxBytes  The most bytes of images kept
+     */
+    public ImageDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reads a cached image
+     *
+     * @param url The image's URL
+     * @return Its bytes, or null if it isn't cached
+     */
+    public byte[] get(String url) {
+        File file = fileFor(url);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            file.setLastModified(System.currentTimeMillis());
+            return bytes;
+        } catch (IOException e) {
+            System.err.println("Unable to read cached image " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Caches an image, making room for it if needed
+     *
+     * @param url   The image's URL
+     * @param bytes The image's bytes as downloaded
+     */
+    public void put(String url, byte[] bytes) {
+        File file = fileFor(url);
+        try {
+            Files.createDirectories(directory.toPath());
+            // Written to a temporary file first, so a half written image is never read
+            File temp = File.createTempFile(file.getName(), ".tmp", directory);
+            try {
+                Files.write(temp.toPath(), bytes);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to cache image " + file + ": " + e.getMessage());
+            return;
+        }
+        added(bytes.length);
+    }
+
+    private synchronized void added(long bytes) {
+        if (totalBytes < 0) {
+            totalBytes = 0;
+            for (File file : listFiles()) {
+                totalBytes += file.length();
+            }
+        } else {
+            totalBytes += bytes;
+        }
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+
+        // Delete the least recently used images
+        File[] files = listFiles();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (totalBytes <= maxBytes * 9 / 10) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+            }
+        }
+    }
+
+    private File[] listFiles() {
+        File[] files = directory.listFiles(file -> file.isFile() && !file.getName().endsWith(".tmp"));
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Gives the file an image is cached in. The name keeps the end of the URL so the
+     * directory is readable, and starts with a hash of the whole URL so it is unique
+     */
+    private File fileFor(String url) {
+        String name = url.substring(url.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        String size = url.substring(0, Math.max(0, url.lastIndexOf('/')));
+        size = size.substring(size.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(directory, String.format("%08x-%s-%s", url.hashCode(), size, name));
+    }
+}
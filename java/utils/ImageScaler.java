@@ -0,0 +1,76 @@
+package utils;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Scales images for display. Much faster than Image.getScaledInstance with SCALE_SMOOTH:
+ * big reductions are done as a series of bilinear halvings, which keeps the quality of a
+ * smooth scale, and the result is in the screen's own pixel format, so drawing it is a copy.
+ */
+public final class ImageScaler {
+    private ImageScaler() { }
+
+    /**
+     * Scales an image to exactly the given size
+     *
+     * @param source The image
+     * @param width  The width to scale to
+     * @param height The height to scale to
+     * @return The scaled image
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            // Halve the size each step until the next step reaches the target
+            int stepWidth = currentWidth > width * 2 ? currentWidth / 2 : width;
+            int stepHeight = currentHeight > height * 2 ? currentHeight / 2 : height;
+            current = draw(current, stepWidth, stepHeight);
+            currentWidth = stepWidth;
+            currentHeight = stepHeight;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    /**
+     * Scales an image to fit inside a box, keeping its aspect ratio
+     *
+     * @param source The image
+     * @param width  The width of the box
+     * @param height The height of the box
+     * @param inset  Pixels taken off each dimension once fitted, to leave room for a border
+     * @return The scaled image
+     */
+    public static BufferedImage fit(BufferedImage source, int width, int height, int inset) {
+        double scale = Math.min(width / (double) source.getWidth(), height / (double) source.getHeight());
+        return scale(source, (int) (source.getWidth() * scale) - inset, (int) (source.getHeight() * scale) - inset);
+    }
+
+    private static BufferedImage draw(Image source, int width, int height) {
+        BufferedImage scaled = createCompatible(width, height);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage createCompatible(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
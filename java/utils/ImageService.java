@@ -0,0 +1,216 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+/**
+ * Downloads and decodes posters and profile pictures off the EDT, so showing a screen never
+ * waits on the network. Callers show a placeholder straight away and are handed the real
+ * image on the EDT once it has arrived.
+ *
+ * Images are fetched by a fixed pool of Constants.imageLoaderThreads threads, and an image
+ * that is already being fetched isn't fetched again, so a reel that shows the same poster
+ * twice only downloads it once. Each fetch can be cancelled once its image is no longer
+ * needed, such as when a reel item scrolls out of view, and an image whose fetches have all
+ * been cancelled by the time a thread gets to it isn't fetched at all. Scrolling quickly
+ * through a long reel therefore doesn't leave the images now in view queued behind the
+ * images of every item that went past.
+ *
+ * Images are cached at two levels: decoded images in memory, up to Constants.imageMemoryCacheBytes,
+ * which are handed over straight away, and downloaded images on disk, up to
+ * Constants.imageDiskCacheBytes, which only need decoding. Revisiting a screen costs neither.
+ */
+public final class ImageService {
+    private static final int CONNECT_TIMEOUT = 5000; // ms
+    private static final int READ_TIMEOUT = 10000;   // ms
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(Constants.imageLoaderThreads, runnable -> {
+        Thread thread = new Thread(runnable, "ImageService");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Decoded images, weighed by their size in memory
+    private static final LruCache<String, BufferedImage> memoryCache = new LruCache<>(Constants.imageMemoryCacheBytes,
+        image -> (long) image.getWidth() * image.getHeight() * 4);
+    private static final ImageDiskCache diskCache = new ImageDiskCache(new File(Constants.imageCacheDirectory), Constants.imageDiskCacheBytes);
+
+    // The requests waiting on each image being fetched
+    private static final HashMap<String, ArrayList<Request>> pending = new HashMap<>();
+
+    private ImageService() { }
+
+    /**
+     * A fetch of an image for one caller, which can be cancelled if the image is no longer needed
+     */
+    public static final class Request {
+        private final Consumer<BufferedImage> onLoaded;
+        private volatile boolean cancelled = false;
+
+        private Request(Consumer<BufferedImage> onLoaded) {
+            this.onLoaded = onLoaded;
+        }
+
+        /**
+         * Stops the image being handed over, and stops it being fetched at all if no one
+         * else is waiting on it and it hasn't started. Can be called on any thread
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Makes the URL of an image on the image server
+     * @param size The TMDB size of the image, such as "w342", "w500" or "original"
+     * @param path The poster or profile path from the data files
+     * @return The URL, or null if there is no path
+     */
+    public static String url(String size, String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        return Constants.imageBaseURL + size + path;
+    }
+
+    /**
+     * Fetches an image in the background
+     * @param url The image's URL, from {@link #url(String, String)}. Nothing is fetched if it is null
+     * @param onLoaded Given the image on the EDT once it has been decoded, straight away if
+     *                 it is cached in memory and this is called on the EDT. Not called if the
+     *                 image can't be fetched, in which case the placeholder should stay, or if
+     *                 the request has been cancelled
+     * @return The request, for cancelling it, or null if there is no URL
+     */
+    public static Request load(String url, Consumer<BufferedImage> onLoaded) {
+        if (url == null) {
+            return null;
+        }
+        Request request = new Request(onLoaded);
+        BufferedImage cached = memoryCache.get(url);
+        if (cached != null) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                onLoaded.accept(cached);
+            } else {
+                SwingUtilities.invokeLater(() -> handOver(request, cached));
+            }
+            return request;
+        }
+        synchronized (pending) {
+            ArrayList<Request> waiting = pending.get(url);
+            if (waiting != null) {
+                waiting.add(request); // Already being fetched
+                return request;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(request);
+            pending.put(url, waiting);
+        }
+        workers.execute(() -> {
+            synchronized (pending) {
+                if (allCancelled(pending.get(url))) {
+                    pending.remove(url); // No longer needed by anyone, so not worth fetching
+                    return;
+                }
+            }
+            BufferedImage image = null;
+            ArrayList<Request> waiting;
+            try {
+                image = fetch(url);
+                if (image != null) {
+                    memoryCache.put(url, image);
+                }
+            } finally {
+                // Always taken out of pending, even if the fetch failed unexpectedly, so the
+                // next request for the image tries again rather than waiting forever
+                synchronized (pending) {
+                    waiting = pending.remove(url);
+                }
+            }
+            BufferedImage loaded = image;
+            if (loaded != null) {
+                SwingUtilities.invokeLater(() -> {
+                    for (Request waitingRequest : waiting) {
+                        handOver(waitingRequest, loaded);
+                    }
+                });
+            }
+        });
+        return request;
+    }
+
+    private static void handOver(Request request, BufferedImage image) {
+        if (!request.cancelled) {
+            request.onLoaded.accept(image);
+        }
+    }
+
+    private static boolean allCancelled(ArrayList<Request> requests) {
+        for (Request request : requests) {
+            if (!request.cancelled) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads an image from the disk cache, or downloads it and adds it to the disk cache,
+     * and decodes it. Only called on a worker thread
+     * @return The image, or null if it couldn't be fetched or decoded
+     */
+    private static BufferedImage fetch(String url) {
+        byte[] bytes = diskCache.get(url);
+        boolean downloaded = bytes == null;
+        if (downloaded) {
+            bytes = download(url);
+            if (bytes == null) {
+                return null;
+            }
+        }
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (image == null) {
+                System.err.println("Unable to decode image " + url);
+            } else if (downloaded) {
+                diskCache.put(url, bytes); // Only images that decode are kept
+            }
+            return image;
+        } catch (IOException | RuntimeException e) {
+            // Decoders throw runtime exceptions on some malformed images too
+            System.err.println("Unable to decode image " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Downloads an image. Only called on a worker thread
+     * @return The image's bytes, or null if it couldn't be downloaded
+     */
+    private static byte[] download(String url) {
+        try {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            try (InputStream in = connection.getInputStream()) {
+                return in.readAllBytes();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to load image " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pulls values out of the JSON columns of the data files one key at a time, without
+ * building a tree of JSON objects. The loaders ask for the keys they need and skip
+ * everything else, so only the Strings that end up in a store are ever created.
+ *
+ * The columns are written by Python, so strings may use single or double quotes, and
+ * bare words such as {@code None} are accepted as values. A typical use is:
+ * <pre>
+ * json.reset(csv, column);
+ * json.beginArray();
+ * while (json.hasNext()) {
+ *     json.beginObject();
+ *     while (json.nextKey()) {
+ *         switch (json.matchKey(KEYS)) {
+ *             case 0: id = json.readInt(); break;
+ *             case 1: name = json.readString(); break;
+ *             default: json.skipValue();
+ *         }
+ *     }
+ *     json.requireAll(KEYS);
+ * }
+ * </pre>
+ */
+public class JsonExtractor {
+    /**
+     * The keys a loader wants from an object, in the order {@link #matchKey(Keys)} numbers them
+     */
+    public static final class Keys {
+        private final String[] names;
+        private final byte[][] bytes;
+
+        public Keys(String... names) {
+            if (names.length > 64) {
+                throw new IllegalArgumentException("At most 64 keys can be matched");
+            }
+            this.names = names;
+            this.bytes = new byte[names.length][];
+            for (int i = 0; i < names.length; i++) {
+                bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Thrown when a column is not valid JSON, or is missing a key that was required
+     */
+    public static class JsonFormatException extends RuntimeException {
+        public JsonFormatException(String message) {
+            super(message);
+        }
+    }
+
+    private byte[] bytes = new byte[1024];
+    private int length = 0;
+    private int pos = 0;
+
+    private byte[] key = new byte[64]; // The key read by the last call to nextKey
+    private int keyLength = 0;
+    private long seenKeys = 0;         // Bit i is set once key i has been matched in the current object
+
+    // Where the field being read is in its file, for readStringRef. The field's ""
+    // escapes are undone when it is copied, so each " before a position moves it one
+    // byte further on in the file; they are counted as the reader moves forwards
+    private long fieldOffset = -1;     // -1 when the JSON didn't come from a CSV field
+    private boolean fieldEscaped = false;
+    private int quotesCountedTo = 0;
+    private int quotesBefore = 0;
+
+    /**
+     * Starts reading a CSV field. The field is copied once into an array that is reused
+     * for every field, so this does not allocate after the first few records
+     *
+     * @param csv   The tokenizer positioned on the record
+     * @param field The column holding the JSON
+     */
+    public void reset(CsvTokenizer csv, int field) {
+        if (bytes.length < csv.rawLength(field)) {
+            bytes = new byte[Math.max(csv.rawLength(field), bytes.length * 2)];
+        }
+        length = csv.getBytes(field, bytes);
+        pos = 0;
+        fieldOffset = csv.fileOffset(field);
+        fieldEscaped = csv.hasEscapes(field);
+        quotesCountedTo = 0;
+        quotesBefore = 0;
+    }
+
+    /**
+     * Starts reading some JSON text
+     *
+     * @param text The JSON
+     */
+    public void reset(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < encoded.length) {
+            bytes = new byte[encoded.length];
+        }
+        System.arraycopy(encoded, 0, bytes, 0, encoded.length);
+        length = encoded.length;
+        pos = 0;
+        fieldOffset = -1;
+    }
+
+    /**
+     * Starts reading some JSON that is already UTF-8 encoded
+     *
+     * @param source The JSON
+     * @param length The number of bytes of JSON, from the start of the array
+     */
+    public void reset(byte[] source, int length) {
+        if (bytes.length < length) {
+            bytes = new byte[length];
+        }
+        System.arraycopy(source, 0, bytes, 0, length);
+        this.length = length;
+        pos = 0;
+        fieldOffset = -1;
+    }
+
+    /**
+     * Reads the opening bracket of an array
+     */
+    public void beginArray() {
+        expect('[');
+    }
+
+    /**
+     * Reads the opening brace of an object, and forgets which keys have been matched
+     */
+    public void beginObject() {
+        expect('{');
+        seenKeys = 0;
+    }
+
+    /**
+     * Moves on to the next value in the current array or object
+     *
+     * @return {@code true} if there is another value, {@code false} once the closing
+     *         bracket or brace has been read
+     */
+    public boolean hasNext() {
+        skipWhitespace();
+        if (pos >= length) {
+            throw error("Unexpected end of JSON");
+        }
+        byte b = bytes[pos];
+        if (b == ']' || b == '}') {
+            pos++;
+            return false;
+        }
+        if (b == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next key of the current object, up to and including the colon
+     *
+     * @return {@code true} if there was another key, {@code false} at the end of the object
+     */
+    public boolean nextKey() {
+        if (!hasNext()) {
+            return false;
+        }
+        keyLength = 0;
+        byte quote = bytes[pos];
+        if (quote != '\'' && quote != '"') {
+            throw error("Expected a key");
+        }
+        pos++;
+        while (pos < length && bytes[pos] != quote) {
+            if (bytes[pos] == '\\') {
+                pos++; // Keys never need unescaping beyond dropping the backslash
+            }
+            if (keyLength == key.length) {
+                key = Arrays.copyOf(key, key.length * 2);
+            }
+            key[keyLength++] = bytes[pos++];
+        }
+        pos++;
+        skipWhitespace();
+        expect(':');
+        return true;
+    }
+
+    /**
+     * Finds which of the wanted keys the last key read is
+     *
+     * @param keys The wanted keys
+     * @return The index of the key, or -1 if it isn't one of them
+     */
+    public int matchKey(Keys keys) {
+        for (int i = 0; i < keys.bytes.length; i++) {
+            byte[] name = keys.bytes[i];
+            if (name.length != keyLength) {
+                continue;
+            }
+            int j = 0;
+            while (j < keyLength && name[j] == key[j]) {
+                j++;
+            }
+            if (j == keyLength) {
+                seenKeys |= 1L << i;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks that every wanted key was found in the object that has just been read
+     *
+     * @param keys The wanted keys
+     * @throws JsonFormatException Naming the first key that was missing
+     */
+    public void requireAll(Keys keys) {
+        for (int i = 0; i < keys.names.length; i++) {
+            if ((seenKeys & (1L << i)) == 0) {
+                throw error("JSONObject[\"" + keys.names[i] + "\"] not found");
+            }
+        }
+    }
+
+    /**
+     * Reads an int value. Quoted numbers are accepted, and any fraction is dropped
+     */
+    public int readInt() {
+        skipWhitespace();
+        if (pos < length && (bytes[pos] == '\'' || bytes[pos] == '"')) {
+            String text = readString();
+            try {
+                return (int) Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                throw error("Value \"" + text + "\" is not an int");
+            }
+        }
+        boolean negative = pos < length && bytes[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        int start = pos;
+        long value = 0;
+        while (pos < length && bytes[pos] >= '0' && bytes[pos] <= '9') {
+            value = value * 10 + (bytes[pos++] - '0');
+        }
+        if (pos == start || pos - start > 10 || value > Integer.MAX_VALUE + (negative ? 1L : 0L)) {
+            throw error("Value is not an int");
+        }
+        if (pos < length && bytes[pos] == '.') {
+            pos++;
+            while (pos < length && bytes[pos] >= '0' && bytes[pos] <= '9') {
+                pos++;
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Reads a string value. A bare word such as {@code None} is returned as its text,
+     * but {@code null} is rejected, as it is not a string
+     */
+    public String readString() {
+        skipWhitespace();
+        if (pos >= length) {
+            throw error("Unexpected end of JSON");
+        }
+        byte quote = bytes[pos];
+        if (quote != '\'' && quote != '"') {
+            int start = pos;
+            while (pos < length && !isValueEnd(bytes[pos])) {
+                pos++;
+            }
+            String word = new String(bytes, start, pos - start, StandardCharsets.UTF_8).trim();
+            if (word.isEmpty() || word.equals("null")) {
+                throw error("Value is not a string");
+            }
+            return word;
+        }
+
+        pos++;
+        int start = pos;
+        while (pos < length && bytes[pos] != quote && bytes[pos] != '\\') {
+            pos++;
+        }
+        if (pos < length && bytes[pos] == quote) {
+            // No escapes, which is nearly always the case
+            String value = new String(bytes, start, pos - start, StandardCharsets.UTF_8);
+            pos++;
+            return value;
+        }
+
+        StringBuilder value = new StringBuilder(new String(bytes, start, pos - start, StandardCharsets.UTF_8));
+        while (pos < length && bytes[pos] != quote) {
+            if (bytes[pos] != '\\') {
+                int segment = pos;
+                while (pos < length && bytes[pos] != quote && bytes[pos] != '\\') {
+                    pos++;
+                }
+                value.append(new String(bytes, segment, pos - segment, StandardCharsets.UTF_8));
+                continue;
+            }
+            pos++;
+            if (pos >= length) {
+                break;
+            }
+            byte escape = bytes[pos++];
+            switch (escape) {
+                case 'n': value.append('\n'); break;
+                case 't': value.append('\t'); break;
+                case 'r': value.append('\r'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (pos + 4 > length) {
+                        throw error("Bad unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(new String(bytes, pos, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Bad unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default: value.append((char) escape); // \' \" \\ \/
+            }
+        }
+        if (pos >= length) {
+            throw error("Unterminated string");
+        }
+        pos++;
+        return value.toString();
+    }
+
+    /**
+     * Skips over a string value, returning where it is in the file instead of reading it,
+     * so it can be read later through {@link LazyText}. Only strings in a field read with
+     * {@link #reset(CsvTokenizer, int)} can be referred to like this
+     *
+     * @param source The {@link LazyText} source number of the file the field is from
+     * @return The reference, or {@link LazyText#NONE} if the value isn't a quoted string
+     *         that can be referred to, in which case nothing has been read and
+     *         {@link #readString()} should be used instead
+     */
+    public long readStringRef(int source) {
+        skipWhitespace();
+        if (fieldOffset < 0 || pos >= length || (bytes[pos] != '\'' && bytes[pos] != '"')) {
+            return LazyText.NONE;
+        }
+        byte quote = bytes[pos];
+        int start = pos + 1;
+        int end = start;
+        while (end < length && bytes[end] != quote) {
+            if (bytes[end] == '\\') {
+                end++;
+            }
+            end++;
+        }
+        if (end >= length) {
+            throw error("Unterminated string");
+        }
+
+        long fileStart = fieldOffset + start;
+        long fileEnd = fieldOffset + end;
+        if (fieldEscaped) {
+            // Each quote was two bytes in the file
+            fileStart += countQuotes(start);
+            fileEnd += countQuotes(end);
+        }
+        if (fileEnd - fileStart > LazyText.MAX_LENGTH) {
+            return LazyText.NONE;
+        }
+        int flags = (fileEnd - fileStart != end - start ? LazyText.CSV_ESCAPED : 0) | (quote == '"' ? LazyText.DOUBLE_QUOTED : 0);
+        pos = end + 1;
+        return LazyText.ref(source, fileStart, (int) (fileEnd - fileStart), flags);
+    }
+
+    /**
+     * Counts the quotes before a position in the field, carrying on from the last count
+     */
+    private int countQuotes(int position) {
+        if (position < quotesCountedTo) {
+            quotesCountedTo = 0;
+            quotesBefore = 0;
+        }
+        for (; quotesCountedTo < position; quotesCountedTo++) {
+            if (bytes[quotesCountedTo] == '"') {
+                quotesBefore++;
+            }
+        }
+        return quotesBefore;
+    }
+
+    /**
+     * Skips over a value of any type, including nested arrays and objects
+     */
+    public void skipValue() {
+        skipWhitespace();
+        if (pos >= length) {
+            throw error("Unexpected end of JSON");
+        }
+        byte b = bytes[pos];
+        if (b == '\'' || b == '"') {
+            pos++;
+            while (pos < length && bytes[pos] != b) {
+                if (bytes[pos] == '\\') {
+                    pos++;
+                }
+                pos++;
+            }
+            pos++;
+        } else if (b == '[' || b == '{') {
+            pos++;
+            int depth = 1;
+            while (pos < length && depth > 0) {
+                byte c = bytes[pos];
+                if (c == '\'' || c == '"') {
+                    skipValue();
+                    continue;
+                }
+                if (c == '[' || c == '{') depth++;
+                else if (c == ']' || c == '}') depth--;
+                pos++;
+            }
+        } else {
+            while (pos < length && !isValueEnd(bytes[pos])) {
+                pos++;
+            }
+        }
+    }
+
+    private static boolean isValueEnd(byte b) {
+        return b == ',' || b == '}' || b == ']';
+    }
+
+    private void skipWhitespace() {
+        while (pos < length && (bytes[pos] == ' ' || bytes[pos] == '\t' || bytes[pos] == '\n' || bytes[pos] == '\r')) {
+            pos++;
+        }
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (pos >= length || bytes[pos] != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private JsonFormatException error(String message) {
+        return new JsonFormatException(message + " at character " + pos);
+    }
+}
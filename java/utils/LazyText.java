@@ -0,0 +1,192 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Text that is left in a data file (or snapshot) until it is first needed. Long text
+ * such as film taglines is only ever shown for one film at a time, so the stores can
+ * keep a reference to where it is rather than the text itself, and read it back on demand.
+ * Text that has been read is kept in a small cache, so showing a film again is free.
+ *
+ * A reference is a single long, so it takes no more room than a String field:
+ * <pre>
+ * bits 60-63  the source file (1-15)
+ * bits 24-59  the offset of the text's first byte in the file
+ * bits 22-23  flags saying how the text is escaped
+ * bits 0-21   the number of bytes
+ * </pre>
+ * {@link #NONE} (0) is never a valid reference, as sources are numbered from 1.
+ */
+public class LazyText {
+    /** A reference to no text */
+    public static final long NONE = 0;
+
+    /** The text contains {@code ""} escaped quotes, as it is in a quoted CSV field */
+    public static final int CSV_ESCAPED = 1;
+    /** The text is a Python string that was in double quotes rather than single ones */
+    public static final int DOUBLE_QUOTED = 2;
+
+    /** How the bytes of a source are turned back into text */
+    public enum Encoding {
+        RAW,           // UTF-8 as it is, as in a snapshot
+        CSV,           // A CSV field, which may have escaped quotes
+        PYTHON_STRING  // The contents of a Python string inside a CSV field, which may also have backslash escapes
+    }
+
+    public static final int MAX_LENGTH = (1 << 22) - 1; // Longer text is kept as a String
+
+    private static final int MAX_SOURCES = 15;
+    private static final int CACHE_SIZE = 4096;
+
+    private static final Source[] sources = new Source[MAX_SOURCES + 1];
+    private static final LruCache<Long, String> cache = new LruCache<>(CACHE_SIZE);
+
+    private static class Source {
+        final String path;
+        final long size;
+        final long modified;
+        final Encoding encoding;
+        final FileChannel channel; // Left open for as long as the program runs
+
+        Source(File file, Encoding encoding) throws IOException {
+            this.path = file.getCanonicalPath();
+            this.size = file.length();
+            this.modified = file.lastModified();
+            this.encoding = encoding;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+    }
+
+    /**
+     * Gets a source number for a file, for making references into it. Loading the same
+     * unchanged file again reuses its number
+     *
+     * @param file     The file the text is in
+     * @param encoding How the text in the file is written
+     * @return The source number, or 0 if the file can't be used, in which case the
+     *         text should be read straight away
+     */
+    public static synchronized int register(File file, Encoding encoding) {
+        try {
+            String path = file.getCanonicalPath();
+            for (int id = 1; id <= MAX_SOURCES; id++) {
+                Source source = sources[id];
+                if (source == null) {
+                    sources[id] = new Source(file, encoding);
+                    return id;
+                }
+                if (source.path.equals(path) && source.encoding == encoding
+                        && source.size == file.length() && source.modified == file.lastModified()) {
+                    return id;
+                }
+            }
+            System.err.println("Too many text sources, so the text in " + file + " will be read straight away");
+        } catch (IOException e) {
+            System.err.println("Unable to open " + file + " for reading text later, so it will be read straight away: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Makes a reference to some text in a source
+     *
+     * @param source The source number, from {@link #register(File, Encoding)}
+     * @param offset The offset of the text's first byte in the file
+     * @param length The number of bytes, at most {@link #MAX_LENGTH}
+     * @param flags  {@link #CSV_ESCAPED} and/or {@link #DOUBLE_QUOTED}
+     * @return The reference
+     */
+    public static long ref(int source, long offset, int length, int flags) {
+        return ((long) source << 60) | (offset << 24) | ((long) flags << 22) | length;
+    }
+
+    /**
+     * Gets some text, reading it from its source if it isn't cached
+     *
+     * @param ref The reference to the text
+     * @return The text, or null for {@link #NONE}
+     */
+    public static String get(long ref) {
+        if (ref == NONE) {
+            return null;
+        }
+        String text = cache.get(ref);
+        if (text == null) {
+            text = read(ref);
+            cache.put(ref, text);
+        }
+        return text;
+    }
+
+    /**
+     * Reads some text from its source without caching it, for when every film's text is
+     * looked at once, such as when searching, which would otherwise empty the cache
+     *
+     * @param ref The reference to the text
+     * @return The text, or null for {@link #NONE}
+     */
+    public static String read(long ref) {
+        if (ref == NONE) {
+            return null;
+        }
+        String text = cache.get(ref);
+        if (text != null) {
+            return text;
+        }
+
+        Source source = sources[(int) (ref >>> 60)];
+        long offset = (ref >>> 24) & ((1L << 36) - 1);
+        int flags = (int) (ref >>> 22) & 3;
+        int length = (int) (ref & MAX_LENGTH);
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (source.channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+        } catch (IOException e) {
+            // The text can't be shown, but that shouldn't stop the rest of the film being shown
+            System.err.println("Unable to read text from " + source.path + " at offset " + offset + ": " + e.getMessage());
+            return "";
+        }
+        byte[] bytes = buffer.array();
+
+        if ((flags & CSV_ESCAPED) != 0) {
+            // Undo the doubled quotes
+            int end = 0;
+            for (int i = 0; i < length; i++) {
+                bytes[end++] = bytes[i];
+                if (bytes[i] == '"') {
+                    i++;
+                }
+            }
+            length = end;
+        }
+
+        if (source.encoding == Encoding.PYTHON_STRING) {
+            boolean hasBackslash = false;
+            for (int i = 0; i < length && !hasBackslash; i++) {
+                hasBackslash = bytes[i] == '\\';
+            }
+            if (hasBackslash) {
+                // Put the quotes back and let the JSON reader undo the escapes
+                byte quote = (byte) ((flags & DOUBLE_QUOTED) != 0 ? '"' : '\'');
+                byte[] quoted = new byte[length + 2];
+                quoted[0] = quote;
+                System.arraycopy(bytes, 0, quoted, 1, length);
+                quoted[length + 1] = quote;
+                JsonExtractor json = new JsonExtractor();
+                json.reset(quoted, quoted.length);
+                return json.readString();
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -2,27 +2,27 @@ package utils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JLabel;
 import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import interfaces.*;
 import stores.CastCredit;
@@ -30,78 +30,12 @@ import stores.Company;
 import stores.CrewCredit;
 import stores.Genre;
 import stores.Keyword;
+import stores.MovieRecord;
 import interfaces.AbstractStores;
+import structures.IdSet;
 
 public class LoadData implements Runnable {
 
-    class MovieRecord {
-        public int id = -1;
-        public String name = "";
-        public String title = "";
-        public String originalTitle = "";
-        public String overview = "";
-        public String tagline = "";
-        public String status = "";
-        public Genre[] genres = new Genre[0];
-        public LocalDate release = null;
-        public long budget = -1;
-        public long revenue = -1;
-        public String[] languages = new String[0];
-        public String originalLanguage = "";
-        public double runtime = -1.0;
-        public String homepage = "";
-        public boolean adult = false;
-        public boolean video = false;
-        public String poster = "";
-        public double voteAverage = -1.0;
-        public int voteCount = -1;
-        public int collectionID = -1;
-        public String collectionName = "";
-        public String collectionPosterPath = "";
-        public String collectionBackdropPath = "";
-        public String imdb = "";
-        public double popularity = -1.0;
-        public Company[] productionCompanies = new Company[0];
-        public String[] productionCountries = new String[0];
-        MovieRecord( int id, String name, String title, String originalTitle, String overview,
-                     String tagline, String status, Genre[] genres, LocalDate release, long budget,
-                     long revenue, String[] languages, String originalLanguage, double runtime,
-                     String homepage, boolean adult, boolean video, String poster, double voteAverage,
-                     int voteCount, int collectionID, String collectionName, String collectionPosterPath,
-                     String collectionBackdropPath, String imdb, double popularity, 
-                     Company[] productionCompanies, String[] productionCountries
-            ){
-            this.id = id;
-            this.name = name;
-            this.title = title;
-            this.originalTitle = originalTitle;
-            this.overview = overview;
-            this.tagline = tagline;
-            this.status = status;
-            this.genres = genres;
-            this.release = release;
-            this.budget = budget;
-            this.revenue = revenue;
-            this.languages = languages;
-            this.originalLanguage = originalLanguage;
-            this.runtime = runtime;
-            this.homepage = homepage;
-            this.adult = adult;
-            this.video = video;
-            this.poster = poster;
-            this.voteAverage = voteAverage;
-            this.voteCount = voteCount;
-            this.collectionID = collectionID;
-            this.collectionName = collectionName;
-            this.collectionPosterPath = collectionPosterPath;
-            this.collectionBackdropPath = collectionBackdropPath;
-            this.imdb = imdb;
-            this.popularity = popularity;
-            this.productionCompanies = productionCompanies;
-            this.productionCountries = productionCountries;
-        }
-    }
-
     class CreditRecord {
         public CastCredit[] cast;
         public CrewCredit[] crew;
@@ -122,16 +56,73 @@ public class LoadData implements Runnable {
         }
     }
 
-    class RatingRecord {
-        int userId;
-        int movieId;
-        float rating;
-        LocalDateTime timestamp;
-        RatingRecord(int userId, int movieId, float rating, LocalDateTime timestamp){
-            this.userId = userId;
-            this.movieId = movieId;
-            this.rating = rating;
-            this.timestamp = timestamp;
+    /**
+     * The ratings file held as one primitive array per column rather than an object per rating,
+     * as it has far more records than the other files. Row i is the i-th rating in the file.
+     */
+    class RatingColumns {
+        int[] userIds;
+        int[] movieIds;
+        float[] ratings;
+        long[] timestamps; // Seconds since the epoch, UTC
+        int size = 0;
+
+        RatingColumns(int capacity){
+            userIds    = new int[Math.max(capacity, 16)];
+            movieIds   = new int[userIds.length];
+            ratings    = new float[userIds.length];
+            timestamps = new long[userIds.length];
+        }
+
+        void add(int userId, int movieId, float rating, long timestamp){
+            if (size == userIds.length){
+                int capacity = size * 2;
+                userIds    = Arrays.copyOf(userIds, capacity);
+                movieIds   = Arrays.copyOf(movieIds, capacity);
+                ratings    = Arrays.copyOf(ratings, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            userIds[size] = userId;
+            movieIds[size] = movieId;
+            ratings[size] = rating;
+            timestamps[size] = timestamp;
+            size++;
+        }
+
+        /**
+         * Copies some of the rows into new columns
+         * @param rows The rows to copy, in the order they should be in
+         * @param count The number of rows to copy, from the start of rows
+         * @return The copied rows
+         */
+        RatingColumns select(int[] rows, int count){
+            RatingColumns selected = new RatingColumns(count);
+            for (int i = 0; i < count; i++){
+                int row = rows[i];
+                selected.add(userIds[row], movieIds[row], ratings[row], timestamps[row]);
+            }
+            return selected;
+        }
+
+        /**
+         * Joins the columns parsed from each chunk of the file, in file order
+         * @param chunks The columns of each chunk
+         * @return All of the ratings
+         */
+        RatingColumns merge(RatingColumns[] chunks){
+            int total = 0;
+            for (RatingColumns chunk : chunks){
+                total += chunk.size;
+            }
+            RatingColumns merged = new RatingColumns(total);
+            for (RatingColumns chunk : chunks){
+                System.arraycopy(chunk.userIds, 0, merged.userIds, merged.size, chunk.size);
+                System.arraycopy(chunk.movieIds, 0, merged.movieIds, merged.size, chunk.size);
+                System.arraycopy(chunk.ratings, 0, merged.ratings, merged.size, chunk.size);
+                System.arraycopy(chunk.timestamps, 0, merged.timestamps, merged.size, chunk.size);
+                merged.size += chunk.size;
+            }
+            return merged;
         }
     }
 
@@ -139,9 +130,6 @@ public class LoadData implements Runnable {
     public enum StoreType {CREDITS, KEYWORDS, METADATA, RATINGS}
 
 
-    private long currentNumber = 0;
-    private long totalNumber = 0;
-    private String loadingString = "";
     private JProgressBar loadingBar;
     private JLabel loadingText;
     
@@ -155,53 +143,417 @@ public class LoadData implements Runnable {
     ArrayList<MovieRecord> backendMovies = new ArrayList<>();
     HashMap<Integer, MovieRecord> backendMoviesByMovieId = new HashMap<>();
 
-    ArrayList<RatingRecord> backendRatings = new ArrayList<>();
-    HashMap<Integer, ArrayList<RatingRecord>> backendRatingsByMovieId = new HashMap<>();
+    RatingColumns backendRatings = new RatingColumns(0);
+    HashMap<Integer, int[]> backendRatingsByMovieId = new HashMap<>(); // Rows in backendRatings for each movie
 
-    private class FileLoadUiUpdater {
-        int totalNumLines = 0;
-        int totalNumCurrentlyProcessed = 0;
-        HashMap<StoreType, Long> numLines = new HashMap<>();
-        JProgressBar loadingBar;
-        JLabel loadingText;
-        public FileLoadUiUpdater(JProgressBar loadingBar, JLabel loadingText, File creditsFile, File keywordsFile, File movieFile, File ratingsFile) throws DataLoadException{
-            this.loadingBar = loadingBar;
-            this.loadingText = loadingText;
-            try{
-                // Populate numLines with how many lines each file has
-                numLines.put(StoreType.CREDITS,  (Files.lines(creditsFile.toPath()).count() - 2));
-                numLines.put(StoreType.KEYWORDS, (Files.lines(keywordsFile.toPath()).count() - 2));
-                numLines.put(StoreType.METADATA, (Files.lines(movieFile.toPath()).count() - 2));
-                numLines.put(StoreType.RATINGS,  (Files.lines(ratingsFile.toPath()).count() - 2));
-                for (long fileNumLines : numLines.values()){
-                    totalNumLines += fileNumLines;
+    private NumRecordsAdded streamedRecords = null; // Set when the files were streamed straight into the stores
+
+    /**
+     * Where the file loaders send each record once it has been parsed. Each method is only called
+     * from the thread loading that file, apart from addRatings, which every ratings chunk calls
+     */
+    private interface RecordSink {
+        /** Called once the movies file has started loading, before any other file is loaded */
+        void metadataStarted(Future<?> metadataLoader) throws DataLoadException;
+        void addMovie(MovieRecord mr) throws DataLoadException;
+        void addCredits(CreditRecord cr) throws DataLoadException;
+        void addKeywords(KeywordRecord kr) throws DataLoadException;
+        void addRatings(int chunkIndex, RatingColumns chunk) throws DataLoadException;
+        /** Called once every record of a file has been added */
+        void finish(StoreType type) throws DataLoadException;
+    }
+
+    /**
+     * Keeps every record in the backend structures, for populate to copy into the stores later.
+     * The files are all parsed at the same time, so credits, keywords and ratings are only
+     * checked against the movies once both have finished.
+     */
+    private class BackendSink implements RecordSink {
+        private Future<?> metadataLoader;
+        private HashMap<Integer, RatingColumns> ratingChunks = new HashMap<>();
+
+        public void metadataStarted(Future<?> metadataLoader){
+            this.metadataLoader = metadataLoader;
+        }
+
+        public void addMovie(MovieRecord mr){
+            backendMovies.add(mr);
+            backendMoviesByMovieId.put(mr.id, mr);
+        }
+
+        public void addCredits(CreditRecord cr){
+            backendCredits.add(cr);
+            backendCreditsByMovieId.put(cr.movieId, cr);
+        }
+
+        public void addKeywords(KeywordRecord kr){
+            backendKeywords.add(kr);
+            backendKeywordsByMovieId.put(kr.movieId, kr);
+        }
+
+        public synchronized void addRatings(int chunkIndex, RatingColumns chunk){
+            ratingChunks.put(chunkIndex, chunk);
+        }
+
+        public void finish(StoreType type) throws DataLoadException {
+            if (type == StoreType.METADATA){
+                return;
+            }
+            if (type == StoreType.RATINGS){
+                // Join the chunks back together in file order
+                RatingColumns[] chunks = new RatingColumns[ratingChunks.size()];
+                synchronized (this){
+                    for (int i = 0; i < chunks.length; i++){
+                        chunks[i] = ratingChunks.get(i);
+                    }
+                    ratingChunks = null;
                 }
+                backendRatings = backendRatings.merge(chunks);
+                indexRatingsByMovie();
             }
-            catch(IOException e){
-                throw new DataLoadException(e.getMessage());
+
+            // Once the movies are known, check every record is referring to a movie that actually exists
+            awaitLoader(metadataLoader);
+            switch (type){
+                case CREDITS:
+                    for (CreditRecord cr : backendCredits){
+                        checkMovieExists(backendMoviesByMovieId.containsKey(cr.movieId), type, cr.movieId);
+                    }
+                    break;
+                case KEYWORDS:
+                    for (KeywordRecord kr : backendKeywords){
+                        checkMovieExists(backendMoviesByMovieId.containsKey(kr.movieId), type, kr.movieId);
+                    }
+                    break;
+                default:
+                    for (Integer movieId : backendRatingsByMovieId.keySet()){
+                        checkMovieExists(backendMoviesByMovieId.containsKey(movieId), type, movieId);
+                    }
             }
         }
-        private void incrementUI(StoreType fileType, int numRecordsProcessed) {
-            if (loadingBar == null || loadingText == null) {
-                return;
+    }
+
+    /**
+     * Sends each record straight into the stores as soon as it has been parsed, so no backend
+     * copy of the data is ever held. The stores don't depend on each other while they are
+     * filled, so every file is added as it is parsed, and the movies each file refers to are
+     * only checked against the movies file once both have finished. Only when the number of
+     * movies is restricted do the other files wait for the movies file, as which of their
+     * records to keep depends on which movies were added.
+     */
+    private class StoreSink implements RecordSink {
+        private AbstractStores stores;
+        private int maxMovies;                      // Only the first maxMovies films, and their data, are added
+        private boolean restricted;                 // Whether maxMovies can leave films out
+        private Future<?> metadataLoader;
+        private IdSet allMovies = new IdSet();      // Every movie in the movies file
+        private IdSet addedMovies = new IdSet();    // The movies that were added to the stores
+        int movies = 0, credits = 0, keywords = 0, ratings = 0; // Records added to the stores
+
+        // The movies referred to by each file, checked once the movies file has finished
+        private IdSet creditMovies = new IdSet();
+        private IdSet keywordMovies = new IdSet();
+        private ArrayList<IdSet> ratingMovies = new ArrayList<>(); // One set per ratings chunk
+
+        // Records waiting to be added to the stores in one batch
+        private ArrayList<MovieRecord> movieBatch = new ArrayList<>();
+        private ArrayList<CreditRecord> creditBatch = new ArrayList<>();
+        private ArrayList<KeywordRecord> keywordBatch = new ArrayList<>();
+
+        // Ratings chunks finish in any order, so the ones that finish early wait here until
+        // every chunk before them has been added, keeping the ratings in file order
+        private HashMap<Integer, RatingColumns> ratingChunks = new HashMap<>();
+        private int nextRatingChunk = 0;
+
+        StoreSink(AbstractStores stores, int maxMovies){
+            this.stores = stores;
+            this.maxMovies = maxMovies;
+            this.restricted = maxMovies != Integer.MAX_VALUE;
+        }
+
+        public void metadataStarted(Future<?> metadataLoader) throws DataLoadException {
+            this.metadataLoader = metadataLoader;
+            if (restricted){
+                awaitLoader(metadataLoader);
+            }
+        }
+
+        public void addMovie(MovieRecord mr){
+            allMovies.add(mr.id);
+            if (movies < maxMovies){
+                movieBatch.add(mr);
+                addedMovies.add(mr.id);
+                movies++;
+                if (movieBatch.size() == STORE_BATCH_SIZE){
+                    populateMovies(stores.getMovies(), movieBatch);
+                    movieBatch.clear();
+                }
+            }
+        }
+
+        public void addCredits(CreditRecord cr) throws DataLoadException {
+            if (restricted){
+                checkMovieExists(allMovies.contains(cr.movieId), StoreType.CREDITS, cr.movieId);
+                if (!addedMovies.contains(cr.movieId)) return;
+            }
+            else {
+                creditMovies.add(cr.movieId);
+            }
+            creditBatch.add(cr);
+            credits++;
+            if (creditBatch.size() == STORE_BATCH_SIZE){
+                populateCredits(stores.getCredits(), creditBatch);
+                creditBatch.clear();
             }
-            totalNumCurrentlyProcessed++;
-            loadingBar.setValue((int) ((totalNumCurrentlyProcessed / (double) totalNumLines)*(double)loadingBar.getMaximum()));
-            loadingString = "[1/2] Loading Data into backend: ";
-            switch (fileType) {
-                case CREDITS: loadingString += "Credits..."; 
+        }
+
+        public void addKeywords(KeywordRecord kr) throws DataLoadException {
+            if (restricted){
+                checkMovieExists(allMovies.contains(kr.movieId), StoreType.KEYWORDS, kr.movieId);
+                if (!addedMovies.contains(kr.movieId)) return;
+            }
+            else {
+                keywordMovies.add(kr.movieId);
+            }
+            keywordBatch.add(kr);
+            keywords++;
+            if (keywordBatch.size() == STORE_BATCH_SIZE){
+                populateKeywords(stores.getKeywords(), keywordBatch);
+                keywordBatch.clear();
+            }
+        }
+
+        public void addRatings(int chunkIndex, RatingColumns chunk) throws DataLoadException {
+            RatingColumns added = chunk;
+            IdSet chunkMovies = null;
+            if (restricted){
+                int[] rows = new int[chunk.size];
+                int numRows = 0;
+                for (int row = 0; row < chunk.size; row++){
+                    checkMovieExists(allMovies.contains(chunk.movieIds[row]), StoreType.RATINGS, chunk.movieIds[row]);
+                    if (addedMovies.contains(chunk.movieIds[row])){
+                        rows[numRows++] = row;
+                    }
+                }
+                added = numRows == chunk.size ? chunk : chunk.select(rows, numRows);
+            }
+            else {
+                // Built on the chunk's own thread, so the chunks don't queue up for it
+                chunkMovies = IdSet.of(chunk.movieIds, chunk.size);
+            }
+
+            // The ratings store is shared by every chunk
+            synchronized (this){
+                if (chunkMovies != null){
+                    ratingMovies.add(chunkMovies);
+                }
+                ratingChunks.put(chunkIndex, added);
+                RatingColumns next;
+                while ((next = ratingChunks.remove(nextRatingChunk)) != null){
+                    stores.getRatings().addAll(next.userIds, next.movieIds, next.ratings, next.timestamps, next.size);
+                    ratings += next.size;
+                    nextRatingChunk++;
+                }
+            }
+        }
+
+        public void finish(StoreType type) throws DataLoadException {
+            // Add whatever is left of the last batch
+            switch (type){
+                case METADATA:
+                    populateMovies(stores.getMovies(), movieBatch);
+                    movieBatch = null;
+                    return;
+                case CREDITS:
+                    populateCredits(stores.getCredits(), creditBatch);
+                    creditBatch = null;
                     break;
-                case KEYWORDS: loadingString += "Keywords..."; 
+                case KEYWORDS:
+                    populateKeywords(stores.getKeywords(), keywordBatch);
+                    keywordBatch = null;
                     break;
-                case METADATA: loadingString += "Film Metadata..."; 
+                default:
+            }
+            if (restricted){
+                return; // Already checked record by record
+            }
+
+            // Once the movies are known, check every movie the file refers to actually exists
+            awaitLoader(metadataLoader);
+            switch (type){
+                case CREDITS:
+                    checkMoviesExist(creditMovies, type);
                     break;
-                case RATINGS: loadingString += "Ratings..."; 
+                case KEYWORDS:
+                    checkMoviesExist(keywordMovies, type);
                     break;
+                default:
+                    synchronized (this){
+                        for (IdSet chunkMovies : ratingMovies){
+                            checkMoviesExist(chunkMovies, type);
+                        }
+                    }
             }
+        }
 
-            loadingString += " (" + numRecordsProcessed + "/" + numLines.get(fileType) + ")";
-            loadingText.setText(loadingString);
+        private void checkMoviesExist(IdSet movieIds, StoreType type) throws DataLoadException {
+            IdSet missing = IdSet.andNot(movieIds, allMovies);
+            if (!missing.isEmpty()){
+                checkMovieExists(false, type, missing.iterator().next());
+            }
+        }
     }
+
+    /**
+     * Passes every record on to another sink, and also writes it to a snapshot of the data files
+     */
+    private class SnapshotSink implements RecordSink {
+        private RecordSink sink;
+        private StoreSnapshot.Writer writer;
+
+        SnapshotSink(RecordSink sink, StoreSnapshot.Writer writer){
+            this.sink = sink;
+            this.writer = writer;
+        }
+
+        public void metadataStarted(Future<?> metadataLoader) throws DataLoadException {
+            sink.metadataStarted(metadataLoader);
+        }
+
+        public void addMovie(MovieRecord mr) throws DataLoadException {
+            sink.addMovie(mr);
+            writer.writeMovie(mr);
+        }
+
+        public void addCredits(CreditRecord cr) throws DataLoadException {
+            sink.addCredits(cr);
+            writer.writeCredits(cr.movieId, cr.cast, cr.crew);
+        }
+
+        public void addKeywords(KeywordRecord kr) throws DataLoadException {
+            sink.addKeywords(kr);
+            writer.writeKeywords(kr.movieId, kr.keywords);
+        }
+
+        public void addRatings(int chunkIndex, RatingColumns chunk) throws DataLoadException {
+            sink.addRatings(chunkIndex, chunk);
+            writer.writeRatings(chunkIndex, chunk.userIds, chunk.movieIds, chunk.ratings, chunk.timestamps, chunk.size);
+        }
+
+        public void finish(StoreType type) throws DataLoadException {
+            sink.finish(type);
+        }
+    }
+
+    /**
+     * Fails the load if a record refers to a movie that isn't in the movies file
+     * @param exists Whether the movie is in the movies file
+     * @param type The file the record came from
+     * @param movieId The movie the record refers to
+     * @throws DataLoadException When the movie doesn't exist
+     */
+    private void checkMovieExists(boolean exists, StoreType type, int movieId) throws DataLoadException {
+        if (exists){
+            return;
+        }
+        String message;
+        switch (type){
+            case CREDITS:
+                message = "Credits file contains a credit for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
+                break;
+            case KEYWORDS:
+                message = "Keywords file contains a keyword record for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
+                break;
+            default:
+                message = "Ratings file contains a rating for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
+        }
+        throw new DataLoadException(message);
+    }
+
+    /**
+     * Shows how far through the files the loaders are. Progress is measured in bytes parsed
+     * against the size of each file, so it costs nothing before parsing starts. The loaders
+     * only add to a counter every UPDATE_INTERVAL records, and a Swing timer reads the
+     * counters on the EDT REFRESH_RATE times a second, so the UI never slows the loaders down.
+     */
+    private class FileLoadUiUpdater {
+        static final int UPDATE_INTERVAL = 1024; // Records between progress reports from each loader
+        private static final int REFRESH_RATE = 30; // Times a second the UI is refreshed
+        long totalBytes = 0;
+        long[] fileSizes = new long[StoreType.values().length];
+        AtomicLong[] bytesParsed = new AtomicLong[StoreType.values().length]; // Bytes parsed so far in each file, by StoreType ordinal
+        JProgressBar loadingBar;
+        JLabel loadingText;
+        String stage; // Shown ahead of the progress, as it depends on where the records are going
+        Timer refreshTimer;
+        public FileLoadUiUpdater(JProgressBar loadingBar, JLabel loadingText, String stage, File creditsFile, File keywordsFile, File movieFile, File ratingsFile) {
+            this.loadingBar = loadingBar;
+            this.loadingText = loadingText;
+            this.stage = stage;
+            fileSizes[StoreType.CREDITS.ordinal()]  = creditsFile.length();
+            fileSizes[StoreType.KEYWORDS.ordinal()] = keywordsFile.length();
+            fileSizes[StoreType.METADATA.ordinal()] = movieFile.length();
+            fileSizes[StoreType.RATINGS.ordinal()]  = ratingsFile.length();
+            for (int i = 0; i < bytesParsed.length; i++){
+                totalBytes += fileSizes[i];
+                bytesParsed[i] = new AtomicLong();
+            }
+            if (loadingBar != null && loadingText != null){
+                refreshTimer = new Timer(1000 / REFRESH_RATE, e -> refresh());
+                refreshTimer.start();
+            }
+        }
+
+        /**
+         * Records that a loader has parsed another part of a file. Called from every loader thread,
+         * so the counters are atomic
+         * @param fileType The file being parsed
+         * @param from The offset the loader last reported
+         * @param to The offset the loader has now parsed up to
+         * @return {@code to}, for the loader to pass as {@code from} next time
+         */
+        private long addBytes(StoreType fileType, long from, long to) {
+            if (to > from) {
+                bytesParsed[fileType.ordinal()].addAndGet(to - from);
+            }
+            return to;
+        }
+
+        /**
+         * Stops refreshing the UI, once the loaders have finished, after showing their final progress
+         */
+        private void stop() {
+            if (refreshTimer != null){
+                refreshTimer.stop();
+                SwingUtilities.invokeLater(this::refresh);
+            }
+        }
+
+        /**
+         * Shows the current progress. Only called on the EDT, by the timer
+         */
+        private void refresh() {
+            long total = 0;
+            for (AtomicLong parsed : bytesParsed){
+                total += parsed.get();
+            }
+            loadingBar.setValue((int) ((total / (double) Math.max(1, totalBytes))*(double)loadingBar.getMaximum()));
+
+            // Show how far through each file the loaders are, as they run at the same time
+            String text = stage + ": "
+                + "Film Metadata " + progressOf(StoreType.METADATA) + ", "
+                + "Credits " + progressOf(StoreType.CREDITS) + ", "
+                + "Keywords " + progressOf(StoreType.KEYWORDS) + ", "
+                + "Ratings " + progressOf(StoreType.RATINGS);
+            if (!text.equals(loadingText.getText())){
+                loadingText.setText(text);
+            }
+        }
+
+        private String progressOf(StoreType fileType) {
+            long size = Math.max(1, fileSizes[fileType.ordinal()]);
+            return Math.min(100, bytesParsed[fileType.ordinal()].get() * 100 / size) + "%";
+        }
     }
 
     //Load data into memory from default file locations
@@ -219,7 +571,147 @@ public class LoadData implements Runnable {
         this.loadingBar = loadingBar;
         this.loadingText = loadingText;
         System.out.println("Loading data into record structures (backend)");
+        // The records are added to the stores afterwards, by populate
+        load(creditsPath, keywordsPath, movieMetadataPath, ratingsPath, new BackendSink(), "[1/2] Loading Data into backend");
+    }
 
+    /**
+     * Streams the data files straight into the stores, without keeping a backend copy of the
+     * records, which roughly halves the memory needed while loading. populate does not need
+     * to be called afterwards, and adds nothing if it is.
+     * @param stores The stores to add the data to
+     * @param numMovies Only add the first numMovies films of the movies file, and their credits,
+     *                  keywords and ratings. null adds every film
+     */
+    public LoadData(JProgressBar loadingBar, JLabel loadingText, String creditsPath, String keywordsPath, String movieMetadataPath, String ratingsPath, AbstractStores stores, Integer numMovies) throws DataLoadException{
+        this(loadingBar, loadingText, creditsPath, keywordsPath, movieMetadataPath, ratingsPath, stores, numMovies, null);
+    }
+
+    /**
+     * Fills the stores as above, but from a snapshot of the data files when one has been made
+     * from exactly these files, which skips parsing them altogether. Otherwise the files are
+     * parsed and the snapshot is written alongside, ready for next time. A snapshot that can't
+     * be read part way through is deleted and the files are parsed instead, so a bad snapshot
+     * only ever costs time. Snapshots are only used when every film is loaded
+     * @param snapshotPath Where the snapshot is kept, or null to always parse the files
+     */
+    public LoadData(JProgressBar loadingBar, JLabel loadingText, String creditsPath, String keywordsPath, String movieMetadataPath, String ratingsPath, AbstractStores stores, Integer numMovies, String snapshotPath) throws DataLoadException{
+        this.loadingBar = loadingBar;
+        this.loadingText = loadingText;
+        Instant start = Instant.now();
+
+        File[] dataFiles = {new File(creditsPath), new File(keywordsPath), new File(movieMetadataPath), new File(ratingsPath)};
+        boolean useSnapshot = snapshotPath != null && numMovies == null;
+        StoreSnapshot snapshot = useSnapshot ? new StoreSnapshot(new File(snapshotPath)) : null;
+
+        if (snapshot != null && snapshot.open(dataFiles)){
+            System.out.println("Loading data from snapshot \"" + snapshotPath + "\"");
+            streamedRecords = loadSnapshot(snapshot, stores);
+            if (streamedRecords == null){
+                // Throw away what the snapshot had added, and parse the files instead
+                stores.clear();
+            }
+        }
+        if (streamedRecords == null){
+            System.out.println("Loading data straight into the stores" + (numMovies == null ? "" : " with restriction: " + numMovies + " movies"));
+            StoreSink sink = new StoreSink(stores, numMovies == null ? Integer.MAX_VALUE : numMovies);
+
+            StoreSnapshot.Writer writer = null;
+            if (useSnapshot){
+                try {
+                    writer = new StoreSnapshot.Writer(new File(snapshotPath), dataFiles);
+                }
+                catch (IOException e){
+                    // Loading without a snapshot still works, it just won't be any faster next time
+                    System.err.println("Unable to start writing snapshot \"" + snapshotPath + "\": " + e.getMessage());
+                }
+            }
+
+            try {
+                load(creditsPath, keywordsPath, movieMetadataPath, ratingsPath, writer == null ? sink : new SnapshotSink(sink, writer),
+                     "Loading data into the stores");
+            }
+            catch (DataLoadException e){
+                if (writer != null){
+                    writer.abort();
+                }
+                throw e;
+            }
+            if (writer != null){
+                writer.commit();
+            }
+            streamedRecords = new NumRecordsAdded(sink.credits, sink.keywords, sink.movies, sink.ratings);
+        }
+
+        Duration d = Duration.between(start, Instant.now());
+        System.out.println("Overall time to load stores:");
+        System.out.println(d.toMillis() + "ms");
+    }
+
+    /**
+     * Fills the stores from a snapshot, one store per thread as the stores are independent
+     * @param snapshot The opened snapshot
+     * @param stores The stores to add the data to
+     * @return The numbers of records added, or null if the snapshot turned out to be corrupt,
+     *         in which case the stores are left partly filled
+     */
+    private NumRecordsAdded loadSnapshot(StoreSnapshot snapshot, AbstractStores stores){
+        if (loadingBar != null && loadingText != null){
+            SwingUtilities.invokeLater(() -> loadingText.setText("Loading data from snapshot..."));
+        }
+
+        ExecutorService executor = newLoaderPool(4, "LoadSnapshot");
+        try {
+            Future<Integer> movies   = executor.submit(() -> snapshot.loadMovies(stores.getMovies()));
+            Future<Integer> credits  = executor.submit(() -> snapshot.loadCredits(stores.getCredits()));
+            Future<Integer> keywords = executor.submit(() -> snapshot.loadKeywords(stores.getKeywords()));
+            Future<Integer> ratings  = executor.submit(() -> snapshot.loadRatings(stores.getRatings()));
+            // Every loader is waited for, even once one has failed, so none is still adding
+            // to the stores when they are cleared
+            Future<?>[] loaders = {credits, keywords, movies, ratings};
+            int[] counts = new int[loaders.length];
+            boolean failed = false;
+            for (int i = 0; i < loaders.length; i++){
+                try {
+                    counts[i] = (Integer) awaitLoader(loaders[i]);
+                }
+                catch (DataLoadException e){
+                    failed = true;
+                }
+            }
+            if (failed){
+                // The data files are parsed instead, which writes a new snapshot
+                snapshot.delete();
+                System.err.println("The snapshot of the data files was unreadable and has been deleted, loading the data files instead");
+                return null;
+            }
+            NumRecordsAdded added = new NumRecordsAdded(counts[0], counts[1], counts[2], counts[3]);
+
+            if (loadingBar != null && loadingText != null){
+                SwingUtilities.invokeLater(() -> loadingBar.setValue(loadingBar.getMaximum()));
+            }
+            return added;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets how many records were added when the files were streamed straight into the stores
+     * @return The numbers of records added, or null if the data was loaded into the backend
+     */
+    public NumRecordsAdded getStreamedRecords(){
+        return streamedRecords;
+    }
+
+    /**
+     * Loads all four files, sending every record to a sink
+     * @param sink Where the records go
+     * @param stage What the loading screen says is happening, ahead of the progress of each file
+     * @throws DataLoadException When a file is missing or of the incorrect format
+     */
+    private void load(String creditsPath, String keywordsPath, String movieMetadataPath, String ratingsPath, RecordSink sink, String stage) throws DataLoadException{
         //Create File objects for all input files and check if they are normal files
         String formatString = "Cannot open %s file (%s). Does not exist or is not a normal file";
         File creditsFile = new File(creditsPath);
@@ -234,14 +726,68 @@ public class LoadData implements Runnable {
         File ratingsFile = new File(ratingsPath);
         if (!ratingsFile.isFile())  { throw new DataLoadException(String.format(formatString, "ratings", ratingsPath)); }
 
-        // class to set total number of lines and number of lines for each type so that the actual load function can just do updateUI with what type it is and how many it has loaded
-        FileLoadUiUpdater loadingUiUpdater = new FileLoadUiUpdater(loadingBar, loadingText, creditsFile, keywordsFile, moviesFile, ratingsFile);
+        // Progress is measured against the size of each file, so nothing has to be read before parsing starts
+        FileLoadUiUpdater loadingUiUpdater = new FileLoadUiUpdater(loadingBar, loadingText, stage, creditsFile, keywordsFile, moviesFile, ratingsFile);
+
+        // Parse the files at the same time. The sink decides whether the other files
+        // have to wait for the movies file to finish first.
+        ExecutorService executor = newLoaderPool(4, "LoadData");
+        try {
+            Future<?> metadata = executor.submit(() -> { loadMetadata(moviesFile, loadingUiUpdater, sink); return null; });
+            sink.metadataStarted(metadata);
+            Future<?> credits  = executor.submit(() -> { loadCredits(creditsFile, loadingUiUpdater, sink); return null; });
+            Future<?> keywords = executor.submit(() -> { loadKeywords(keywordsFile, loadingUiUpdater, sink); return null; });
+            Future<?> ratings  = executor.submit(() -> { loadRatings(ratingsFile, loadingUiUpdater, sink); return null; });
+
+            awaitLoader(metadata);
+            awaitLoader(credits);
+            awaitLoader(keywords);
+            awaitLoader(ratings);
+        }
+        finally {
+            executor.shutdownNow(); // Stop any loaders still running if one of them failed
+            loadingUiUpdater.stop();
+        }
+    }
+
+    /**
+     * Creates a pool of daemon threads for loading, so a stuck load never keeps the program open
+     * @param numThreads The number of threads in the pool
+     * @param name The name given to each thread
+     * @return The pool
+     */
+    private ExecutorService newLoaderPool(int numThreads, String name){
+        return Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-        //Load Metadata first to load validMovieIds
-        Set<Integer> validMovies = loadMetadata(moviesFile, loadingUiUpdater);
-        loadCredits(creditsFile, loadingUiUpdater, validMovies);
-        loadKeywords(keywordsFile, loadingUiUpdater, validMovies);
-        loadRatings(ratingsFile, loadingUiUpdater, validMovies);
+    /**
+     * Waits for a file loader to finish, passing on any DataLoadException it threw
+     * @param loader The running loader
+     * @return The loader's result
+     * @throws DataLoadException If the loader failed or was interrupted
+     */
+    private <T> T awaitLoader(Future<T> loader) throws DataLoadException {
+        try {
+            return loader.get();
+        }
+        catch (ExecutionException e){
+            if (e.getCause() instanceof DataLoadException){
+                throw (DataLoadException) e.getCause();
+            }
+            String message = "Unexpected error while loading data: " + e.getCause();
+            System.err.println(message);
+            throw new DataLoadException(message);
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            String message = "Interrupted while loading data";
+            System.err.println(message);
+            throw new DataLoadException(message);
+        }
     }
 
     public int getNumMovieRecords(){
@@ -249,7 +795,7 @@ public class LoadData implements Runnable {
     }
 
     public int getNumRatingRecords(){
-        return backendRatings.size();
+        return backendRatings.size;
     }
 
     public int getNumCreditRecords(){
@@ -348,14 +894,14 @@ public class LoadData implements Runnable {
         ArrayList<MovieRecord> movieRecords;
         ArrayList<CreditRecord> creditRecords;
         ArrayList<KeywordRecord> keywordRecords;
-        ArrayList<RatingRecord> ratingRecords;
+        int[] ratingRows; // null means every row
 
         if (!loadSection){
             //Load in the whole dataset
             movieRecords   = backendMovies;
             creditRecords  = backendCredits;
             keywordRecords = backendKeywords;
-            ratingRecords  = backendRatings;
+            ratingRows     = null;
         }
         else{
             if (firstMovieIndex < 0 || numMovies <=0){
@@ -378,66 +924,85 @@ public class LoadData implements Runnable {
             //update the other stores
             creditRecords = new ArrayList<>();
             keywordRecords = new ArrayList<>();
-            ratingRecords = new ArrayList<>();
+            ArrayList<int[]> movieRatingRows = new ArrayList<>();
+            int numRatingRows = 0;
             for (int movieid : movieIds){
                 if (backendCreditsByMovieId.containsKey(movieid)){ creditRecords.add(backendCreditsByMovieId.get(movieid)); }
                 if (backendKeywordsByMovieId.containsKey(movieid)){ keywordRecords.add(backendKeywordsByMovieId.get(movieid)); }
-                if (backendRatingsByMovieId.containsKey(movieid)){ ratingRecords.addAll(backendRatingsByMovieId.get(movieid)); }
+                if (backendRatingsByMovieId.containsKey(movieid)){
+                    int[] rows = backendRatingsByMovieId.get(movieid);
+                    movieRatingRows.add(rows);
+                    numRatingRows += rows.length;
+                }
+            }
+            ratingRows = new int[numRatingRows];
+            int next = 0;
+            for (int[] rows : movieRatingRows){
+                System.arraycopy(rows, 0, ratingRows, next, rows.length);
+                next += rows.length;
             }
         }
 
+        System.out.println("Populating Movies Store...");
         populateMovies(movies, movieRecords);
+        System.out.println("Populating Credits Store...");
         populateCredits(credits, creditRecords);
+        System.out.println("Populating Keywords Store...");
         populateKeywords(keywords, keywordRecords);
-        populateRatings(ratings, ratingRecords);
+        System.out.println("Populating Ratings Store...");
+        int numRatings = populateRatings(ratings, ratingRows);
 
         Instant end = Instant.now();
         Duration d = Duration.between(start, end);
         System.out.println("Overall time to populate stores:");
         System.out.println(d.toMillis() + "ms");
 
-        return new NumRecordsAdded(creditRecords.size(), keywordRecords.size(), movieRecords.size(), ratingRecords.size());
+        return new NumRecordsAdded(creditRecords.size(), keywordRecords.size(), movieRecords.size(), numRatings);
     }
 
 
+    // Each store is given its records in one call, so it can size its structures and
+    // build its indexes once rather than record by record
+
     private void populateCredits(ICredits credits, ArrayList<CreditRecord> creditRecords){
-        System.out.println("Populating Credits Store...");
-        for (CreditRecord cr : creditRecords){
-            credits.add(cr.cast, cr.crew, cr.movieId);
+        int count = creditRecords.size();
+        CastCredit[][] cast = new CastCredit[count][];
+        CrewCredit[][] crew = new CrewCredit[count][];
+        int[] movieIds = new int[count];
+        for (int i = 0; i < count; i++){
+            CreditRecord cr = creditRecords.get(i);
+            cast[i] = cr.cast;
+            crew[i] = cr.crew;
+            movieIds[i] = cr.movieId;
         }
+        credits.addAll(cast, crew, movieIds);
     }
     
     private void populateKeywords(IKeywords keywords, ArrayList<KeywordRecord> keywordRecords){
-        System.out.println("Populating Keywords Store...");
-        for (KeywordRecord kr : keywordRecords){
-            keywords.add(kr.movieId, kr.keywords);
+        int count = keywordRecords.size();
+        int[] movieIds = new int[count];
+        Keyword[][] movieKeywords = new Keyword[count][];
+        for (int i = 0; i < count; i++){
+            movieIds[i] = keywordRecords.get(i).movieId;
+            movieKeywords[i] = keywordRecords.get(i).keywords;
         }
+        keywords.addAll(movieIds, movieKeywords);
     }
 
     private void populateMovies(IMovies movies, ArrayList<MovieRecord> movieRecords){
-        System.out.println("Populating Movies Store...");
-        for (MovieRecord mr : movieRecords){
-            movies.add(mr.id, mr.title, mr.originalTitle, mr.overview, mr.tagline, mr.status, mr.genres, mr.release, mr.budget, mr.revenue, mr.languages, mr.originalLanguage, mr.runtime, mr.homepage, mr.adult, mr.video, mr.poster);
-
-            movies.setVote(mr.id, mr.voteAverage, mr.voteCount);
-            movies.setIMDB(mr.id, mr.imdb);
-            movies.setPopularity(mr.id, mr.popularity);
-            movies.addToCollection(mr.id, mr.collectionID, mr.collectionName, mr.collectionPosterPath, mr.collectionBackdropPath);
-            for (Company c : mr.productionCompanies){
-                movies.addProductionCompany(mr.id, c);
-            }
-
-            for (String country : mr.productionCountries){
-                movies.addProductionCountry(mr.id, country);
-            }
-        }
+        movies.addAll(movieRecords.toArray(new MovieRecord[0]));
     }
 
-    private void populateRatings(IRatings ratings, ArrayList<RatingRecord> ratingRecords){
-        System.out.println("Populating Ratings Store...");
-        for (RatingRecord rr : ratingRecords){
-            ratings.add(rr.userId, rr.movieId, rr.rating, rr.timestamp);
-        }
+    /**
+     * Adds ratings from the backend columns to the ratings store
+     * @param ratings The ratings store
+     * @param ratingRows The rows to add, or null to add every row
+     * @return The number of ratings added
+     */
+    private int populateRatings(IRatings ratings, int[] ratingRows){
+        RatingColumns rc = ratingRows == null ? backendRatings : backendRatings.select(ratingRows, ratingRows.length);
+        ratings.addAll(rc.userIds, rc.movieIds, rc.ratings, rc.timestamps, rc.size);
+        return rc.size;
     }
 
 
@@ -456,77 +1021,118 @@ public class LoadData implements Runnable {
     /*                                                  */
     /****************************************************/
 
-    private void loadCredits(File creditsCsvFile, FileLoadUiUpdater loadingUiUpdater, Set<Integer> validMovies) throws DataLoadException {
+    // The keys read from each kind of json object, in the order the loaders' switch statements number them
+    private static final JsonExtractor.Keys CAST_KEYS       = new JsonExtractor.Keys("cast_id", "character", "credit_id", "id", "name", "order", "profile_path");
+    private static final JsonExtractor.Keys CREW_KEYS       = new JsonExtractor.Keys("credit_id", "department", "id", "job", "name", "profile_path");
+    private static final JsonExtractor.Keys ID_NAME_KEYS    = new JsonExtractor.Keys("id", "name");
+    private static final JsonExtractor.Keys COLLECTION_KEYS = new JsonExtractor.Keys("id", "name", "poster_path", "backdrop_path");
+    private static final JsonExtractor.Keys LANGUAGE_KEYS   = new JsonExtractor.Keys("iso_639_1");
+    private static final JsonExtractor.Keys COUNTRY_KEYS    = new JsonExtractor.Keys("iso_3166_1");
+
+    private void loadCredits(File creditsCsvFile, FileLoadUiUpdater loadingUiUpdater, RecordSink sink) throws DataLoadException {
         System.out.println("\nLoading credits from \"" + creditsCsvFile.getPath() + "\"...");
 
-        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                            .setHeader()
-                            .setSkipHeaderRecord(true)
-                            .build();
         int record_count = 1;
-        try (CSVParser parser = CSVParser.parse(creditsCsvFile, Charset.forName("UTF-8"), csvFormat)){
-            for (CSVRecord csvRecord : parser){
-                if (csvRecord.size() != 3){
-                    throw new DataLoadException("[CREDITS] Incorrect number of csv fields in record number: " + record_count + ". Number of fields found: " + csvRecord.size());
+        try {
+            long bytesReported = 0;
+            CsvTokenizer csv = CsvTokenizer.open(creditsCsvFile);
+            csv.readHeader();
+            int castColumn = csv.columnIndex("cast");
+            int crewColumn = csv.columnIndex("crew");
+            int idColumn   = csv.columnIndex("tmdb_id");
+            int textSource = Constants.lazyTextFields ? LazyText.register(creditsCsvFile, LazyText.Encoding.PYTHON_STRING) : 0;
+            JsonExtractor json = new JsonExtractor();
+            ArrayList<CastCredit> castBuffer = new ArrayList<>(); // Reused for every record
+            ArrayList<CrewCredit> crewBuffer = new ArrayList<>();
+            IdSet seenMovies = new IdSet();
+            while (csv.nextRecord()){
+                if (csv.size() != 3){
+                    throw new DataLoadException("[CREDITS] Incorrect number of csv fields in record number: " + record_count + ". Number of fields found: " + csv.size());
                 }
 
-                // Parse cast
-                JSONArray castJsonArray = new JSONArray(csvRecord.get("cast"));
-                CastCredit[] castArray = new CastCredit[castJsonArray.length()];
-                for (int i = 0; i < castJsonArray.length(); i++){
+                // Parse cast, reading only the keys that are stored (gender is skipped)
+                json.reset(csv, castColumn);
+                json.beginArray();
+                castBuffer.clear();
+                while (json.hasNext()){
                     // Each cast member
-                    JSONObject castJsonObject = castJsonArray.getJSONObject(i);
-
-                    int castElementId  = castJsonObject.getInt("cast_id");
-                    String character   = castJsonObject.getString("character");
-                    String creditId    = castJsonObject.getString("credit_id");
-                    int gender         = castJsonObject.getInt("gender"); //Note: ignoring this field
-                    int castId         = castJsonObject.getInt("id");
-                    String name        = castJsonObject.getString("name");
-                    int order          = castJsonObject.getInt("order"); 
-                    String profilePath = castJsonObject.getString("profile_path");
-
-                    castArray[i] = new CastCredit(castElementId, character, creditId, 
-                                            castId, name, order, profilePath);
+                    json.beginObject();
+                    int castElementId = 0, castId = 0, order = 0;
+                    String character = null, creditId = null, name = null, profilePath = null;
+                    long characterRef = LazyText.NONE;
+                    while (json.nextKey()){
+                        switch (json.matchKey(CAST_KEYS)){
+                            case 0:  castElementId = json.readInt(); break;
+                            case 1:
+                                // Characters are only read when they are shown, if textSource allows it
+                                characterRef = textSource == 0 ? LazyText.NONE : json.readStringRef(textSource);
+                                if (characterRef == LazyText.NONE) character = json.readString();
+                                break;
+                            case 2:  creditId      = json.readString(); break;
+                            case 3:  castId        = json.readInt(); break;
+                            case 4:  name          = json.readString(); break;
+                            case 5:  order         = json.readInt(); break;
+                            case 6:  profilePath   = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(CAST_KEYS);
+
+                    if (characterRef != LazyText.NONE){
+                        castBuffer.add(new CastCredit(castElementId, characterRef, creditId, castId, name, order, profilePath));
+                    }
+                    else {
+                        castBuffer.add(new CastCredit(castElementId, character, creditId, 
+                                                castId, name, order, profilePath));
+                    }
                 }
+                CastCredit[] castArray = castBuffer.toArray(new CastCredit[castBuffer.size()]);
 
                 // Parse crew
-                JSONArray crewJsonArray = new JSONArray(csvRecord.get("crew"));
-                CrewCredit[] crewArray = new CrewCredit[crewJsonArray.length()];
-                for (int i = 0; i < crewJsonArray.length(); i++){
+                json.reset(csv, crewColumn);
+                json.beginArray();
+                crewBuffer.clear();
+                while (json.hasNext()){
                     // Each crew member
-                    JSONObject crewJsonObject = crewJsonArray.getJSONObject(i);
-                    String crewElementId = crewJsonObject.getString("credit_id");
-                    String department    = crewJsonObject.getString("department");
-                    int gender           = crewJsonObject.getInt("gender"); //Note: ignoring this field
-                    int crewId           = crewJsonObject.getInt("id");
-                    String job           = crewJsonObject.getString("job");
-                    String name          = crewJsonObject.getString("name");
-                    String profilePath   = crewJsonObject.getString("profile_path");
-
-                    crewArray[i] = new CrewCredit(crewElementId, department, crewId, job, name, profilePath);
+                    json.beginObject();
+                    int crewId = 0;
+                    String crewElementId = null, department = null, job = null, name = null, profilePath = null;
+                    while (json.nextKey()){
+                        switch (json.matchKey(CREW_KEYS)){
+                            case 0:  crewElementId = json.readString(); break;
+                            case 1:  department    = json.readString(); break;
+                            case 2:  crewId        = json.readInt(); break;
+                            case 3:  job           = json.readString(); break;
+                            case 4:  name          = json.readString(); break;
+                            case 5:  profilePath   = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(CREW_KEYS);
+
+                    crewBuffer.add(new CrewCredit(crewElementId, department, crewId, job, name, profilePath));
                 }
+                CrewCredit[] crewArray = crewBuffer.toArray(new CrewCredit[crewBuffer.size()]);
 
                 // Parse top level id in csv file (never empty)
-                int movieId = Integer.parseInt(csvRecord.get("tmdb_id"));
+                int movieId = csv.getInt(idColumn);
 
-                if (!validMovies.contains(movieId)){
-                    String message = "Credits file contains a credit for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
-                    throw new DataLoadException(message);
-                }
-                
-                if (backendCreditsByMovieId.containsKey(movieId)){
+                if (seenMovies.contains(movieId)){
                     String message = "Credits file contains multiple records for movie (id:" + movieId + ")";
                     throw new DataLoadException(message);
                 }
+                seenMovies.add(movieId);
 
-                CreditRecord cr = new CreditRecord(castArray, crewArray, movieId);
-                backendCredits.add(cr);
-                backendCreditsByMovieId.put(movieId, cr);
+                sink.addCredits(new CreditRecord(castArray, crewArray, movieId));
 
-                loadingUiUpdater.incrementUI(StoreType.CREDITS, record_count++);
+                if (record_count++ % FileLoadUiUpdater.UPDATE_INTERVAL == 0){
+                    bytesReported = loadingUiUpdater.addBytes(StoreType.CREDITS, bytesReported, csv.offset());
+                }
                 
             } //for each csv record
+
+            loadingUiUpdater.addBytes(StoreType.CREDITS, bytesReported, creditsCsvFile.length());
+            sink.finish(StoreType.CREDITS);
         }
         catch (IOException e){
             String message = "[ UNRECOVERABLE I/O ERROR ] Unable to open credits file ('" + creditsCsvFile.getPath() +"') for parsing. Please make sure it is in the 'data' directory.";
@@ -535,7 +1141,14 @@ public class LoadData implements Runnable {
             System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
-        catch (JSONException e){
+        catch (IllegalArgumentException e){
+            String message = "[" + record_count + "] --CREDITS-- Unable to read csv. Item for specified header not found.";
+            System.err.println(message);
+            System.err.println(e.getMessage());
+            System.err.println(e.getStackTrace());
+            throw new DataLoadException(message);
+        }
+        catch (JsonExtractor.JsonFormatException e){
             String message = "[" + record_count + "] --CREDITS-- Unable to read json. Key not found or cannot convert to correct type.";
             System.err.println(message);
             System.err.println(e.getMessage());
@@ -545,55 +1158,65 @@ public class LoadData implements Runnable {
 
     }
 
-    private void loadKeywords(File keywordsCsvFile, FileLoadUiUpdater loadingUiUpdater, Set<Integer> validMovies) throws DataLoadException {
+    private void loadKeywords(File keywordsCsvFile, FileLoadUiUpdater loadingUiUpdater, RecordSink sink) throws DataLoadException {
         System.out.println("\nLoading keywords from \"" + keywordsCsvFile.getPath() + "\"...");
 
-        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                            .setHeader()
-                            .setSkipHeaderRecord(true)
-                            .build();
         int record_count = 1;
-        try (CSVParser parser = CSVParser.parse(keywordsCsvFile, Charset.forName("UTF-8") , csvFormat)){
-            for (CSVRecord csvRecord : parser){ // For every csv line, excluding the header
-                if (csvRecord.size() != 2){
-                    throw new DataLoadException("[KEYWORDS] Incorrect number of csv fields in record number: " + record_count + ". Number of fields found: " + csvRecord.size());
+        try {
+            long bytesReported = 0;
+            CsvTokenizer csv = CsvTokenizer.open(keywordsCsvFile);
+            csv.readHeader();
+            int idColumn       = csv.columnIndex("tmdb_id");
+            int keywordsColumn = csv.columnIndex("keywords");
+            JsonExtractor json = new JsonExtractor();
+            ArrayList<Keyword> keywordBuffer = new ArrayList<>(); // Reused for every record
+            IdSet seenMovies = new IdSet();
+            while (csv.nextRecord()){ // For every csv line, excluding the header
+                if (csv.size() != 2){
+                    throw new DataLoadException("[KEYWORDS] Incorrect number of csv fields in record number: " + record_count + ". Number of fields found: " + csv.size());
                 }
 
-                int movieId = Integer.parseInt(csvRecord.get("tmdb_id"));
+                int movieId = csv.getInt(idColumn);
 
                 // Check if have already parsed a keyword record for that movieId 
                 // (if there are multiple lines for that movieId in the file)
-                if (backendKeywordsByMovieId.containsKey(movieId)){
+                if (seenMovies.contains(movieId)){
                     String message = "Keywords file contains multiple records for movie (id:" + movieId + ")";
                     throw new DataLoadException(message);
                 }
+                seenMovies.add(movieId);
 
-                // Check if this line in the keywords file is referring to a movie that actually exists
-                if (!validMovies.contains(movieId)){
-                    String message = "Keywords file contains a keyword record for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
-                    throw new DataLoadException(message);
-                }
-
-                JSONArray jsonKeywordArray = new JSONArray(csvRecord.get("keywords"));
-                
-                Keyword[] keywordArray = new Keyword[jsonKeywordArray.length()];
                 // Read from the json keyword array that looks like "[{'id':100, 'name':'based on the novel'},...]"
-                for (int i = 0; i < jsonKeywordArray.length(); i++){
-                    JSONObject jsonKeyword = jsonKeywordArray.getJSONObject(i); 
+                json.reset(csv, keywordsColumn);
+                json.beginArray();
+                keywordBuffer.clear();
+                while (json.hasNext()){
                     // each {'id':100, 'name':'based on the novel'} in the array
-
-                    int keyword_id      = jsonKeyword.getInt("id");
-                    String keyword_name = jsonKeyword.getString("name");
-                    
-                    keywordArray[i] = new Keyword(keyword_id, keyword_name);
+                    json.beginObject();
+                    int keyword_id = 0;
+                    String keyword_name = null;
+                    while (json.nextKey()){
+                        switch (json.matchKey(ID_NAME_KEYS)){
+                            case 0:  keyword_id   = json.readInt(); break;
+                            case 1:  keyword_name = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(ID_NAME_KEYS);
+
+                    keywordBuffer.add(new Keyword(keyword_id, keyword_name));
                 }
+                Keyword[] keywordArray = keywordBuffer.toArray(new Keyword[keywordBuffer.size()]);
 
-                KeywordRecord kr = new KeywordRecord(movieId, keywordArray);
-                backendKeywords.add(kr);
-                backendKeywordsByMovieId.put(movieId, kr);
+                sink.addKeywords(new KeywordRecord(movieId, keywordArray));
                 
-                loadingUiUpdater.incrementUI(StoreType.KEYWORDS, record_count++);
+                if (record_count++ % FileLoadUiUpdater.UPDATE_INTERVAL == 0){
+                    bytesReported = loadingUiUpdater.addBytes(StoreType.KEYWORDS, bytesReported, csv.offset());
+                }
             }
+
+            loadingUiUpdater.addBytes(StoreType.KEYWORDS, bytesReported, keywordsCsvFile.length());
+            sink.finish(StoreType.KEYWORDS);
         }
         catch (IOException e){
             String message = "[ UNRECOVERABLE I/O ERROR ] Unable to open keyword file ('" + keywordsCsvFile.getPath() +"') for parsing. Please make sure it is in the 'data' directory.";
@@ -609,7 +1232,7 @@ public class LoadData implements Runnable {
             System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
-        catch (JSONException e){
+        catch (JsonExtractor.JsonFormatException e){
             String message = "[" + record_count + "] --KEYWORDS-- Unable to read json. Key not found or cannot convert to correct type.";
             System.err.println(message);
             System.err.println(e.getMessage());
@@ -622,134 +1245,183 @@ public class LoadData implements Runnable {
      * Load Film data from csv file.
      * @param metadataCsvFile
      * @param loadingUiUpdater
-     * @return Set of movie IDs that were loaded
+     * @param sink Where each movie is sent
      * @throws DataLoadException
      */
-    private Set<Integer> loadMetadata(File metadataCsvFile, FileLoadUiUpdater loadingUiUpdater) throws DataLoadException {
+    private void loadMetadata(File metadataCsvFile, FileLoadUiUpdater loadingUiUpdater, RecordSink sink) throws DataLoadException {
         System.out.println("\nLoading movies metadata from \"" + metadataCsvFile.getPath() + "\"...");
-        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                            .setHeader()
-                            .setSkipHeaderRecord(true)
-                            .build();
         int record_count = 0;
-        try (CSVParser parser = CSVParser.parse(metadataCsvFile, Charset.forName("UTF-8"), csvFormat)){
-            for (CSVRecord csvRecord : parser){ // For each record line in the file
-                if (csvRecord.size() != 24) {
-                    throw new DataLoadException("[" + record_count + "] --METADATA-- Incorrect number of fields. Number of fields found: " + csvRecord.size());
+        try {
+            long bytesReported = 0;
+            CsvTokenizer csv = CsvTokenizer.open(metadataCsvFile);
+            csv.readHeader();
+            // Look up every column once, rather than by name on each record
+            int idColumn                  = csv.columnIndex("tmdb_id");
+            int budgetColumn              = csv.columnIndex("budget");
+            int revenueColumn             = csv.columnIndex("revenue");
+            int runtimeColumn             = csv.columnIndex("runtime");
+            int adultColumn               = csv.columnIndex("adult");
+            int videoColumn               = csv.columnIndex("video");
+            int voteAverageColumn         = csv.columnIndex("vote_average");
+            int voteCountColumn           = csv.columnIndex("vote_count");
+            int imdbIdColumn              = csv.columnIndex("imdb_id");
+            int popularityColumn          = csv.columnIndex("popularity");
+            int titleColumn               = csv.columnIndex("title");
+            int originalTitleColumn       = csv.columnIndex("original_title");
+            int overviewColumn            = csv.columnIndex("overview");
+            int taglineColumn             = csv.columnIndex("tagline");
+            int statusColumn              = csv.columnIndex("status");
+            int originalLanguageColumn    = csv.columnIndex("original_language");
+            int homepageColumn            = csv.columnIndex("homepage");
+            int posterPathColumn          = csv.columnIndex("poster_path");
+            int genresColumn              = csv.columnIndex("genres");
+            int spokenLanguagesColumn     = csv.columnIndex("spoken_languages");
+            int releaseDateColumn         = csv.columnIndex("release_date");
+            int collectionColumn          = csv.columnIndex("belongs_to_collection");
+            int productionCompaniesColumn = csv.columnIndex("production_companies");
+            int productionCountriesColumn = csv.columnIndex("production_countries");
+            int textSource = Constants.lazyTextFields ? LazyText.register(metadataCsvFile, LazyText.Encoding.CSV) : 0;
+            JsonExtractor json = new JsonExtractor();
+            IdSet seenMovies = new IdSet();
+
+            while (csv.nextRecord()){ // For each record line in the file
+                if (csv.size() != 24) {
+                    throw new DataLoadException("[" + record_count + "] --METADATA-- Incorrect number of fields. Number of fields found: " + csv.size());
                 }
 
-                int movieId = Integer.parseInt(csvRecord.get("tmdb_id"));
+                int movieId = csv.getInt(idColumn);
 
                 //HARD FAIL if duplicate movies exist in the input file
-                if (backendMoviesByMovieId.containsKey(movieId)){
+                if (seenMovies.contains(movieId)){
                     throw new DataLoadException("[" + record_count + "] --METADATA-- Input file ('" + metadataCsvFile.getPath() +"') contains duplicate Movie! id: " + movieId);
                 }
+                seenMovies.add(movieId);
 
                 // Parse simple fields
-                long budget    = Long.parseLong(csvRecord.get("budget"));
-                long revenue   = Long.parseLong(csvRecord.get("revenue"));
-                String runtime_in_file = csvRecord.get("runtime");
+                long budget    = csv.getLong(budgetColumn);
+                long revenue   = csv.getLong(revenueColumn);
                 double runtime;
-                if (runtime_in_file.equals("")){ 
+                if (csv.isEmpty(runtimeColumn)){ 
                     runtime = -1; 
                 }
                 else{ 
-                    runtime = Double.parseDouble(csvRecord.get("runtime")); 
+                    runtime = csv.getDouble(runtimeColumn); 
                 }
-                boolean adult       = Boolean.parseBoolean(csvRecord.get("adult"));
-                boolean video       = Boolean.parseBoolean(csvRecord.get("video"));
+                boolean adult       = csv.getBoolean(adultColumn);
+                boolean video       = csv.getBoolean(videoColumn);
 
                 //Imdb
-                double vote_average = Double.parseDouble(csvRecord.get("vote_average"));
-                int vote_count      = Integer.parseInt(csvRecord.get("vote_count"));
-                String imdbId       = csvRecord.get("imdb_id");
-                Double popularity   = Double.parseDouble(csvRecord.get("popularity"));
-
-                String title            = csvRecord.get("title");
-                String originalTitle    = csvRecord.get("original_title");
-                String overview         = csvRecord.get("overview");
-                String tagline          = csvRecord.get("tagline");
-                String status           = csvRecord.get("status");
-                String originalLanguage = csvRecord.get("original_language");
-                String homepage         = csvRecord.get("homepage");
-                String poster_path      = csvRecord.get("poster_path");
+                double vote_average = csv.getDouble(voteAverageColumn);
+                int vote_count      = csv.getInt(voteCountColumn);
+                String imdbId       = csv.getString(imdbIdColumn);
+                Double popularity   = csv.getDouble(popularityColumn);
+
+                String title            = csv.getString(titleColumn);
+                String originalTitle    = csv.getString(originalTitleColumn);
+                String status           = csv.getString(statusColumn);
+                String originalLanguage = csv.getString(originalLanguageColumn);
+
+                // The long text that is only shown on the film screen is read when a film is
+                // shown, if textSource allows it. Overviews are searched, so they are always read
+                String overview  = csv.getString(overviewColumn);
+                long taglineRef  = csvTextRef(csv, taglineColumn, textSource);
+                long homepageRef = csvTextRef(csv, homepageColumn, textSource);
+                String tagline   = taglineRef == LazyText.NONE ? csv.getString(taglineColumn) : null;
+                String homepage  = homepageRef == LazyText.NONE ? csv.getString(homepageColumn) : null;
+                String poster_path      = csv.getString(posterPathColumn);
 
                 // Parse Genres
-                JSONArray jsonGenreArray = new JSONArray(csvRecord.get("genres"));
-                Genre[] genreArray = new Genre[jsonGenreArray.length()];
-                for (int i = 0; i < jsonGenreArray.length(); i++){
-                    JSONObject gObject = jsonGenreArray.getJSONObject(i);
-                    int genreId = gObject.getInt("id");
-                    String genreName = gObject.getString("name");
-                    genreArray[i] = new Genre(genreId, genreName);
+                json.reset(csv, genresColumn);
+                json.beginArray();
+                ArrayList<Genre> genres = new ArrayList<>();
+                while (json.hasNext()){
+                    json.beginObject();
+                    int genreId = 0;
+                    String genreName = null;
+                    while (json.nextKey()){
+                        switch (json.matchKey(ID_NAME_KEYS)){
+                            case 0:  genreId   = json.readInt(); break;
+                            case 1:  genreName = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(ID_NAME_KEYS);
+                    genres.add(new Genre(genreId, genreName));
                 }
+                Genre[] genreArray = genres.toArray(new Genre[genres.size()]);
 
                 // Parse Languages
-                JSONArray jsonLanguageArray = new JSONArray(csvRecord.get("spoken_languages"));
-                String[] languageArray = new String[jsonLanguageArray.length()];
-                for (int i = 0; i < jsonLanguageArray.length(); i++){
-                    JSONObject lObject = jsonLanguageArray.getJSONObject(i);
-                    String lang_short = lObject.getString("iso_639_1");
-                    languageArray[i] = lang_short;
-                }
+                String[] languageArray = readCodes(json, csv, spokenLanguagesColumn, LANGUAGE_KEYS);
 
                 // Parse Release Date
-                String release_in_file = csvRecord.get("release_date");
                 LocalDate release;
-                if (!release_in_file.equals("")){
-                    release = LocalDate.parse(csvRecord.get("release_date"));
+                if (!csv.isEmpty(releaseDateColumn)){
+                    release = LocalDate.parse(csv.getString(releaseDateColumn));
                 }
                 else{
                     release = null;
                 }
 
                 // Add Collection
-                String collectionString = csvRecord.get("belongs_to_collection");
                 int collectionId = -1;
                 String collectionName = null;
                 String collectionPoster = null;   //Note: currently unused
                 String collectionBackdrop = null; //Note: currently unused
-                if (!collectionString.equals("")){
-                    JSONObject collectionObject = new JSONObject(csvRecord.get("belongs_to_collection"));
-                    collectionId       = collectionObject.getInt("id");
-                    collectionName     = collectionObject.getString("name");
-                    collectionPoster   = collectionObject.getString("poster_path");
-                    collectionBackdrop = collectionObject.getString("backdrop_path");
+                if (!csv.isEmpty(collectionColumn)){
+                    json.reset(csv, collectionColumn);
+                    json.beginObject();
+                    while (json.nextKey()){
+                        switch (json.matchKey(COLLECTION_KEYS)){
+                            case 0:  collectionId       = json.readInt(); break;
+                            case 1:  collectionName     = json.readString(); break;
+                            case 2:  collectionPoster   = json.readString(); break;
+                            case 3:  collectionBackdrop = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(COLLECTION_KEYS);
                 }
 
                 // Add Companies
-                JSONArray jsonCompanyArray = new JSONArray(csvRecord.get("production_companies"));
-                Company[] companyArray = new Company[jsonCompanyArray.length()];
-                for (int i = 0; i < jsonCompanyArray.length(); i++){
-                    JSONObject jsonCompanyObject = jsonCompanyArray.getJSONObject(i);
-                    String companyName = jsonCompanyObject.getString("name");
-                    int companyId = jsonCompanyObject.getInt("id");
-                    companyArray[i] = new Company(companyId, companyName);
+                json.reset(csv, productionCompaniesColumn);
+                json.beginArray();
+                ArrayList<Company> companies = new ArrayList<>();
+                while (json.hasNext()){
+                    json.beginObject();
+                    int companyId = 0;
+                    String companyName = null;
+                    while (json.nextKey()){
+                        switch (json.matchKey(ID_NAME_KEYS)){
+                            case 0:  companyId   = json.readInt(); break;
+                            case 1:  companyName = json.readString(); break;
+                            default: json.skipValue();
+                        }
+                    }
+                    json.requireAll(ID_NAME_KEYS);
+                    companies.add(new Company(companyId, companyName));
                 }
+                Company[] companyArray = companies.toArray(new Company[companies.size()]);
 
                 // Add Countries
-                JSONArray jsonCountryArray = new JSONArray(csvRecord.get("production_countries"));
-                String[] countryArray = new String[jsonCountryArray.length()];
-                for (int i = 0; i < jsonCountryArray.length(); i++){
-                    JSONObject jsonCountryObject = jsonCountryArray.getJSONObject(i);
-                    String countryIdShort = jsonCountryObject.getString("iso_3166_1");
-
-                    countryArray[i] = countryIdShort;
-                }
+                String[] countryArray = readCodes(json, csv, productionCountriesColumn, COUNTRY_KEYS);
 
                 MovieRecord mr = new MovieRecord(movieId, collectionName, title, originalTitle, overview, tagline, 
                     status, genreArray, release, budget, revenue, languageArray, originalLanguage, 
                     runtime, homepage, adult, video, poster_path, vote_average, vote_count, collectionId, 
                     collectionName, collectionPoster, collectionBackdrop, imdbId, popularity, companyArray, countryArray);
+                mr.taglineRef = taglineRef;
+                mr.homepageRef = homepageRef;
                 
-                backendMovies.add(mr);
-                backendMoviesByMovieId.put(movieId, mr);
+                sink.addMovie(mr);
                 
-                loadingUiUpdater.incrementUI(StoreType.METADATA, record_count++);
+                if (record_count++ % FileLoadUiUpdater.UPDATE_INTERVAL == 0){
+                    bytesReported = loadingUiUpdater.addBytes(StoreType.METADATA, bytesReported, csv.offset());
+                }
 
             } //for each record
 
-            return backendMoviesByMovieId.keySet();
+            loadingUiUpdater.addBytes(StoreType.METADATA, bytesReported, metadataCsvFile.length());
+            sink.finish(StoreType.METADATA);
 
         }
         catch (IOException e){
@@ -773,82 +1445,226 @@ public class LoadData implements Runnable {
             System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
+        catch (JsonExtractor.JsonFormatException e){
+            String message = "[" + record_count + "] --MOVIE METADATA-- Unable to read json. Key not found or cannot convert to correct type.";
+            System.err.println(message);
+            System.err.println(e.getMessage());
+            System.err.println(e.getStackTrace());
+            throw new DataLoadException(message);
+        }
     }
 
+    /**
+     * Makes a reference to a CSV field, so it can be read when it is first needed
+     * @param csv The tokenizer positioned on the record
+     * @param field The column
+     * @param textSource The LazyText source number of the file, or 0 to read it straight away
+     * @return The reference, or LazyText.NONE if the field should be read straight away
+     */
+    private long csvTextRef(CsvTokenizer csv, int field, int textSource){
+        if (textSource == 0 || csv.isEmpty(field) || csv.rawLength(field) > LazyText.MAX_LENGTH){
+            return LazyText.NONE;
+        }
+        return LazyText.ref(textSource, csv.fileOffset(field), csv.rawLength(field), csv.hasEscapes(field) ? LazyText.CSV_ESCAPED : 0);
+    }
 
-
-
-
-    /***
-     * Load the Ratings file into RatingRecord objects in backend datastructures
-     * @param ratingsCsvFile The file to load in
-     * @param loadUiUpdater
-     * @param validMovies The set of movies that have been parsed from the movies file
-     * @throws DataLoadException When the file is of the incorrect format
+    /**
+     * Reads a json array of objects that each have a code, such as "[{'iso_639_1': 'en', 'name': 'English'},...]",
+     * keeping only the codes
+     * @param json The extractor to read with
+     * @param csv The tokenizer positioned on the record
+     * @param column The column holding the array
+     * @param codeKey The key of the code
+     * @return The codes in the array
      */
-    private void loadRatings(File ratingsCsvFile, FileLoadUiUpdater loadUiUpdater, Set<Integer> validMovies) throws DataLoadException {
-        System.out.println("\nLoading ratings from \"" + ratingsCsvFile.getPath() + "\"...\n\n");
-        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                            .setHeader()
-                            .setSkipHeaderRecord(true)
-                            .build();
-        int record_count = 0;
-        try (CSVParser parser = CSVParser.parse(ratingsCsvFile, Charset.forName("utf-8"), csvFormat)){
-            for (CSVRecord csvRecord : parser){
-                //For each record in csv file
-                if (csvRecord.size() != 5){
-                    String message = "[" + record_count + "] --RATINGS-- Incorrect list of ratings... No. fields found = " + csvRecord.size();
-                    throw new DataLoadException(message);
+    private String[] readCodes(JsonExtractor json, CsvTokenizer csv, int column, JsonExtractor.Keys codeKey){
+        json.reset(csv, column);
+        json.beginArray();
+        ArrayList<String> codes = new ArrayList<>();
+        while (json.hasNext()){
+            json.beginObject();
+            String code = null;
+            while (json.nextKey()){
+                if (json.matchKey(codeKey) == 0){
+                    code = json.readString();
                 }
-
-                int movieId  = Integer.parseInt(csvRecord.get("tmdbId"));
-
-                // Check if this line in the ratings file is referring to a movie that actually exists
-                if (!validMovies.contains(movieId)){
-                    String message = "Ratings file contains a rating for a movie (id:" + movieId + ") that doesn't exist in the movie metadata file!";
-                    throw new DataLoadException(message);
+                else{
+                    json.skipValue();
                 }
+            }
+            json.requireAll(codeKey);
+            codes.add(code);
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
 
-                int userId   = Integer.parseInt(csvRecord.get("userId"));
-                float rating = Float.parseFloat(csvRecord.get("rating"));
-
-                long ts_in_file = Long.parseLong(csvRecord.get("timestamp"));
-                LocalDateTime time = LocalDateTime.ofEpochSecond(ts_in_file, 0 , ZoneOffset.UTC);
 
-                RatingRecord rr = new RatingRecord(userId, movieId, rating, time);
 
-                backendRatings.add(rr);
-                if (!backendRatingsByMovieId.containsKey(movieId)){
-                    backendRatingsByMovieId.put(movieId, new ArrayList<>());
-                }
-                backendRatingsByMovieId.get(movieId).add(rr);
 
-                loadUiUpdater.incrementUI(StoreType.RATINGS, record_count++);
 
+    /***
+     * Load the Ratings file into rating columns. The file is split into byte ranges that end
+     * on line boundaries, one or more per core, and the ranges are parsed at the same time
+     * straight from the mapped file, without creating a String for any field.
+     * @param ratingsCsvFile The file to load in
+     * @param loadUiUpdater Told how much of the file has been parsed
+     * @param sink Where each chunk of ratings is sent once it has been parsed
+     * @throws DataLoadException When the file is of the incorrect format
+     */
+    private void loadRatings(File ratingsCsvFile, FileLoadUiUpdater loadUiUpdater, RecordSink sink) throws DataLoadException {
+        System.out.println("\nLoading ratings from \"" + ratingsCsvFile.getPath() + "\"...\n\n");
+        ExecutorService executor = null;
+        try (FileChannel channel = FileChannel.open(ratingsCsvFile.toPath(), StandardOpenOption.READ)){
+            long fileSize = channel.size();
+            // The header gives which column holds each field
+            long dataStart = nextLineStart(channel, 0, fileSize);
+            CsvTokenizer header = new CsvTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, dataStart), 0);
+            header.readHeader();
+            int[] columns = {
+                header.columnIndex("userId"),
+                header.columnIndex("tmdbId"),
+                header.columnIndex("rating"),
+                header.columnIndex("timestamp")
+            };
+
+            // Split the file into chunks, each small enough to map in one go
+            int cores = Runtime.getRuntime().availableProcessors();
+            long dataSize = fileSize - dataStart;
+            int numChunks = dataSize < RATINGS_MIN_CHUNK_SIZE ? 1 : (int) Math.max(cores, dataSize / RATINGS_MAX_CHUNK_SIZE + 1);
+            long[] boundaries = new long[numChunks + 1];
+            boundaries[0] = dataStart;
+            for (int i = 1; i < numChunks; i++){
+                long nominal = Math.max(boundaries[i-1], dataStart + dataSize * i / numChunks);
+                boundaries[i] = nextLineStart(channel, nominal, fileSize);
             }
+            boundaries[numChunks] = fileSize;
+
+            // Parse every chunk in parallel, handing each to the sink as soon as it is done
+            executor = newLoaderPool(Math.min(cores, numChunks), "LoadData-ratings");
+            ArrayList<Future<?>> chunks = new ArrayList<>();
+            for (int i = 0; i < numChunks; i++){
+                int index = i;
+                long from = boundaries[i];
+                long to = boundaries[i+1];
+                chunks.add(executor.submit(() -> { sink.addRatings(index, parseRatingsChunk(channel, from, to, columns, loadUiUpdater)); return null; }));
+            }
+            for (Future<?> chunk : chunks){
+                awaitLoader(chunk);
+            }
+            loadUiUpdater.addBytes(StoreType.RATINGS, 0, dataStart); // The header
+            sink.finish(StoreType.RATINGS);
 
         }
-        catch (IOException e){
-            String message = "[ UNRECOVERABLE I/O ERROR ] Unable to open ratings file ('" + ratingsCsvFile.getPath() +"') for parsing. Please make sure it is in the 'data' directory.";
+        catch (IllegalArgumentException e){
+            String message = "--RATINGS-- Unable to read csv. Item for specified header not found.";
             System.err.println(message);
             System.err.println(e.getMessage());
-            System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
-        catch (IllegalArgumentException e){
-            String message = "[" + record_count + "] --RATINGS-- Unable to read csv. Item for specified header not found.";
+        catch (IOException e){
+            String message = "[ UNRECOVERABLE I/O ERROR ] Unable to open ratings file ('" + ratingsCsvFile.getPath() +"') for parsing. Please make sure it is in the 'data' directory.";
             System.err.println(message);
             System.err.println(e.getMessage());
             System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
-        catch (DateTimeParseException e){
-            String message = "[" + record_count + "] --RATINGS-- Unable to read csv. Unable to parse date.";
+        finally {
+            if (executor != null){
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static final int RATINGS_NUM_FIELDS = 5;
+    private static final long RATINGS_MIN_CHUNK_SIZE = 1 << 20;  // Files smaller than this are parsed as a single chunk
+    private static final int STORE_BATCH_SIZE = 1000; // Records added to a store at once when streaming
+    private static final long RATINGS_MAX_CHUNK_SIZE = 64L << 20; // Keeps the columns of each chunk small, as only a few are held at once when streaming
+
+    /**
+     * Finds the start of the line after a position in a file
+     * @param channel The open file
+     * @param position The position to search from
+     * @param fileSize The size of the file in bytes
+     * @return The offset just after the next newline, or the file size if there is none
+     */
+    private long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < fileSize){
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0){
+                break;
+            }
+            for (int i = 0; i < read; i++){
+                if (buffer.get(i) == '\n'){
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Parses one chunk of the ratings file, which starts at the beginning of a line and ends
+     * at the end of one
+     * @param channel The open ratings file
+     * @param from The offset of the first byte of the chunk
+     * @param to The offset just after the last byte of the chunk
+     * @param columns The columns of each field, from readRatingsHeader
+     * @param loadUiUpdater Told how much of the file has been parsed
+     * @return The ratings in the chunk, in file order
+     * @throws DataLoadException When a line is of the incorrect format
+     */
+    private RatingColumns parseRatingsChunk(FileChannel channel, long from, long to, int[] columns, FileLoadUiUpdater loadUiUpdater) throws IOException, DataLoadException {
+        CsvTokenizer csv = new CsvTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from), from);
+        RatingColumns chunk = new RatingColumns((int) ((to - from) / 32)); // Roughly the length of a line
+        int userColumn = columns[0], movieColumn = columns[1], ratingColumn = columns[2], timestampColumn = columns[3];
+        long bytesReported = from;
+
+        try {
+            while (csv.nextRecord()){
+                if (csv.size() != RATINGS_NUM_FIELDS){
+                    String message = "[byte " + csv.offset() + "] --RATINGS-- Incorrect list of ratings... No. fields found = " + csv.size();
+                    System.err.println(message);
+                    throw new DataLoadException(message);
+                }
+
+                chunk.add(csv.getInt(userColumn), csv.getInt(movieColumn), csv.getFloat(ratingColumn), csv.getLong(timestampColumn));
+                if (chunk.size % FileLoadUiUpdater.UPDATE_INTERVAL == 0){
+                    bytesReported = loadUiUpdater.addBytes(StoreType.RATINGS, bytesReported, csv.offset());
+                }
+            }
+            loadUiUpdater.addBytes(StoreType.RATINGS, bytesReported, to);
+        }
+        catch (NumberFormatException e){
+            String message = "[byte " + csv.offset() + "] --RATINGS-- Unable to read csv. Unable to parse number.";
             System.err.println(message);
             System.err.println(e.getMessage());
-            System.err.println(e.getStackTrace());
             throw new DataLoadException(message);
         }
+        return chunk;
+    }
+
+    /**
+     * Builds the list of rows for each movie in the backend ratings, so that a section
+     * of the dataset can pick out its ratings without scanning them all
+     */
+    private void indexRatingsByMovie(){
+        RatingColumns rc = backendRatings;
+        HashMap<Integer, int[]> counts = new HashMap<>();
+        for (int row = 0; row < rc.size; row++){
+            counts.computeIfAbsent(rc.movieIds[row], k -> new int[1])[0]++;
+        }
+        for (Integer movieId : counts.keySet()){
+            int[] count = counts.get(movieId);
+            backendRatingsByMovieId.put(movieId, new int[count[0]]);
+            count[0] = 0; // Reused as the position to write the next row to
+        }
+        for (int row = 0; row < rc.size; row++){
+            int[] next = counts.get(rc.movieIds[row]);
+            backendRatingsByMovieId.get(rc.movieIds[row])[next[0]++] = row;
+        }
     }
 
     public class DataLoadException extends Exception {
@@ -0,0 +1,96 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache that keeps the entries used most recently, dropping the least
+ * recently used entries once it is full. It is either bounded by the number of
+ * entries, or by the total weight of the values, such as their size in bytes.
+ * Safe to use from several threads.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the cached values
+ */
+public class LruCache<K, V> {
+    // An access ordered map keeps the least recently used entry first
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<V> weigher;
+    private final long maxWeight;
+    private long weight = 0;
+
+    /**
+     * @param maxEntries The most entries the cache holds
+     */
+    public LruCache(int maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    /**
+     * @param maxWeight The most total weight the cache holds
+     * @param weigher   Gives the weight of a value
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets a cached value, marking it as the most recently used
+     *
+     * @param key The key
+     * @return The value, or null if it isn't cached
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches a value, dropping the least recently used entries if the cache is full.
+     * A value heavier than the whole cache isn't kept
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value) {
+        V old = entries.put(key, value);
+        if (old != null) {
+            weight -= weigher.applyAsLong(old);
+        }
+        weight += weigher.applyAsLong(value);
+
+        Iterator<V> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes a value from the cache
+     *
+     * @param key The key
+     */
+    public synchronized void remove(K key) {
+        V old = entries.remove(key);
+        if (old != null) {
+            weight -= weigher.applyAsLong(old);
+        }
+    }
+
+    /**
+     * Empties the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return The number of cached entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
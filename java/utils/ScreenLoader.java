@@ -0,0 +1,146 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import interfaces.AbstractStores;
+
+/**
+ * Runs the store queries behind a screen off the EDT, so showing a screen (or leaving it)
+ * never waits on a query. A screen lays itself out with its loading messages straight away,
+ * hands each query to {@link #load(JPanel, AbstractStores, Supplier, Consumer)}, and is given
+ * the result on the EDT once it is ready.
+ *
+ * Every screen is drawn into the same panel, so the queries are kept by that panel, and
+ * each screen calls {@link #cancel(JPanel)} before drawing itself. Queries for the screen
+ * being left that haven't started are dropped, and the results of any that are running
+ * are thrown away rather than drawn over the new screen.
+ *
+ * Queries are run by a pool of Constants.screenLoaderThreads threads, so the independent
+ * queries behind a screen (such as the reels on the home screen) run side by side, and each
+ * part of the screen fills in as soon as its own query is done. Each query holds the read lock
+ * of the stores while it runs, see {@link AbstractStores#read(Supplier)}.
+ *
+ * Running queries aren't interrupted when they are cancelled, as an interrupt closes the file
+ * channels that lazy text is read from. Instead a long query can be given to
+ * {@link #loadCancellable(JPanel, AbstractStores, Function, Consumer)}, which hands it a check
+ * to pass on to the store searches, so a search that has been overtaken by the next one stops
+ * early rather than holding up the threads its successor needs.
+ */
+public final class ScreenLoader {
+    private static final ExecutorService workers = Executors.newFixedThreadPool(Constants.screenLoaderThreads, runnable -> {
+        Thread thread = new Thread(runnable, "ScreenLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The queries given for each screen panel that haven't been published yet. Only used on the EDT
+    private static final HashMap<JPanel, ArrayList<Query<?>>> running = new HashMap<>();
+
+    private ScreenLoader() { }
+
+    private static class Query<T> implements Runnable {
+        final JPanel screenPanel;
+        final AbstractStores stores;
+        final Function<BooleanSupplier, T> query;
+        final Consumer<T> onLoaded;
+        Future<?> future;
+        volatile boolean cancelled = false;
+
+        Query(JPanel screenPanel, AbstractStores stores, Function<BooleanSupplier, T> query, Consumer<T> onLoaded) {
+            this.screenPanel = screenPanel;
+            this.stores = stores;
+            this.query = query;
+            this.onLoaded = onLoaded;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            T result;
+            try {
+                result = stores.read(() -> query.apply(() -> cancelled));
+            } catch (RuntimeException e) {
+                // The screen shows its "nothing found" message rather than loading forever
+                System.err.println("Unable to load screen data: " + e);
+                e.printStackTrace();
+                result = null;
+            }
+            T loaded = result;
+            SwingUtilities.invokeLater(() -> {
+                ArrayList<Query<?>> queries = running.get(screenPanel);
+                if (queries != null) {
+                    queries.remove(this);
+                }
+                if (!cancelled) {
+                    onLoaded.accept(loaded);
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs a query in the background. Called on the EDT
+     * @param screenPanel The panel the screen is drawn into
+     * @param stores The stores the query reads, which are locked for reading while it runs
+     * @param query Gets the data from the stores. Run on a background thread, so it must not touch Swing
+     * @param onLoaded Given the result on the EDT, or null if the query failed. Not called if
+     *                 the screen has been left in the meantime
+     */
+    public static <T> void load(JPanel screenPanel, AbstractStores stores, Supplier<T> query, Consumer<T> onLoaded) {
+        loadCancellable(screenPanel, stores, cancelled -> query.get(), onLoaded);
+    }
+
+    /**
+     * Runs a query in the background that can stop part way through once its screen has been
+     * left, such as a search. Called on the EDT
+     * @param screenPanel The panel the screen is drawn into
+     * @param stores The stores the query reads, which are locked for reading while it runs
+     * @param query Gets the data from the stores, given a check that becomes true once the query
+     *              has been cancelled. Whatever it returns after that is thrown away. Run on a
+     *              background thread, so it must not touch Swing
+     * @param onLoaded Given the result on the EDT, or null if the query failed. Not called if
+     *                 the screen has been left in the meantime
+     */
+    public static <T> void loadCancellable(JPanel screenPanel, AbstractStores stores, Function<BooleanSupplier, T> query,
+                                           Consumer<T> onLoaded) {
+        Query<T> task = new Query<>(screenPanel, stores, query, onLoaded);
+        ArrayList<Query<?>> queries = running.get(screenPanel);
+        if (queries == null) {
+            queries = new ArrayList<>();
+            running.put(screenPanel, queries);
+        }
+        queries.add(task);
+        task.future = workers.submit(task);
+    }
+
+    /**
+     * Cancels the queries of the screen that is being left. Called on the EDT, by each screen
+     * before it draws itself into the panel
+     * @param screenPanel The panel the screens are drawn into
+     */
+    public static void cancel(JPanel screenPanel) {
+        ArrayList<Query<?>> queries = running.remove(screenPanel);
+        if (queries == null || queries.isEmpty()) {
+            return;
+        }
+        for (Query<?> task : queries) {
+            task.cancelled = true;
+            // Not interrupted, as an interrupt closes the file channels that lazy text is read from
+            task.future.cancel(false);
+        }
+        System.out.println("\tCancelled " + queries.size() + " screen queries");
+    }
+}
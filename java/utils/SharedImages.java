@@ -0,0 +1,98 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The images that come with the program, such as the 'unknown' placeholders and the logo,
+ * decoded once and shared by everything that shows them, along with the sizes they have
+ * been scaled to most recently. A cast list of a hundred people without pictures decodes
+ * and scales the placeholder once rather than a hundred times.
+ *
+ * Most of these images follow the size of the window, so resizing it asks for a new size
+ * on every step. Only the scaled images used most recently are kept, up to
+ * Constants.sharedImageCacheBytes, so the sizes passed through on the way are dropped.
+ *
+ * The images are shared, so they must never be drawn on.
+ */
+public final class SharedImages {
+    public static final String UNKNOWN_POSTER = "src/main/resources/img/Movie-Unknown-poster.png";
+    public static final String UNKNOWN_MOVIE  = "src/main/resources/img/Movie-Unknown.png";
+    public static final String UNKNOWN_PERSON = "src/main/resources/img/Person-Unknown.png";
+    public static final String LOGO           = "src/main/resources/img/WarwickPlusLogo.png";
+
+    private static final HashMap<String, BufferedImage> images = new HashMap<>();
+    private static final LruCache<String, BufferedImage> scaledImages = new LruCache<>(Constants.sharedImageCacheBytes,
+        image -> (long) image.getWidth() * image.getHeight() * 4); // By path and size
+
+    private SharedImages() { }
+
+    /**
+     * Gets an image, decoding it the first time it is asked for
+     *
+     * @param path The image file
+     * @return The image, or null if it can't be read
+     */
+    public static synchronized BufferedImage get(String path) {
+        if (images.containsKey(path)) {
+            return images.get(path);
+        }
+        BufferedImage image = null;
+        try {
+            image = ImageIO.read(new File(path));
+        } catch (IOException e) {
+            System.err.println("Unable to read image " + path + ": " + e.getMessage());
+        }
+        images.put(path, image); // Remembered even if missing, so it isn't tried again
+        return image;
+    }
+
+    /**
+     * Gets an image scaled to exactly the given size, scaling it unless that size was used recently
+     *
+     * @param path   The image file
+     * @param width  The width to scale to
+     * @param height The height to scale to
+     * @return The scaled image, or null if the image can't be read
+     */
+    public static synchronized BufferedImage scaled(String path, int width, int height) {
+        String key = path + "@" + width + "x" + height;
+        BufferedImage scaled = scaledImages.get(key);
+        if (scaled == null) {
+            BufferedImage image = get(path);
+            if (image == null) {
+                return null;
+            }
+            scaled = ImageScaler.scale(image, width, height);
+            scaledImages.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * Gets an image fitted inside a box, fitting it unless that box was used recently
+     *
+     * @param path   The image file
+     * @param width  The width of the box
+     * @param height The height of the box
+     * @param inset  Pixels taken off each dimension once fitted, see ImageScaler.fit
+     * @return The scaled image, or null if the image can't be read
+     */
+    public static synchronized BufferedImage fitted(String path, int width, int height, int inset) {
+        String key = path + "@" + width + "x" + height + "-" + inset;
+        BufferedImage scaled = scaledImages.get(key);
+        if (scaled == null) {
+            BufferedImage image = get(path);
+            if (image == null) {
+                return null;
+            }
+            scaled = ImageScaler.fit(image, width, height, inset);
+            scaledImages.put(key, scaled);
+        }
+        return scaled;
+    }
+}
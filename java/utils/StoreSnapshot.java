@@ -0,0 +1,699 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+import interfaces.ICredits;
+import interfaces.IKeywords;
+import interfaces.IMovies;
+import interfaces.IRatings;
+import stores.CastCredit;
+import stores.Company;
+import stores.CrewCredit;
+import stores.Genre;
+import stores.Keyword;
+import stores.MovieRecord;
+
+/**
+ * A binary copy of every record in the four data files, written the first time the files
+ * are parsed so that later launches can fill the stores without parsing any CSV or JSON.
+ *
+ * The file starts with a fixed size header holding the format version, a fingerprint of each
+ * data file (its size, modification time and a hash of samples of its contents) and where
+ * each section starts. A snapshot is only used while every fingerprint still matches, so
+ * changing a data file means the snapshot is rebuilt on the next launch. The sections are:
+ * <ul>
+ * <li>strings: every distinct string once, which the other sections refer to by index</li>
+ * <li>movies, credits and keywords: one record after another</li>
+ * <li>ratings: blocks of columns, one per chunk of the ratings file, in file order</li>
+ * </ul>
+ * The snapshot holds the records rather than the stores' own structures, so the stores can
+ * change without invalidating it. The stores are filled through their addAll methods, which
+ * build each index once per section.
+ */
+public class StoreSnapshot {
+    private static final int MAGIC = 0x57505353; // "WPSS"
+    private static final int VERSION = 1;
+
+    private static final int STRINGS = 0, MOVIES = 1, CREDITS = 2, KEYWORDS = 3, RATINGS = 4;
+    private static final int NUM_SECTIONS = 5;
+    private static final int NUM_DATA_FILES = 4;
+
+    // Magic, version, then size, modification time and hash for each data file, then offset,
+    // length and record count for each section
+    private static final int HEADER_SIZE = 4 + 4 + NUM_DATA_FILES * 3 * 8 + NUM_SECTIONS * 3 * 8;
+
+    private static final int SAMPLE_COUNT = 16;   // Blocks of each data file that are hashed
+    private static final int SAMPLE_SIZE = 4096;
+
+    private File snapshotFile;
+    private long[] offsets = new long[NUM_SECTIONS];
+    private long[] lengths = new long[NUM_SECTIONS];
+    private long[] counts = new long[NUM_SECTIONS];
+    private MappedByteBuffer stringTable;
+    private int[] stringPositions; // Where each string's length is in the string table
+    private String[] strings;      // Each string, once it has been decoded
+    private int textSource;        // The LazyText source number of the snapshot, or 0
+
+    /**
+     * @param snapshotFile Where the snapshot is kept
+     */
+    public StoreSnapshot(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Reads the header and string table of the snapshot, if it can be used for the given data files
+     *
+     * @param dataFiles The credits, keywords, movies and ratings files, in that order
+     * @return {@code true} if the snapshot exists, is in this version of the format and was made
+     *         from exactly these files, {@code false} otherwise
+     */
+    public boolean open(File... dataFiles) {
+        if (!snapshotFile.isFile()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) > 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                System.out.println("Snapshot " + snapshotFile + " is from a different version, so it will be rebuilt");
+                return false;
+            }
+            for (File dataFile : dataFiles) {
+                long[] fingerprint = fingerprint(dataFile);
+                if (header.getLong() != fingerprint[0] || header.getLong() != fingerprint[1] || header.getLong() != fingerprint[2]) {
+                    System.out.println("Data file " + dataFile + " has changed since snapshot " + snapshotFile + " was made, so it will be rebuilt");
+                    return false;
+                }
+            }
+            for (int section = 0; section < NUM_SECTIONS; section++) {
+                offsets[section] = header.getLong();
+                lengths[section] = header.getLong();
+                counts[section] = header.getLong();
+                if (offsets[section] < HEADER_SIZE || offsets[section] + lengths[section] > channel.size()) {
+                    System.out.println("Snapshot " + snapshotFile + " is incomplete, so it will be rebuilt");
+                    return false;
+                }
+            }
+
+            // Every other section refers to the strings, so they are found first. Each one is only
+            // decoded when a record uses it, so long text that is left in the file is never decoded
+            stringTable = map(channel, STRINGS);
+            stringPositions = new int[(int) counts[STRINGS]];
+            strings = new String[stringPositions.length];
+            int position = 0;
+            for (int i = 0; i < stringPositions.length; i++) {
+                stringPositions[i] = position;
+                position += 4 + stringTable.getInt(position);
+            }
+            textSource = Constants.lazyTextFields ? LazyText.register(snapshotFile, LazyText.Encoding.RAW) : 0;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to read snapshot " + snapshotFile + ", so it will be rebuilt: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Adds every movie in the snapshot to the movies store
+     *
+     * @return The number of movies in the snapshot
+     */
+    public int loadMovies(IMovies movies) throws IOException {
+        ByteBuffer in = mapSection(MOVIES);
+        MovieRecord[] records = new MovieRecord[(int) counts[MOVIES]];
+        try {
+            for (int i = 0; i < records.length; i++) {
+                int id = in.getInt();
+                String name = readString(in);
+                String title = readString(in);
+                String originalTitle = readString(in);
+                String overview = readString(in); // Always held, as searches look through it
+                int taglineIndex = in.getInt();
+                long taglineRef = textRef(taglineIndex);
+                String tagline = taglineRef == LazyText.NONE ? string(taglineIndex) : null;
+                String status = readString(in);
+                Genre[] genres = new Genre[in.getInt()];
+                for (int j = 0; j < genres.length; j++) {
+                    genres[j] = new Genre(in.getInt(), readString(in));
+                }
+                long releaseDay = in.getLong();
+                LocalDate release = releaseDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(releaseDay);
+                long budget = in.getLong();
+                long revenue = in.getLong();
+                String[] languages = readStrings(in);
+                String originalLanguage = readString(in);
+                double runtime = in.getDouble();
+                int homepageIndex = in.getInt();
+                long homepageRef = textRef(homepageIndex);
+                String homepage = homepageRef == LazyText.NONE ? string(homepageIndex) : null;
+                byte flags = in.get();
+                String poster = readString(in);
+                double voteAverage = in.getDouble();
+                int voteCount = in.getInt();
+                int collectionID = in.getInt();
+                String collectionName = readString(in);
+                String collectionPosterPath = readString(in);
+                String collectionBackdropPath = readString(in);
+                String imdb = readString(in);
+                double popularity = in.getDouble();
+                Company[] companies = new Company[in.getInt()];
+                for (int j = 0; j < companies.length; j++) {
+                    companies[j] = new Company(in.getInt(), readString(in));
+                }
+                String[] countries = readStrings(in);
+
+                records[i] = new MovieRecord(id, name, title, originalTitle, overview, tagline, status, genres, release,
+                    budget, revenue, languages, originalLanguage, runtime, homepage, (flags & 1) != 0, (flags & 2) != 0,
+                    poster, voteAverage, voteCount, collectionID, collectionName, collectionPosterPath,
+                    collectionBackdropPath, imdb, popularity, companies, countries);
+                records[i].taglineRef = taglineRef;
+                records[i].homepageRef = homepageRef;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw corrupt(MOVIES);
+        }
+        movies.addAll(records);
+        return records.length;
+    }
+
+    /**
+     * Adds the cast and crew of every film in the snapshot to the credits store
+     *
+     * @return The number of credit records in the snapshot
+     */
+    public int loadCredits(ICredits credits) throws IOException {
+        ByteBuffer in = mapSection(CREDITS);
+        int count = (int) counts[CREDITS];
+        int[] movieIds = new int[count];
+        CastCredit[][] cast = new CastCredit[count][];
+        CrewCredit[][] crew = new CrewCredit[count][];
+        try {
+            for (int i = 0; i < count; i++) {
+                movieIds[i] = in.getInt();
+                cast[i] = new CastCredit[in.getInt()];
+                for (int j = 0; j < cast[i].length; j++) {
+                    int elementId = in.getInt();
+                    int characterIndex = in.getInt();
+                    long characterRef = textRef(characterIndex);
+                    if (characterRef != LazyText.NONE) {
+                        cast[i][j] = new CastCredit(elementId, characterRef, readString(in), in.getInt(), readString(in), in.getInt(), readString(in));
+                    } else {
+                        String character = string(characterIndex);
+                        cast[i][j] = new CastCredit(elementId, character, readString(in), in.getInt(), readString(in), in.getInt(), readString(in));
+                    }
+                }
+                crew[i] = new CrewCredit[in.getInt()];
+                for (int j = 0; j < crew[i].length; j++) {
+                    crew[i][j] = new CrewCredit(readString(in), readString(in), in.getInt(), readString(in), readString(in), readString(in));
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw corrupt(CREDITS);
+        }
+        credits.addAll(cast, crew, movieIds);
+        return count;
+    }
+
+    /**
+     * Adds the keywords of every film in the snapshot to the keywords store
+     *
+     * @return The number of keyword records in the snapshot
+     */
+    public int loadKeywords(IKeywords keywords) throws IOException {
+        ByteBuffer in = mapSection(KEYWORDS);
+        int count = (int) counts[KEYWORDS];
+        int[] movieIds = new int[count];
+        Keyword[][] movieKeywords = new Keyword[count][];
+        try {
+            for (int i = 0; i < count; i++) {
+                movieIds[i] = in.getInt();
+                movieKeywords[i] = new Keyword[in.getInt()];
+                for (int j = 0; j < movieKeywords[i].length; j++) {
+                    movieKeywords[i][j] = new Keyword(in.getInt(), readString(in));
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw corrupt(KEYWORDS);
+        }
+        keywords.addAll(movieIds, movieKeywords);
+        return count;
+    }
+
+    /**
+     * Adds every rating in the snapshot to the ratings store, one block of columns at a time
+     *
+     * @return The number of ratings in the snapshot
+     */
+    public int loadRatings(IRatings ratings) throws IOException {
+        ByteBuffer in = mapSection(RATINGS);
+        long total = 0;
+        try {
+            while (in.hasRemaining()) {
+                int size = in.getInt();
+                int[] userIds = new int[size];
+                int[] movieIds = new int[size];
+                float[] ratingValues = new float[size];
+                long[] timestamps = new long[size];
+                // Each column is read in one bulk copy
+                in.asIntBuffer().get(userIds);
+                in.position(in.position() + size * 4);
+                in.asIntBuffer().get(movieIds);
+                in.position(in.position() + size * 4);
+                in.asFloatBuffer().get(ratingValues);
+                in.position(in.position() + size * 4);
+                in.asLongBuffer().get(timestamps);
+                in.position(in.position() + size * 8);
+
+                ratings.addAll(userIds, movieIds, ratingValues, timestamps, size);
+                total += size;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw corrupt(RATINGS);
+        }
+        if (total != counts[RATINGS]) {
+            throw corrupt(RATINGS);
+        }
+        return (int) total;
+    }
+
+    /**
+     * Deletes the snapshot, so the data files are parsed again next time
+     */
+    public void delete() {
+        snapshotFile.delete();
+    }
+
+    private String readString(ByteBuffer in) {
+        return string(in.getInt());
+    }
+
+    private String string(int index) {
+        if (index < 0) {
+            return null;
+        }
+        String value = strings[index];
+        if (value == null) {
+            // Sections are loaded in parallel, but at worst two threads decode the same string
+            int position = stringPositions[index];
+            byte[] bytes = new byte[stringTable.getInt(position)];
+            stringTable.get(position + 4, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Makes a reference to a string in the snapshot, so it can be left there until it is shown
+     *
+     * @param index The string's index
+     * @return The reference, or LazyText.NONE if the string should be decoded now
+     */
+    private long textRef(int index) {
+        if (textSource == 0 || index < 0) {
+            return LazyText.NONE;
+        }
+        int position = stringPositions[index];
+        int length = stringTable.getInt(position);
+        if (length == 0 || length > LazyText.MAX_LENGTH) {
+            return LazyText.NONE;
+        }
+        return LazyText.ref(textSource, offsets[STRINGS] + position + 4, length, 0);
+    }
+
+    private String[] readStrings(ByteBuffer in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    private MappedByteBuffer mapSection(int section) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            return map(channel, section); // The mapping stays valid once the channel is closed
+        }
+    }
+
+    private MappedByteBuffer map(FileChannel channel, int section) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offsets[section], lengths[section]);
+    }
+
+    private IOException corrupt(int section) {
+        return new IOException("Snapshot " + snapshotFile + " is corrupt (section " + section + ")");
+    }
+
+    /**
+     * Fingerprints a data file without reading all of it
+     *
+     * @param file The data file
+     * @return Its size, modification time and a hash of evenly spaced samples of its contents
+     */
+    static long[] fingerprint(File file) throws IOException {
+        long size = file.length();
+        long modified = Files.getLastModifiedTime(file.toPath()).toMillis();
+        CRC32 crc = new CRC32();
+        ByteBuffer sample = ByteBuffer.allocate(SAMPLE_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                long position = size <= SAMPLE_SIZE ? 0 : (size - SAMPLE_SIZE) * i / (SAMPLE_COUNT - 1);
+                sample.clear();
+                while (sample.hasRemaining() && channel.read(sample, position + sample.position()) > 0);
+                crc.update(sample.array(), 0, sample.position());
+            }
+        }
+        return new long[]{size, modified, crc.getValue()};
+    }
+
+    /**
+     * Writes a snapshot while the data files are being parsed. The records are written to a
+     * temporary file per section as they arrive, and joined into the snapshot by commit once
+     * the whole load has succeeded.
+     *
+     * Each section is written by the thread loading that file, and the ratings by every ratings
+     * chunk, so each section has its own stream. A write that fails stops the snapshot being
+     * made, but never fails the load itself.
+     */
+    public static class Writer {
+        private File snapshotFile;
+        private long[][] fingerprints = new long[NUM_DATA_FILES][];
+        private File[] sectionFiles = new File[NUM_SECTIONS];
+        private DataOutputStream[] sections = new DataOutputStream[NUM_SECTIONS];
+        private long[] counts = new long[NUM_SECTIONS];
+        private HashMap<String, Integer> stringIndexes = new HashMap<>();
+        private FileChannel ratingsChannel;                                  // Ratings blocks, in the order the chunks finish
+        private HashMap<Integer, long[]> ratingBlocks = new HashMap<>();    // Position and length of each chunk's block
+        private volatile boolean failed = false;
+
+        /**
+         * @param snapshotFile Where to write the snapshot
+         * @param dataFiles    The credits, keywords, movies and ratings files, in that order
+         * @throws IOException If the data files can't be read or the temporary files can't be created
+         */
+        public Writer(File snapshotFile, File... dataFiles) throws IOException {
+            this.snapshotFile = snapshotFile;
+            // Fingerprint the files before they are parsed, so a change during the load is noticed next time
+            for (int i = 0; i < NUM_DATA_FILES; i++) {
+                fingerprints[i] = fingerprint(dataFiles[i]);
+            }
+            File directory = snapshotFile.getAbsoluteFile().getParentFile();
+            try {
+                for (int section = 0; section < NUM_SECTIONS; section++) {
+                    sectionFiles[section] = File.createTempFile(snapshotFile.getName() + "." + section + ".", ".tmp", directory);
+                    if (section != RATINGS) {
+                        sections[section] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sectionFiles[section]), 1 << 16));
+                    }
+                }
+                ratingsChannel = FileChannel.open(sectionFiles[RATINGS].toPath(), StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        public void writeMovie(MovieRecord mr) {
+            if (failed) return;
+            DataOutputStream out = sections[MOVIES];
+            try {
+                out.writeInt(mr.id);
+                writeString(out, mr.name);
+                writeString(out, mr.title);
+                writeString(out, mr.originalTitle);
+                // Text left in the data files is read once more to copy it into the snapshot
+                writeString(out, mr.overview);
+                writeString(out, mr.tagline != null ? mr.tagline : LazyText.read(mr.taglineRef));
+                writeString(out, mr.status);
+                out.writeInt(mr.genres.length);
+                for (Genre genre : mr.genres) {
+                    out.writeInt(genre.getID());
+                    writeString(out, genre.getName());
+                }
+                out.writeLong(mr.release == null ? Long.MIN_VALUE : mr.release.toEpochDay());
+                out.writeLong(mr.budget);
+                out.writeLong(mr.revenue);
+                writeStrings(out, mr.languages);
+                writeString(out, mr.originalLanguage);
+                out.writeDouble(mr.runtime);
+                writeString(out, mr.homepage != null ? mr.homepage : LazyText.read(mr.homepageRef));
+                out.writeByte((mr.adult ? 1 : 0) | (mr.video ? 2 : 0));
+                writeString(out, mr.poster);
+                out.writeDouble(mr.voteAverage);
+                out.writeInt(mr.voteCount);
+                out.writeInt(mr.collectionID);
+                writeString(out, mr.collectionName);
+                writeString(out, mr.collectionPosterPath);
+                writeString(out, mr.collectionBackdropPath);
+                writeString(out, mr.imdb);
+                out.writeDouble(mr.popularity);
+                out.writeInt(mr.productionCompanies.length);
+                for (Company company : mr.productionCompanies) {
+                    out.writeInt(company.getID());
+                    writeString(out, company.getName());
+                }
+                writeStrings(out, mr.productionCountries);
+                counts[MOVIES]++;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        public void writeCredits(int movieId, CastCredit[] cast, CrewCredit[] crew) {
+            if (failed) return;
+            DataOutputStream out = sections[CREDITS];
+            try {
+                out.writeInt(movieId);
+                out.writeInt(cast.length);
+                for (CastCredit c : cast) {
+                    out.writeInt(c.getElementID());
+                    writeString(out, c.readCharacter());
+                    writeString(out, c.getCreditID());
+                    out.writeInt(c.getID());
+                    writeString(out, c.getName());
+                    out.writeInt(c.getOrder());
+                    writeString(out, c.getProfilePath());
+                }
+                out.writeInt(crew.length);
+                for (CrewCredit c : crew) {
+                    writeString(out, c.getElementID());
+                    writeString(out, c.getDepartment());
+                    out.writeInt(c.getID());
+                    writeString(out, c.getJob());
+                    writeString(out, c.getName());
+                    writeString(out, c.getProfilePath());
+                }
+                counts[CREDITS]++;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        public void writeKeywords(int movieId, Keyword[] keywords) {
+            if (failed) return;
+            DataOutputStream out = sections[KEYWORDS];
+            try {
+                out.writeInt(movieId);
+                out.writeInt(keywords.length);
+                for (Keyword keyword : keywords) {
+                    out.writeInt(keyword.getID());
+                    writeString(out, keyword.getName());
+                }
+                counts[KEYWORDS]++;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Writes one chunk of the ratings file as a block of columns
+         *
+         * @param chunkIndex The position of the chunk in the ratings file
+         * @param count      The number of ratings, from the start of each array
+         */
+        public void writeRatings(int chunkIndex, int[] userIds, int[] movieIds, float[] ratings, long[] timestamps, int count) {
+            if (failed) return;
+            ByteBuffer block = ByteBuffer.allocate(4 + count * (4 + 4 + 4 + 8));
+            block.putInt(count);
+            block.asIntBuffer().put(userIds, 0, count);
+            block.position(block.position() + count * 4);
+            block.asIntBuffer().put(movieIds, 0, count);
+            block.position(block.position() + count * 4);
+            block.asFloatBuffer().put(ratings, 0, count);
+            block.position(block.position() + count * 4);
+            block.asLongBuffer().put(timestamps, 0, count);
+            block.position(block.position() + count * 8);
+            block.flip();
+
+            // Chunks finish in any order, so remember where each one went for commit to put them back in order
+            synchronized (ratingBlocks) {
+                try {
+                    long position = ratingsChannel.position();
+                    while (block.hasRemaining()) {
+                        ratingsChannel.write(block);
+                    }
+                    ratingBlocks.put(chunkIndex, new long[]{position, block.limit()});
+                    counts[RATINGS] += count;
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        /**
+         * Joins the sections into the snapshot file. The snapshot is written under a temporary
+         * name and then moved into place, so a half written snapshot is never left behind
+         *
+         * @return {@code true} if the snapshot was written
+         */
+        public boolean commit() {
+            if (failed) {
+                abort();
+                return false;
+            }
+            File partial = new File(snapshotFile.getPath() + ".tmp");
+            try {
+                closeSections();
+                try (FileChannel out = FileChannel.open(partial.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC).putInt(VERSION);
+                    for (long[] fingerprint : fingerprints) {
+                        header.putLong(fingerprint[0]).putLong(fingerprint[1]).putLong(fingerprint[2]);
+                    }
+                    long offset = HEADER_SIZE;
+                    for (int section = 0; section < NUM_SECTIONS; section++) {
+                        long length = sectionFiles[section].length();
+                        header.putLong(offset).putLong(length).putLong(counts[section]);
+                        offset += length;
+                    }
+                    header.flip();
+                    while (header.hasRemaining()) {
+                        out.write(header);
+                    }
+
+                    for (int section = 0; section < NUM_SECTIONS; section++) {
+                        try (FileChannel in = FileChannel.open(sectionFiles[section].toPath(), StandardOpenOption.READ)) {
+                            if (section != RATINGS) {
+                                transfer(in, 0, in.size(), out);
+                                continue;
+                            }
+                            for (int chunk = 0; chunk < ratingBlocks.size(); chunk++) {
+                                long[] block = ratingBlocks.get(chunk);
+                                if (block == null) {
+                                    throw new IOException("Ratings chunk " + chunk + " is missing");
+                                }
+                                transfer(in, block[0], block[1], out);
+                            }
+                        }
+                    }
+                }
+                Files.move(partial.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.out.println("Wrote snapshot " + snapshotFile + " (" + snapshotFile.length() / (1024 * 1024) + "MB)");
+                return true;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Unable to write snapshot " + snapshotFile + ": " + e);
+                partial.delete();
+                return false;
+            } finally {
+                deleteSections();
+            }
+        }
+
+        /**
+         * Throws away everything written so far, for when the load fails
+         */
+        public void abort() {
+            failed = true;
+            try {
+                closeSections();
+            } catch (IOException e) {
+                // The files are being deleted anyway
+            }
+            deleteSections();
+        }
+
+        /**
+         * Writes a reference to a string, adding it to the string table the first time it is seen.
+         * Shared by the movies, credits and keywords threads
+         */
+        private void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            int index;
+            synchronized (stringIndexes) {
+                Integer existing = stringIndexes.get(value);
+                if (existing == null) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    sections[STRINGS].writeInt(bytes.length);
+                    sections[STRINGS].write(bytes);
+                    existing = stringIndexes.size();
+                    stringIndexes.put(value, existing);
+                    counts[STRINGS]++;
+                }
+                index = existing;
+            }
+            out.writeInt(index);
+        }
+
+        private void writeStrings(DataOutputStream out, String[] values) throws IOException {
+            out.writeInt(values.length);
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+
+        private void fail(IOException e) {
+            if (!failed) {
+                failed = true;
+                System.err.println("Unable to write snapshot " + snapshotFile + ", the data will be parsed again next time: " + e);
+            }
+        }
+
+        private static void transfer(FileChannel in, long position, long length, FileChannel out) throws IOException {
+            long done = 0;
+            while (done < length) {
+                done += in.transferTo(position + done, length - done, out);
+            }
+        }
+
+        private void closeSections() throws IOException {
+            IOException error = null;
+            for (DataOutputStream section : sections) {
+                try {
+                    if (section != null) section.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            if (ratingsChannel != null) {
+                ratingsChannel.close();
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void deleteSections() {
+            for (File file : sectionFiles) {
+                if (file != null) file.delete();
+            }
+        }
+    }
+}